@@ -0,0 +1,134 @@
+package com.customers.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Application specific settings, bound from the {@code customers.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "customers")
+public class CustomersProperties {
+
+  private final Bulk bulk = new Bulk();
+
+  private final Cache cache = new Cache();
+
+  private final Datasource datasource = new Datasource();
+
+  private final Export export = new Export();
+
+  private final Jobs jobs = new Jobs();
+
+  @Data
+  public static class Bulk {
+
+    /**
+     * Number of customers written and flushed together by the bulk operations, before the persistence context is cleared.
+     * It should be a multiple of the JDBC batch size.
+     */
+    private int chunkSize = 500;
+  }
+
+  @Data
+  public static class Export {
+
+    /**
+     * Number of rows the JDBC driver fetches at once while the customers are exported. The addresses and communications
+     * are read for as many customers at once.
+     */
+    private int fetchSize = 500;
+  }
+
+  @Data
+  public static class Jobs {
+
+    /**
+     * Number of bulk jobs running at the same time, further jobs wait in their QUEUED status. Every running job holds a
+     * database connection while it writes a chunk.
+     */
+    private int workers = 2;
+
+    /**
+     * Number of bulk jobs waiting for a worker, further jobs are rejected with 503 until a running job has ended.
+     */
+    private int queueCapacity = 20;
+  }
+
+  @Data
+  public static class Cache {
+
+    /**
+     * Maximum number of customers kept in the in-process cache.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a cached customer is served before it is read again from the database.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /**
+     * Maximum size of the JSON kept for the whole customer reads, counted in encoded bytes.
+     */
+    private DataSize encodedMaximumSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Maximum number of filters whose customer count is kept for the totals of the paged lists.
+     */
+    private long countMaximumSize = 1_000;
+
+    /**
+     * How long a customer count is used for the totals, it bounds the lag behind the writes of other instances.
+     */
+    private Duration countTimeToLive = Duration.ofSeconds(30);
+  }
+
+  @Data
+  public static class Datasource {
+
+    /**
+     * Read-only replicas of the {@code spring.datasource} database. The read-only transactions are spread over them,
+     * everything runs on the primary database when there is none.
+     */
+    private List<Database> replicas = new ArrayList<>();
+
+    /**
+     * Further databases the customers are spread over by the hash of their id, the {@code spring.datasource} database is
+     * the first shard. Everything stays in the {@code spring.datasource} database when there is none. Cannot be combined
+     * with replicas.
+     */
+    private List<Database> shards = new ArrayList<>();
+
+    /**
+     * How long the reads of a written customer keep going to the primary database, it has to cover the replication lag
+     * of the replicas.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(5);
+
+    /**
+     * Runs the migrations on the replicas as well. Only meant for local replicas which are databases of their own, the
+     * real replicas get the schema by the replication.
+     */
+    private boolean migrateReplicas = false;
+  }
+
+  /**
+   * Connection of a database besides the {@code spring.datasource} one.
+   */
+  @Data
+  public static class Database {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+  }
+}
@@ -0,0 +1,47 @@
+package com.customers.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.customers.model.CustomerDTO;
+import com.customers.model.ListCustomersResponsePagingDTO;
+import com.customers.model.PagingDTO;
+import com.customers.model.PersonDataDTO;
+import com.customers.model.SlicePagingDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+@Configuration
+public class JacksonConfig {
+
+	/**
+	 * The members of the customer which are not requested by {@code fields} or {@code expand} are null, they are left out of
+	 * the response instead of being written as nulls.
+	 */
+	@Bean
+	public Jackson2ObjectMapperBuilderCustomizer sparseCustomerCustomizer() {
+		return builder -> builder
+				.mixIn(CustomerDTO.class, NonNullMixIn.class)
+				.mixIn(PersonDataDTO.class, NonNullMixIn.class);
+	}
+
+	/**
+	 * The paging of a list is either the one of a counted page or the one of a slice. No type member is written, a paging
+	 * is read as the one of a counted page when it has a page count.
+	 */
+	@Bean
+	public Jackson2ObjectMapperBuilderCustomizer pagingCustomizer() {
+		return builder -> builder.mixIn(ListCustomersResponsePagingDTO.class, PagingMixIn.class);
+	}
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private interface NonNullMixIn {
+	}
+
+	@JsonTypeInfo(use = JsonTypeInfo.Id.DEDUCTION, defaultImpl = SlicePagingDTO.class)
+	@JsonSubTypes({ @JsonSubTypes.Type(PagingDTO.class), @JsonSubTypes.Type(SlicePagingDTO.class) })
+	private interface PagingMixIn {
+	}
+}
@@ -0,0 +1,60 @@
+package com.customers.config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.customers.infrastructure.persistence.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Replaces the data source of {@code spring.datasource} by one which sends the read-only transactions to the replicas of
+ * {@code customers.datasource.replicas}. The flyway migrations and all writes keep running on the primary database.
+ */
+@Log4j2
+@Configuration
+@ConditionalOnProperty(prefix = "customers.datasource", name = "replicas[0].url")
+public class ReadReplicaConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, CustomersProperties customersProperties) {
+		final CustomersProperties.Datasource properties = customersProperties.getDatasource();
+		final List<DataSource> replicas = properties.getReplicas().stream()
+				.map(replica -> (DataSource) DataSourceBuilder.create().type(HikariDataSource.class)
+						.url(replica.getUrl()).username(replica.getUsername()).password(replica.getPassword()).build())
+				.toList();
+		if (properties.isMigrateReplicas()) {
+			replicas.forEach(replica -> Flyway.configure().dataSource(replica).load().migrate());
+		}
+		log.info("Read-only transactions are routed to {} replicas", replicas.size());
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+	}
+
+	/**
+	 * The connection is only taken from the routing once the first statement runs, when the transaction has been started
+	 * and it is known whether it is read-only.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+}
@@ -0,0 +1,67 @@
+package com.customers.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.customers.infrastructure.persistence.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Replaces the data source of {@code spring.datasource} by one which sends the work on a shard to the database of
+ * {@code customers.datasource.shards} it is pinned to. The {@code spring.datasource} database is the first shard, it also
+ * keeps the bulk jobs and the contact claims. Cannot be combined with the {@link ReadReplicaConfig}, both replace the
+ * data source.
+ */
+@Log4j2
+@Configuration
+@ConditionalOnProperty(prefix = "customers.datasource", name = "shards[0].url")
+public class ShardingConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource firstShardDataSource(DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	/**
+	 * The first shard is migrated by the flyway of Spring Boot through the routing, the further shards right here.
+	 */
+	@Bean
+	public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource firstShardDataSource,
+			CustomersProperties customersProperties) {
+		final List<DataSource> shards = new ArrayList<>();
+		shards.add(firstShardDataSource);
+		customersProperties.getDatasource().getShards().forEach(shard -> {
+			final DataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+					.url(shard.getUrl()).username(shard.getUsername()).password(shard.getPassword()).build();
+			Flyway.configure().dataSource(dataSource).load().migrate();
+			shards.add(dataSource);
+		});
+		log.info("The customers are spread over {} shards", shards.size());
+		return new ShardRoutingDataSource(shards);
+	}
+
+	/**
+	 * The connection is only taken from the routing once the first statement runs, when the work has been pinned to its
+	 * shard.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+	}
+}
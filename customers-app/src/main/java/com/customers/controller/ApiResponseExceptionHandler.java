@@ -7,12 +7,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.customers.etag.exception.ETagPreconditionFailedException;
 import com.customers.exception.NotFoundException;
+import com.customers.exception.ServiceUnavailableException;
 import com.customers.exception.ValidationException;
 import com.customers.exception.general.ApplicationErrorException;
 import com.customers.exception.general.ErrorResponseMapper;
 import com.customers.model.ApiErrorResponseDTO;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -24,7 +27,10 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ApiResponseExceptionHandler {
 
+	private static final String NO_CODE = "NONE";
+
 	private final ErrorResponseMapper errorResponseMapper;
+	private final MeterRegistry meterRegistry;
 
 	@ExceptionHandler({ NotFoundException.class })
 	public ResponseEntity<ApiErrorResponseDTO> handleNotFoundException(NotFoundException ex) {
@@ -36,6 +42,16 @@ public class ApiResponseExceptionHandler {
 		return processResponse(ex, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler({ ETagPreconditionFailedException.class })
+	public ResponseEntity<ApiErrorResponseDTO> handleETagPreconditionFailedException(ETagPreconditionFailedException ex) {
+		return processResponse(ex, HttpStatus.PRECONDITION_FAILED);
+	}
+
+	@ExceptionHandler({ ServiceUnavailableException.class })
+	public ResponseEntity<ApiErrorResponseDTO> handleServiceUnavailableException(ServiceUnavailableException ex) {
+		return processResponse(ex, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
 	@ExceptionHandler({ ApplicationErrorException.class })
 	public ResponseEntity<ApiErrorResponseDTO> handleApplicationErrorException(ApplicationErrorException ex) {
 		return processResponse(ex, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -43,10 +59,16 @@ public class ApiResponseExceptionHandler {
 
 	private ResponseEntity<ApiErrorResponseDTO> processResponse(ApplicationErrorException ex, HttpStatus status) {
 		ex.getApplicationError().setHttpStatus(status);
+		countRejection(ex.getApplicationError().getCode(), status);
 		final ApiErrorResponseDTO responseDTO = errorResponseMapper.errorToDTO(ex.getApplicationError());
 		return ResponseEntity.status(responseDTO.getStatus()).headers(this.getDefaultHeaders()).body(responseDTO);
 	}
 
+	private void countRejection(String code, HttpStatus status) {
+		meterRegistry.counter("customers.api.rejections", "code", code != null ? code : NO_CODE,
+				"status", String.valueOf(status.value())).increment();
+	}
+
 	private HttpHeaders getDefaultHeaders() {
 		HttpHeaders httpHeaders = new HttpHeaders();
 		httpHeaders.setContentType(MediaType.APPLICATION_JSON);
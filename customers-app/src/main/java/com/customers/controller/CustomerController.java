@@ -1,24 +1,45 @@
 package com.customers.controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.customers.api.CustomersApi;
+import com.customers.db.model.CustomerVersion;
+import com.customers.db.model.EncodedCustomer;
 import com.customers.db.model.VersionModel;
+import com.customers.domain.CustomerFields;
+import com.customers.domain.CustomerSort;
 import com.customers.etag.CustomerETagResponseEntity;
+import com.customers.etag.utils.ETagUtils;
+import com.customers.model.AddressDataDTO;
 import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.BulkJobDTO;
+import com.customers.model.BulkJobResultsDTO;
 import com.customers.model.BulkUpdateRequestDTO;
+import com.customers.model.CommunicationDataDTO;
 import com.customers.model.CreateCustomerRequestDTO;
 import com.customers.model.CustomerDTO;
 import com.customers.model.ListCustomersResponseDTO;
+import com.customers.model.PhoneDataDTO;
 import com.customers.model.UpdateCustomerRequestDTO;
+import com.customers.service.BulkJobService;
 import com.customers.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 
@@ -32,6 +53,8 @@ import lombok.RequiredArgsConstructor;
 public class CustomerController implements CustomersApi {
 
 	private final CustomerService customerservice;
+	private final BulkJobService bulkJobService;
+	private final ObjectMapper objectMapper;
 
 	@Override
 	public ResponseEntity<CustomerDTO> createCustomer(CreateCustomerRequestDTO createCustomerRequestDTO) {
@@ -53,14 +76,33 @@ public class CustomerController implements CustomersApi {
 	 * @param pageNumber Page number, default is 0 (optional, default to 0)
 	 * @param pageSize Number of items in a page, default page size is 20, maximum 50 (optional, default to 20)
 	 * @param sort Sort criteria, format: &#39;?sort&#x3D;&amp;lt;propertyA&amp;gt;[,&amp;lt;propertyB&amp;gt;][,(asc|desc)]&#39;, sort parameter can be used several times in one query  (optional)
+	 * @param cursor Opaque cursor from a previous page, switches to keyset pagination (optional)
 	 * @return
 	 */
 	@Override
 	public ResponseEntity<ListCustomersResponseDTO> getCustomers(String name, String firstName, List<UUID> customerIds, String city,
-			String email, String search, Integer pageNumber, Integer pageSize, String sort) {
-		ListCustomersResponseDTO listCustomersResponseDTO = customerservice.getCustomers(name, firstName, customerIds,
-				city, email, search, PageRequest.of(pageNumber, pageSize, Sort.by(sort == null ? "created" : sort)));
-		return ResponseEntity.ok(listCustomersResponseDTO);
+			String email, String search, Integer pageNumber, Integer pageSize, String sort, String cursor, List<String> fields,
+			List<String> expand, Boolean includeTotal, String ifNoneMatch) {
+		CustomerFields customerFields = CustomerFields.of(fields, expand);
+		if (cursor != null) {
+			return listed(customerservice.getCustomersByCursor(name, firstName, customerIds, city, email, search,
+					cursor, pageSize, customerFields, ifNoneMatch));
+		}
+		VersionModel<ListCustomersResponseDTO> listCustomersResponseDTO = customerservice.getCustomers(name, firstName,
+				customerIds, city, email, search, PageRequest.of(pageNumber, pageSize, CustomerSort.of(sort)), includeTotal, customerFields,
+				ifNoneMatch);
+		return listed(listCustomersResponseDTO);
+	}
+
+	/**
+	 * The customers are written to the response while they are read, on an async request thread, one JSON document per line.
+	 */
+	@Override
+	public ResponseEntity<StreamingResponseBody> exportCustomers(String name, String firstName, List<UUID> customerIds,
+			String city, String email, String search) {
+		StreamingResponseBody responseBody = outputStream -> customerservice.exportCustomers(name, firstName, customerIds,
+				city, email, search, customerDTO -> writeLine(outputStream, customerDTO));
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
 	}
 
 	@Override
@@ -70,6 +112,20 @@ public class CustomerController implements CustomersApi {
 		return ResponseEntity.status(HttpStatus.CREATED).body(customerDTOList);
 	}
 
+	/**
+	 * The request body is read while the customers are created, on an async request thread. The result of every line is
+	 * written back as soon as its chunk is committed.
+	 */
+	@Override
+	public ResponseEntity<StreamingResponseBody> importCustomers(InputStreamResource customers) {
+		StreamingResponseBody responseBody = outputStream -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(customers.getInputStream(), StandardCharsets.UTF_8))) {
+				customerservice.importCustomers(reader.lines(), result -> writeLine(outputStream, result));
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+	}
+
 	@Override
 	public ResponseEntity<Void> deleteCustomer(UUID customerId) {
 		customerservice.deleteCustomer(customerId);
@@ -86,16 +142,63 @@ public class CustomerController implements CustomersApi {
 	}
 
 	@Override
-	public ResponseEntity<ListCustomersResponseDTO> getAllCustomers(Integer pageNumber, Integer pageSize, String sort) {
-		ListCustomersResponseDTO listCustomersResponseDTO = customerservice.getAllCustomers(PageRequest.of(pageNumber, pageSize, Sort.by(sort == null ? "created" : sort)));
-		return ResponseEntity.ok(listCustomersResponseDTO);
+	public ResponseEntity<BulkJobDTO> createCustomersJob(BulkCreationRequestDTO bulkCreationRequestDTO) {
+		return accepted(bulkJobService.submitCreation(bulkCreationRequestDTO));
 	}
 
 	@Override
-	public ResponseEntity<CustomerDTO> getCustomer(UUID customerId) {
-		VersionModel<CustomerDTO> itemDTOVersionModel = customerservice.getCustomer(customerId);
+	public ResponseEntity<BulkJobDTO> updateCustomersJob(BulkUpdateRequestDTO bulkUpdateRequestDTO) {
+		return accepted(bulkJobService.submitUpdate(bulkUpdateRequestDTO));
+	}
 
-		return new CustomerETagResponseEntity<>(itemDTOVersionModel).ok();
+	@Override
+	public ResponseEntity<BulkJobDTO> deleteCustomersJob(List<UUID> customersIds) {
+		return accepted(bulkJobService.submitDeletion(customersIds));
+	}
+
+	@Override
+	public ResponseEntity<BulkJobDTO> getBulkJob(UUID jobId) {
+		return ResponseEntity.ok(bulkJobService.getJob(jobId));
+	}
+
+	@Override
+	public ResponseEntity<BulkJobResultsDTO> getBulkJobResults(UUID jobId, Integer pageNumber, Integer pageSize) {
+		return ResponseEntity.ok(bulkJobService.getJobResults(jobId, PageRequest.of(pageNumber, pageSize)));
+	}
+
+	@Override
+	public ResponseEntity<BulkJobDTO> cancelBulkJob(UUID jobId) {
+		return ResponseEntity.ok(bulkJobService.cancelJob(jobId));
+	}
+
+	@Override
+	public ResponseEntity<ListCustomersResponseDTO> getAllCustomers(Integer pageNumber, Integer pageSize, String sort, String cursor,
+			List<String> fields, List<String> expand, Boolean includeTotal, String ifNoneMatch) {
+		CustomerFields customerFields = CustomerFields.of(fields, expand);
+		if (cursor != null) {
+			return listed(customerservice.getAllCustomersByCursor(cursor, pageSize, customerFields, ifNoneMatch));
+		}
+		VersionModel<ListCustomersResponseDTO> listCustomersResponseDTO = customerservice.getAllCustomers(
+				PageRequest.of(pageNumber, pageSize, CustomerSort.of(sort)), includeTotal, customerFields, ifNoneMatch);
+		return listed(listCustomersResponseDTO);
+	}
+
+	@Override
+	public ResponseEntity<CustomerDTO> getCustomer(UUID customerId, String ifNoneMatch, String ifModifiedSince, List<String> fields,
+			List<String> expand) {
+		CustomerFields customerFields = CustomerFields.of(fields, expand);
+		if (ifNoneMatch != null || ifModifiedSince != null) {
+			CustomerVersion customerVersion = customerservice.getCustomerVersion(customerId);
+			if (ETagUtils.isNotModified(customerVersion, ifNoneMatch, ifModifiedSince)) {
+				return notModified(customerVersion, customerFields);
+			}
+		}
+		if (customerFields.isAll()) {
+			return encoded(customerservice.getEncodedCustomer(customerId));
+		}
+		VersionModel<CustomerDTO> itemDTOVersionModel = customerservice.getCustomer(customerId, customerFields);
+
+		return versioned(itemDTOVersionModel, customerFields);
 
 	}
 
@@ -105,6 +208,29 @@ public class CustomerController implements CustomersApi {
 		return ResponseEntity.ok(customerDTO);
 	}
 
+	@Override
+	public ResponseEntity<CustomerDTO> patchCustomer(UUID customerId, String ifMatch, Object patch) {
+		return ResponseEntity.ok(customerservice.patchCustomer(patch, customerId, ifMatch));
+	}
+
+	@Override
+	public ResponseEntity<List<AddressDataDTO>> replaceCustomerAddresses(UUID customerId, String ifMatch,
+			List<AddressDataDTO> addressDataDTO) {
+		return new CustomerETagResponseEntity<>(customerservice.replaceAddresses(addressDataDTO, customerId, ifMatch)).ok();
+	}
+
+	@Override
+	public ResponseEntity<List<CommunicationDataDTO>> replaceCustomerCommunications(UUID customerId, String ifMatch,
+			List<CommunicationDataDTO> communicationDataDTO) {
+		return new CustomerETagResponseEntity<>(customerservice.replaceCommunications(communicationDataDTO, customerId, ifMatch)).ok();
+	}
+
+	@Override
+	public ResponseEntity<List<PhoneDataDTO>> replaceCommunicationPhones(UUID customerId, String email, String ifMatch,
+			List<PhoneDataDTO> phoneDataDTO) {
+		return new CustomerETagResponseEntity<>(customerservice.replacePhones(phoneDataDTO, customerId, email, ifMatch)).ok();
+	}
+
 	@Override
 	public ResponseEntity<List<CustomerDTO>> updateCustomers(BulkUpdateRequestDTO bulkUpdateRequestDTO) {
 		List<CustomerDTO> customerDTOList = customerservice.updateCustomers(bulkUpdateRequestDTO);
@@ -117,13 +243,77 @@ public class CustomerController implements CustomersApi {
 	 * @param customerId Customer id query parameter (optional)
 	 * @param name Customer name query parameter (optional)
 	 * @param firstName Customer first name query parameter (optional)
+	 * @param ifNoneMatch ETag header values from a previous call (optional)
+	 * @param ifModifiedSince Last-Modified header value from a previous call (optional)
 	 * @return
 	 */
 	@Override
-	public ResponseEntity<CustomerDTO> getSingleCustomer(UUID customerId, String name, String firstName) {
-		VersionModel<CustomerDTO> itemDTOVersionModel = customerservice.getSingleCustomer(customerId, name, firstName);
-		return new CustomerETagResponseEntity<>(itemDTOVersionModel).ok();
+	public ResponseEntity<CustomerDTO> getSingleCustomer(UUID customerId, String name, String firstName, String ifNoneMatch,
+			String ifModifiedSince, List<String> fields, List<String> expand) {
+		CustomerFields customerFields = CustomerFields.of(fields, expand);
+		if (ifNoneMatch != null || ifModifiedSince != null) {
+			CustomerVersion customerVersion = customerservice.getSingleCustomerVersion(customerId, name, firstName);
+			if (ETagUtils.isNotModified(customerVersion, ifNoneMatch, ifModifiedSince)) {
+				return notModified(customerVersion, customerFields);
+			}
+		}
+		VersionModel<CustomerDTO> itemDTOVersionModel = customerservice.getSingleCustomer(customerId, name, firstName, customerFields);
+		return versioned(itemDTOVersionModel, customerFields);
+
+	}
+
+	/**
+	 * Answers a conditional GET from the customer version alone, the customer itself is never loaded. The ETag is the one
+	 * the requested representation was sent with.
+	 */
+	private ResponseEntity<CustomerDTO> notModified(CustomerVersion customerVersion, CustomerFields customerFields) {
+		return new CustomerETagResponseEntity<CustomerDTO>(new VersionModel<>(customerVersion.getVersion(), null),
+				customerVersion.getLastModified(), !customerFields.isAll()).httpStatus(HttpStatus.NOT_MODIFIED);
+	}
+
+	/**
+	 * The whole customer is sent with the strong ETag of its version, a customer narrowed down by {@code fields} or
+	 * {@code expand} with the weak one.
+	 */
+	private ResponseEntity<CustomerDTO> versioned(VersionModel<CustomerDTO> customer, CustomerFields customerFields) {
+		return new CustomerETagResponseEntity<>(customer, CustomerVersion.of(customer).getLastModified(), !customerFields.isAll())
+				.ok();
+	}
+
+	/**
+	 * The weak ETag is the digest of the listed page, the body is only left out when it matched If-None-Match.
+	 */
+	private ResponseEntity<ListCustomersResponseDTO> listed(VersionModel<ListCustomersResponseDTO> customers) {
+		return ResponseEntity.status(customers.getBody() == null ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+				.eTag(ETagUtils.formatDigestToWeakETag(customers.getVersion()))
+				.body(customers.getBody());
+	}
+
+	/**
+	 * Writes the cached JSON as it is, the {@link EncodedCustomerMessageConverter} takes it before the Jackson converter.
+	 */
+	private ResponseEntity<CustomerDTO> encoded(EncodedCustomer customer) {
+		CustomerVersion customerVersion = customer.getVersion();
+		return new CustomerETagResponseEntity<CustomerDTO>(new VersionModel<>(customerVersion.getVersion(),
+				new EncodedCustomerDTO(customer.getJson())), customerVersion.getLastModified()).ok();
+	}
+
+	/**
+	 * The Location header points to the job resource, which is polled for the progress and the results.
+	 */
+	private ResponseEntity<BulkJobDTO> accepted(BulkJobDTO bulkJob) {
+		return ResponseEntity.accepted()
+				.location(ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{jobId}").buildAndExpand(bulkJob.getJobId()).toUri())
+				.body(bulkJob);
+	}
 
+	private void writeLine(OutputStream outputStream, Object value) {
+		try {
+			outputStream.write(objectMapper.writeValueAsBytes(value));
+			outputStream.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.customers.controller;
+
+import com.customers.model.CustomerDTO;
+
+import lombok.Getter;
+
+/**
+ * The whole customer as the JSON it is already encoded to. It is a {@link CustomerDTO} for the generated interface
+ * only, its members stay empty and the {@link EncodedCustomerMessageConverter} writes the JSON unchanged.
+ */
+@Getter
+public class EncodedCustomerDTO extends CustomerDTO {
+
+	private final byte[] json;
+
+	public EncodedCustomerDTO(byte[] json) {
+		this.json = json;
+	}
+}
@@ -0,0 +1,47 @@
+package com.customers.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes an {@link EncodedCustomerDTO} as its JSON, ahead of the Jackson converter which would encode it again. It is
+ * only used for responses.
+ */
+@Component
+public class EncodedCustomerMessageConverter extends AbstractHttpMessageConverter<EncodedCustomerDTO> {
+
+	public EncodedCustomerMessageConverter() {
+		super(MediaType.APPLICATION_JSON);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return EncodedCustomerDTO.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected EncodedCustomerDTO readInternal(Class<? extends EncodedCustomerDTO> clazz, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("An encoded customer is only written", inputMessage);
+	}
+
+	@Override
+	protected Long getContentLength(EncodedCustomerDTO customer, MediaType contentType) {
+		return (long) customer.getJson().length;
+	}
+
+	@Override
+	protected void writeInternal(EncodedCustomerDTO customer, HttpOutputMessage outputMessage) throws IOException {
+		outputMessage.getBody().write(customer.getJson());
+	}
+}
@@ -0,0 +1,24 @@
+package com.customers.db.model;
+
+import java.util.UUID;
+
+import lombok.Value;
+
+/**
+ * Flat projection of an address and the customer it belongs to.
+ */
+@Value
+public class AddressRow {
+
+  private UUID customerId;
+
+  private AddressTypeEnum addressType;
+
+  private String street;
+
+  private String number;
+
+  private String postal;
+
+  private String city;
+}
@@ -0,0 +1,75 @@
+package com.customers.db.model;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Entity represents a bulk operation running in the background in DB. The request body is kept as JSON, the progress
+ * is committed together with every chunk of customers, so it always tells where to resume.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Entity
+@Table(name = "BULK_JOBS", indexes = @Index(name = "IDX_BULK_JOBS_STATUS", columnList = "STATUS"))
+public class BulkJob implements Serializable {
+
+  @Id
+  @GeneratedValue(generator = "uuid")
+  @GenericGenerator(name = "uuid", strategy = "uuid2")
+  private UUID jobId;
+
+  @Column(name = "OPERATION", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private BulkJobOperationEnum operation;
+
+  @Column(name = "STATUS", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private BulkJobStatusEnum status;
+
+  @ToString.Exclude
+  @Lob
+  @Column(name = "REQUEST", nullable = false)
+  private String request;
+
+  @Column(name = "TOTAL_ITEMS", nullable = false)
+  private int totalItems;
+
+  @Column(name = "PROCESSED_ITEMS", nullable = false)
+  private int processedItems;
+
+  @Column(name = "FAILED_ITEMS", nullable = false)
+  private int failedItems;
+
+  @Column(name = "CANCEL_REQUESTED", nullable = false)
+  private boolean cancelRequested;
+
+  @Column(name = "MESSAGE", length = 1000)
+  private String message;
+
+  @Column(name = "CREATED")
+  private OffsetDateTime created;
+
+  @Column(name = "LAST_MODIFIED")
+  private OffsetDateTime lastModified;
+
+}
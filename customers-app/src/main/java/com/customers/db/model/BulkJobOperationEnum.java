@@ -0,0 +1,12 @@
+package com.customers.db.model;
+
+/**
+ * Bulk operations which can run as a background job.
+ */
+public enum BulkJobOperationEnum {
+
+  CREATE,
+  UPDATE,
+  DELETE
+
+}
@@ -0,0 +1,50 @@
+package com.customers.db.model;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity represents the outcome of one customer of a bulk job in DB, either the customer id or the error.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Entity
+@Table(name = "BULK_JOB_RESULTS", indexes = @Index(name = "IDX_BULK_JOB_RESULTS_JOB_ID", columnList = "JOB_ID, ITEM"))
+public class BulkJobResult implements Serializable {
+
+  @Id
+  @GeneratedValue(generator = "uuid")
+  @GenericGenerator(name = "uuid", strategy = "uuid2")
+  private UUID id;
+
+  @Column(name = "JOB_ID", nullable = false)
+  private UUID jobId;
+
+  @Column(name = "ITEM", nullable = false)
+  private int item;
+
+  @Column(name = "CUSTOMER_ID")
+  private UUID customerId;
+
+  @Column(name = "CODE")
+  private String code;
+
+  @Column(name = "MESSAGE", length = 1000)
+  private String message;
+
+}
@@ -0,0 +1,18 @@
+package com.customers.db.model;
+
+import java.util.Set;
+
+/**
+ * Lifecycle of a bulk job, a job is resumed after a restart as long as it has not ended.
+ */
+public enum BulkJobStatusEnum {
+
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  CANCELLED,
+  FAILED;
+
+  public static final Set<BulkJobStatusEnum> UNFINISHED = Set.of(QUEUED, RUNNING);
+
+}
@@ -17,6 +17,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -34,9 +35,11 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 @SuperBuilder(toBuilder = true)
 @Entity
-@Table(name = "CUSTOMER_COMMUNICATIONS")
+@Table(name = "CUSTOMER_COMMUNICATIONS", uniqueConstraints = @UniqueConstraint(name = CommunicationEntity.UK_COMMUNICATIONS_EMAIL, columnNames = "EMAIL"))
 public class CommunicationEntity implements Serializable {
 
+  public static final String UK_COMMUNICATIONS_EMAIL = "UK_COMMUNICATIONS_EMAIL";
+
   @Id
   @GeneratedValue(generator = "uuid")
   @GenericGenerator(name = "uuid", strategy = "uuid2")
@@ -54,7 +57,7 @@ public class CommunicationEntity implements Serializable {
   @ToString.Exclude
   @EqualsAndHashCode.Exclude
   @Builder.Default
-  @OneToMany(mappedBy = "communicationEntity", cascade = CascadeType.ALL)
+  @OneToMany(mappedBy = "communicationEntity", cascade = CascadeType.ALL, orphanRemoval = true)
   private Set<PhoneEntity> phones = new HashSet<>();
 
 }
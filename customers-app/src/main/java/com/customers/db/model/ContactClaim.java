@@ -0,0 +1,51 @@
+package com.customers.db.model;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity represents the claim of a customer on an email or phone number in DB, kept on the first shard for the
+ * customers of all shards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Entity
+@Table(name = "CONTACT_CLAIMS",
+    uniqueConstraints = @UniqueConstraint(name = "UK_CONTACT_CLAIMS_VALUE", columnNames = { "CONTACT_TYPE", "CONTACT_VALUE" }),
+    indexes = @Index(name = "IDX_CONTACT_CLAIMS_CUSTOMER_ID", columnList = "CUSTOMER_ID"))
+public class ContactClaim implements Serializable {
+
+  @Id
+  @GeneratedValue(generator = "uuid")
+  @GenericGenerator(name = "uuid", strategy = "uuid2")
+  private UUID id;
+
+  @Column(name = "CONTACT_TYPE", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private ContactTypeEnum contactType;
+
+  @Column(name = "CONTACT_VALUE", nullable = false)
+  private String contactValue;
+
+  @Column(name = "CUSTOMER_ID", nullable = false)
+  private UUID customerId;
+
+}
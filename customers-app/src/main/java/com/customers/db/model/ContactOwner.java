@@ -0,0 +1,13 @@
+package com.customers.db.model;
+
+import java.util.UUID;
+
+/**
+ * Projection of a unique contact value (email or phone number) and the customer it belongs to.
+ */
+public interface ContactOwner {
+
+  String getValue();
+
+  UUID getCustomerId();
+}
@@ -0,0 +1,23 @@
+package com.customers.db.model;
+
+import java.util.UUID;
+
+import lombok.Value;
+
+/**
+ * Flat projection of a communication joined with one of its phones, a communication without phones has a single row
+ * without a phone.
+ */
+@Value
+public class ContactRow {
+
+  private UUID customerId;
+
+  private UUID communicationId;
+
+  private String email;
+
+  private PhoneTypeEnum phoneType;
+
+  private String phoneNumber;
+}
@@ -0,0 +1,11 @@
+package com.customers.db.model;
+
+/**
+ * Kinds of contacts which belong to one customer only.
+ */
+public enum ContactTypeEnum {
+
+  EMAIL,
+  PHONE
+
+}
@@ -0,0 +1,19 @@
+package com.customers.db.model;
+
+import java.util.UUID;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Keeps the id a new customer got assigned before it was persisted, it decides the shard the customer is stored on. A
+ * customer without an id gets a random one.
+ */
+public class CustomerIdGenerator implements IdentifierGenerator {
+
+  @Override
+  public Object generate(SharedSessionContractImplementor session, Object customer) {
+    final UUID customerId = ((Customer) customer).getCustomerId();
+    return customerId != null ? customerId : UUID.randomUUID();
+  }
+}
@@ -0,0 +1,33 @@
+package com.customers.db.model;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import lombok.Value;
+
+/**
+ * Flat projection of the customer columns, read without a managed {@link Customer} entity. The list endpoints assemble
+ * the customers from it together with their {@link AddressRow} and {@link ContactRow}.
+ */
+@Value
+public class CustomerRow {
+
+  private UUID customerId;
+
+  private String name;
+
+  private String firstName;
+
+  private LocalDate dateOfBirth;
+
+  private String createdBy;
+
+  private OffsetDateTime created;
+
+  private String updatedBy;
+
+  private OffsetDateTime lastModified;
+
+  private Long version;
+}
@@ -0,0 +1,67 @@
+package com.customers.db.model;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Entity represents one normalized, searchable value of a customer in DB, together with the trigrams it is found by.
+ * The trigrams are indexed trigram first, so a search reads only the index entries of the trigrams of its term. The values
+ * are indexed as well, for the terms shorter than a trigram which are matched as prefixes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Entity
+@Table(name = "CUSTOMER_SEARCH_VALUES", indexes = {
+    @Index(name = "IDX_SEARCH_VALUES_CUSTOMER_ID", columnList = "CUSTOMER_ID"),
+    @Index(name = "IDX_SEARCH_VALUES_VALUE", columnList = "SEARCH_VALUE, FIELD") })
+public class CustomerSearchValue implements Serializable {
+
+  @Id
+  @GeneratedValue(generator = "uuid")
+  @GenericGenerator(name = "uuid", strategy = "uuid2")
+  private UUID id;
+
+  @Column(name = "CUSTOMER_ID", nullable = false)
+  private UUID customerId;
+
+  @Column(name = "FIELD", nullable = false)
+  @Enumerated(EnumType.STRING)
+  private SearchFieldEnum field;
+
+  @Column(name = "SEARCH_VALUE", nullable = false)
+  private String value;
+
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @Builder.Default
+  @ElementCollection
+  @CollectionTable(name = "CUSTOMER_SEARCH_TRIGRAMS", joinColumns = @JoinColumn(name = "VALUE_ID"),
+      indexes = @Index(name = "IDX_SEARCH_TRIGRAMS_TRIGRAM", columnList = "TRIGRAM, VALUE_ID"))
+  @Column(name = "TRIGRAM", nullable = false)
+  private Set<String> trigrams = new HashSet<>();
+
+}
@@ -0,0 +1,25 @@
+package com.customers.db.model;
+
+import java.time.OffsetDateTime;
+
+import com.customers.model.CustomerDTO;
+
+import lombok.Value;
+
+/**
+ * Version and last modification of a customer, enough to answer a conditional request without loading the customer.
+ * The auditing does not fill the last modification on creation, so a customer which was never updated reports its
+ * creation instead.
+ */
+@Value
+public class CustomerVersion {
+
+  private Long version;
+
+  private OffsetDateTime lastModified;
+
+  public static CustomerVersion of(VersionModel<CustomerDTO> customer) {
+    final CustomerDTO body = customer.getBody();
+    return new CustomerVersion(customer.getVersion(), body.getLastModified() != null ? body.getLastModified() : body.getCreated());
+  }
+}
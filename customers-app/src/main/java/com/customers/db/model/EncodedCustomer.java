@@ -0,0 +1,15 @@
+package com.customers.db.model;
+
+import lombok.Value;
+
+/**
+ * The whole customer as JSON, as it is written to the response, with the version and last modification of its
+ * {@code ETag} and {@code Last-Modified} headers.
+ */
+@Value
+public class EncodedCustomer {
+
+  private CustomerVersion version;
+
+  private byte[] json;
+}
@@ -15,6 +15,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -32,9 +33,11 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 @SuperBuilder(toBuilder = true)
 @Entity
-@Table(name = "COMMUNICATION_PHONES")
+@Table(name = "COMMUNICATION_PHONES", uniqueConstraints = @UniqueConstraint(name = PhoneEntity.UK_PHONES_PHONE_NUMBER, columnNames = "PHONE_NUMBER"))
 public class PhoneEntity implements Serializable {
 
+  public static final String UK_PHONES_PHONE_NUMBER = "UK_PHONES_PHONE_NUMBER";
+
   @Id
   @GeneratedValue(generator = "uuid")
   @GenericGenerator(name = "uuid", strategy = "uuid2")
@@ -0,0 +1,13 @@
+package com.customers.db.model;
+
+/**
+ * Customer fields which are indexed for the customers search.
+ */
+public enum SearchFieldEnum {
+
+  NAME,
+  FIRST_NAME,
+  EMAIL,
+  CITY
+
+}
@@ -0,0 +1,19 @@
+package com.customers.db.repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.customers.db.model.Address;
+
+@Repository
+public interface AddressRepository extends JpaRepository<Address, UUID> {
+
+  @Modifying
+  @Query("delete from Address a where a.customer.customerId in :customerIds")
+  int deleteAllOfCustomers(Collection<UUID> customerIds);
+}
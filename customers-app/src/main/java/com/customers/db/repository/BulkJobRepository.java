@@ -0,0 +1,42 @@
+package com.customers.db.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.customers.db.model.BulkJob;
+import com.customers.db.model.BulkJobStatusEnum;
+
+/**
+ * The worker and the cancellations change a job concurrently, so they update single columns instead of saving the
+ * loaded job.
+ */
+@Repository
+public interface BulkJobRepository extends JpaRepository<BulkJob, UUID> {
+
+  @Query("select j.jobId from BulkJob j where j.status in :statuses order by j.created")
+  List<UUID> findJobIdsByStatusIn(Collection<BulkJobStatusEnum> statuses);
+
+  @Query("select j.cancelRequested from BulkJob j where j.jobId = :jobId")
+  boolean isCancelRequested(UUID jobId);
+
+  @Modifying
+  @Query("update BulkJob j set j.cancelRequested = true, j.lastModified = :now where j.jobId = :jobId and j.status in :statuses")
+  int requestCancellation(UUID jobId, Collection<BulkJobStatusEnum> statuses, OffsetDateTime now);
+
+  @Modifying
+  @Query("update BulkJob j set j.status = :status, j.message = :message, j.lastModified = :now where j.jobId = :jobId")
+  int updateStatus(UUID jobId, BulkJobStatusEnum status, String message, OffsetDateTime now);
+
+  @Modifying
+  @Query("update BulkJob j set j.processedItems = j.processedItems + :processedItems, j.failedItems = j.failedItems + :failedItems,"
+      + " j.lastModified = :now where j.jobId = :jobId")
+  int addProgress(UUID jobId, int processedItems, int failedItems, OffsetDateTime now);
+
+}
@@ -0,0 +1,22 @@
+package com.customers.db.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.customers.db.model.BulkJobResult;
+
+/**
+ * Every processed customer has exactly one result, the items of a job are numbered without gaps. A page of results is
+ * therefore read as a range of items on the (job id, item) index, without an offset or a count.
+ */
+@Repository
+public interface BulkJobResultRepository extends JpaRepository<BulkJobResult, UUID> {
+
+  @Query("select r from BulkJobResult r where r.jobId = :jobId and r.item >= :fromItem and r.item < :toItem order by r.item")
+  List<BulkJobResult> findItemRange(UUID jobId, int fromItem, int toItem);
+
+}
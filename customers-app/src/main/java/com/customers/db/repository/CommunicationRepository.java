@@ -1,17 +1,28 @@
 package com.customers.db.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.customers.db.model.CommunicationEntity;
+import com.customers.db.model.ContactOwner;
 
 @Repository
 public interface CommunicationRepository extends JpaRepository<CommunicationEntity, UUID> {
 
-  boolean existsByEmailAndCustomerCustomerIdNot(String email, UUID customerId);
+  @Query("select c.email as value, c.customer.customerId as customerId from CommunicationEntity c where c.email in :emails")
+  List<ContactOwner> findOwnersByEmailIn(Collection<String> emails);
 
-  boolean existsByEmail(String email);
+  Optional<CommunicationEntity> findByCustomerCustomerIdAndEmail(UUID customerId, String email);
+
+  @Modifying
+  @Query("delete from CommunicationEntity c where c.customer.customerId in :customerIds")
+  int deleteAllOfCustomers(Collection<UUID> customerIds);
 
 }
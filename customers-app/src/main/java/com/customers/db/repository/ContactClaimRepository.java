@@ -0,0 +1,20 @@
+package com.customers.db.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.customers.db.model.ContactClaim;
+import com.customers.db.model.ContactTypeEnum;
+
+@Repository
+public interface ContactClaimRepository extends JpaRepository<ContactClaim, UUID> {
+
+  List<ContactClaim> findAllByContactTypeAndContactValueIn(ContactTypeEnum contactType, Collection<String> contactValues);
+
+  List<ContactClaim> findAllByCustomerIdIn(Collection<UUID> customerIds);
+
+}
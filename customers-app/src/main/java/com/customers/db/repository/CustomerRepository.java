@@ -1,23 +1,51 @@
 package com.customers.db.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerVersion;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, UUID>,
-    PagingAndSortingRepository<Customer, UUID>, JpaSpecificationExecutor<Customer> {
+    PagingAndSortingRepository<Customer, UUID>, JpaSpecificationExecutor<Customer>, CustomerRepositoryCustom {
 
+  /**
+   * Loads the customer together with its addresses, communications and phones in a single query.
+   */
+  @EntityGraph(attributePaths = { "addresses", "communications", "communications.phones" })
+  Optional<Customer> findDetailedByCustomerId(UUID customerId);
+
+  @EntityGraph(attributePaths = { "addresses", "communications", "communications.phones" })
   Optional<Customer> findOneByCustomerIdAndNameAndFirstName(UUID customerId, String name, String firstName);
 
-  List<Customer> findAllByCustomerIdIn(List<UUID> customerIds);
+  @Query("select new com.customers.db.model.CustomerVersion(c.version, coalesce(c.lastModified, c.created))"
+      + " from Customer c where c.customerId = :customerId")
+  Optional<CustomerVersion> findVersionByCustomerId(UUID customerId);
+
+  @Query("select new com.customers.db.model.CustomerVersion(c.version, coalesce(c.lastModified, c.created))"
+      + " from Customer c where c.customerId = :customerId and c.name = :name and c.firstName = :firstName")
+  Optional<CustomerVersion> findVersionByCustomerIdAndNameAndFirstName(UUID customerId, String name, String firstName);
+
+  @EntityGraph(attributePaths = { "addresses", "communications", "communications.phones" })
+  List<Customer> findAllDetailedByCustomerIdIn(Collection<UUID> customerIds);
 
   boolean existsByCustomerIdIn(List<UUID> customerIds);
+
+  @Query("select c.customerId from Customer c where c.customerId in :customerIds")
+  List<UUID> findExistingCustomerIds(Collection<UUID> customerIds);
+
+  @Query("select c.customerId from Customer c"
+      + " where not exists (select v.id from CustomerSearchValue v where v.customerId = c.customerId)")
+  List<UUID> findUnindexedCustomerIds(Pageable pageable);
 }
@@ -0,0 +1,79 @@
+package com.customers.db.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+
+/**
+ * Customer queries which cannot be expressed by derived queries or {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}.
+ */
+public interface CustomerRepositoryCustom {
+
+  /**
+   * Returns a page of the customers matching the specification as flat rows, no entity enters the persistence context.
+   * The total is only taken from {@code total} when it can not be told from the page itself.
+   */
+  Page<CustomerRow> findRows(Specification<Customer> specification, Pageable pageable, LongSupplier total);
+
+  /**
+   * Returns a slice of the customers matching the specification as flat rows. One more row than the page size is read
+   * to know whether there is a next slice, the matches are not counted.
+   */
+  Slice<CustomerRow> findRowSlice(Specification<Customer> specification, Pageable pageable);
+
+  /**
+   * Counts the customers matching the specification.
+   */
+  long countRows(Specification<Customer> specification);
+
+  /**
+   * Returns at most {@code limit} customers matching the specification as flat rows, without counting the total number
+   * of matches.
+   */
+  List<CustomerRow> findRows(Specification<Customer> specification, Sort sort, int limit);
+
+  /**
+   * Returns the addresses of the given customers as flat rows.
+   */
+  List<AddressRow> findAddressRows(Collection<UUID> customerIds);
+
+  /**
+   * Returns the communications of the given customers joined with their phones, the rows of a communication are
+   * adjacent.
+   */
+  List<ContactRow> findContactRows(Collection<UUID> customerIds);
+
+  /**
+   * Changes the person data of the customer with a single statement, only if it still has the given version. Null
+   * values keep the current ones. The version and the modification audit fields are set like an entity update does.
+   *
+   * @return the number of updated customers, 0 if the customer does not exist or has another version
+   */
+  int updatePerson(UUID customerId, long version, String name, String firstName, LocalDate dateOfBirth);
+
+  /**
+   * Streams the customers matching the specification as flat rows in customer id order, read with a single forward-only
+   * query. The stream must be consumed inside a transaction and closed.
+   */
+  Stream<CustomerRow> streamRows(Specification<Customer> specification, int fetchSize);
+
+  /**
+   * Detaches all managed entities, so long running bulk operations do not keep every written entity until the commit.
+   * Pending changes must be flushed before.
+   */
+  void detachAll();
+}
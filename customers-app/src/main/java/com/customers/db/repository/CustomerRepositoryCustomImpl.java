@@ -0,0 +1,165 @@
+package com.customers.db.repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.model.Customer_;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+  private final AuditorAware<String> auditorAware;
+  private final DateTimeProvider dateTimeProvider;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Page<CustomerRow> findRows(Specification<Customer> specification, Pageable pageable, LongSupplier total) {
+    final TypedQuery<CustomerRow> query = createRowsQuery(specification, pageable.getSort());
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+    return PageableExecutionUtils.getPage(query.getResultList(), pageable, total);
+  }
+
+  @Override
+  public Slice<CustomerRow> findRowSlice(Specification<Customer> specification, Pageable pageable) {
+    final TypedQuery<CustomerRow> query = createRowsQuery(specification, pageable.getSort());
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(query.getResultList(), pageable, false);
+    }
+    final List<CustomerRow> rows = query.setFirstResult((int) pageable.getOffset())
+        .setMaxResults(pageable.getPageSize() + 1)
+        .getResultList();
+    final boolean hasNext = rows.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+  }
+
+  @Override
+  public long countRows(Specification<Customer> specification) {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Long> query = cb.createQuery(Long.class);
+    final Root<Customer> root = query.from(Customer.class);
+
+    query.select(cb.countDistinct(root));
+    final Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  @Override
+  public List<CustomerRow> findRows(Specification<Customer> specification, Sort sort, int limit) {
+    return createRowsQuery(specification, sort).setMaxResults(limit).getResultList();
+  }
+
+  @Override
+  public List<AddressRow> findAddressRows(Collection<UUID> customerIds) {
+    if (customerIds.isEmpty()) {
+      return List.of();
+    }
+    return entityManager.createQuery("select new com.customers.db.model.AddressRow(a.customer.customerId, a.addressType,"
+            + " a.street, a.number, a.postal, a.city) from Address a where a.customer.customerId in :customerIds", AddressRow.class)
+        .setParameter("customerIds", customerIds)
+        .getResultList();
+  }
+
+  @Override
+  public List<ContactRow> findContactRows(Collection<UUID> customerIds) {
+    if (customerIds.isEmpty()) {
+      return List.of();
+    }
+    return entityManager.createQuery("select new com.customers.db.model.ContactRow(c.customer.customerId, c.id, c.email,"
+            + " p.phoneType, p.phoneNumber) from CommunicationEntity c left join c.phones p"
+            + " where c.customer.customerId in :customerIds order by c.id", ContactRow.class)
+        .setParameter("customerIds", customerIds)
+        .getResultList();
+  }
+
+  private TypedQuery<CustomerRow> createRowsQuery(Specification<Customer> specification, Sort sort) {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<CustomerRow> query = cb.createQuery(CustomerRow.class);
+    final Root<Customer> root = query.from(Customer.class);
+
+    // the city and email filters join the collections, so the same customer could be returned several times
+    query.select(cb.construct(CustomerRow.class, root.get(Customer_.customerId), root.get(Customer_.name),
+            root.get(Customer_.firstName), root.get(Customer_.dateOfBirth), root.get(Customer_.createdBy),
+            root.get(Customer_.created), root.get(Customer_.updatedBy), root.get(Customer_.lastModified),
+            root.get(Customer_.version)))
+        .distinct(true)
+        .orderBy(QueryUtils.toOrders(sort, root, cb));
+    final Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+    return entityManager.createQuery(query);
+  }
+
+  @Override
+  public int updatePerson(UUID customerId, long version, String name, String firstName, LocalDate dateOfBirth) {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaUpdate<Customer> update = cb.createCriteriaUpdate(Customer.class);
+    final Root<Customer> root = update.from(Customer.class);
+
+    if (name != null) {
+      update.set(root.get(Customer_.name), name);
+    }
+    if (firstName != null) {
+      update.set(root.get(Customer_.firstName), firstName);
+    }
+    if (dateOfBirth != null) {
+      update.set(root.get(Customer_.dateOfBirth), dateOfBirth);
+    }
+    update.set(root.get(Customer_.version), cb.sum(root.get(Customer_.version), 1L))
+        .set(root.get(Customer_.updatedBy), auditorAware.getCurrentAuditor().orElse(null))
+        .set(root.get(Customer_.lastModified), dateTimeProvider.getNow().map(OffsetDateTime::from).orElse(null))
+        .where(cb.equal(root.get(Customer_.customerId), customerId), cb.equal(root.get(Customer_.version), version));
+    return entityManager.createQuery(update).executeUpdate();
+  }
+
+  @Override
+  public Stream<CustomerRow> streamRows(Specification<Customer> specification, int fetchSize) {
+    return createRowsQuery(specification, Sort.by(Customer_.CUSTOMER_ID))
+        .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+        .getResultStream();
+  }
+
+  @Override
+  public void detachAll() {
+    entityManager.clear();
+  }
+}
@@ -0,0 +1,35 @@
+package com.customers.db.repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.customers.db.model.CustomerSearchValue;
+import com.customers.db.model.SearchFieldEnum;
+
+@Repository
+public interface CustomerSearchValueRepository extends JpaRepository<CustomerSearchValue, UUID> {
+
+  /**
+   * Deletes the trigrams of the values first, then the values themselves.
+   */
+  @Modifying
+  @Query("delete from CustomerSearchValue v where v.customerId in :customerIds")
+  int deleteAllOfCustomers(Collection<UUID> customerIds);
+
+  @Modifying
+  @Query("delete from CustomerSearchValue v where v.customerId = :customerId and v.field in :fields")
+  int deleteAllOfCustomerFields(UUID customerId, Collection<SearchFieldEnum> fields);
+
+  /**
+   * Deletes the value of the field unless it is the given one, nothing is deleted when the value did not change.
+   */
+  @Modifying
+  @Query("delete from CustomerSearchValue v where v.customerId = :customerId and v.field = :field and v.value <> :value")
+  int deleteOtherValues(UUID customerId, SearchFieldEnum field, String value);
+
+}
@@ -2,7 +2,8 @@ package com.customers.db.repository;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
 
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.CollectionUtils;
@@ -13,32 +14,40 @@ import com.customers.db.model.Address_;
 import com.customers.db.model.CommunicationEntity;
 import com.customers.db.model.CommunicationEntity_;
 import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerSearchValue;
+import com.customers.db.model.CustomerSearchValue_;
 import com.customers.db.model.Customer_;
+import com.customers.db.model.SearchFieldEnum;
+import com.customers.domain.CustomerCursor;
 import com.customers.domain.CustomerFilter;
+import com.customers.domain.SearchText;
 
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class CustomerSpecificationHelper {
 
+	private static final char LIKE_ESCAPE = '\\';
+
 	public Specification<Customer> createFilter(CustomerFilter customerFilter) {
 		return (root, query, cb) -> {
 			final List<Predicate> predicates = new LinkedList<>();
 
 			// name
 			if (StringUtils.hasText(customerFilter.getName())) {
-				predicates.add(cb.like(cb.lower(root.get(Customer_.NAME)),
-						"%" + customerFilter.getName().toLowerCase(Locale.ROOT) + "%"));
+				predicates.add(indexed(root, query, cb, SearchText.normalize(customerFilter.getName()), SearchFieldEnum.NAME));
 			}
 
 			// first name
 			if (StringUtils.hasText(customerFilter.getFirstName())) {
-				predicates.add(cb.like(cb.lower(root.get(Customer_.FIRST_NAME)),
-						"%" + customerFilter.getFirstName().toLowerCase(Locale.ROOT) + "%"));
+				predicates.add(indexed(root, query, cb, SearchText.normalize(customerFilter.getFirstName()),
+						SearchFieldEnum.FIRST_NAME));
 			}
 
 			// city
@@ -58,17 +67,81 @@ public class CustomerSpecificationHelper {
 				predicates.add(root.get(Customer_.CUSTOMER_ID).in(customerFilter.getCustomersIds()));
 			}
 
-			// Search
+			// Search, every token has to be the customer id or be found in one of the indexed fields
 			if (StringUtils.hasText(customerFilter.getSearch())) {
-				predicates.add(cb.or(cb.equal(root.get(Customer_.CUSTOMER_ID).as(String.class), customerFilter.getSearch()),
-						lowercaseLike(cb, root.get(Customer_.NAME), customerFilter.getSearch())));
+				SearchText.tokens(customerFilter.getSearch()).forEach(token -> predicates.add(searched(root, query, cb, token)));
 			}
 
 			return cb.and(predicates.toArray(new Predicate[0]));
 		};
 	}
 
-	private Predicate lowercaseLike(final CriteriaBuilder cb, Expression<String> attribute, final String fieldValue) {
-		return cb.like(cb.lower(attribute), "%" + fieldValue.toLowerCase(Locale.getDefault()) + "%");
+	public Specification<Customer> byId(UUID customerId) {
+		return (root, query, cb) -> cb.equal(root.get(Customer_.customerId), customerId);
+	}
+
+	/**
+	 * Matches the customer with the given id, name and first name exactly, like the single customer lookup does. A null
+	 * name only matches a customer without a name.
+	 */
+	public Specification<Customer> byIdAndName(UUID customerId, String name, String firstName) {
+		return byId(customerId).and((root, query, cb) -> cb.and(
+				name == null ? cb.isNull(root.get(Customer_.name)) : cb.equal(root.get(Customer_.name), name),
+				firstName == null ? cb.isNull(root.get(Customer_.firstName)) : cb.equal(root.get(Customer_.firstName), firstName)));
+	}
+
+	/**
+	 * Seeks the customers which come after the given cursor in (created, customerId) order, so the database can jump
+	 * straight to the page instead of skipping all rows before it.
+	 */
+	public Specification<Customer> after(CustomerCursor cursor) {
+		return (root, query, cb) -> cb.or(cb.greaterThan(root.get(Customer_.created), cursor.getCreated()),
+				cb.and(cb.equal(root.get(Customer_.created), cursor.getCreated()),
+						cb.greaterThan(root.get(Customer_.customerId), cursor.getCustomerId())));
+	}
+
+	/**
+	 * A token which is a customer id matches that customer exactly, the ids are not part of the index as every short hex
+	 * fragment would be found in a large share of them.
+	 */
+	private Predicate searched(Root<Customer> root, CriteriaQuery<?> query, CriteriaBuilder cb, String token) {
+		final Predicate indexed = indexed(root, query, cb, token, null);
+		return SearchText.customerId(token)
+				.map(customerId -> cb.or(cb.equal(root.get(Customer_.customerId), customerId), indexed))
+				.orElse(indexed);
+	}
+
+	/**
+	 * Restricts the customers to those with an indexed value containing the term, in the given field or in any field.
+	 * The trigram index narrows the values down to the ones holding all trigrams of the term, the LIKE only confirms
+	 * these few. Terms shorter than a trigram have to be the start of a value, which the sorted index of the values
+	 * answers without reading all of them.
+	 */
+	private Predicate indexed(Root<Customer> root, CriteriaQuery<?> query, CriteriaBuilder cb, String term,
+			SearchFieldEnum field) {
+		final Subquery<UUID> matchingCustomers = query.subquery(UUID.class);
+		final Root<CustomerSearchValue> searchValue = matchingCustomers.from(CustomerSearchValue.class);
+		final List<Predicate> predicates = new LinkedList<>();
+		if (field != null) {
+			predicates.add(cb.equal(searchValue.get(CustomerSearchValue_.field), field));
+		}
+
+		final Set<String> trigrams = SearchText.trigrams(term);
+		if (trigrams.isEmpty()) {
+			predicates.add(cb.like(searchValue.get(CustomerSearchValue_.value), escapeLike(term) + "%", LIKE_ESCAPE));
+		} else {
+			predicates.add(cb.like(searchValue.get(CustomerSearchValue_.value), "%" + escapeLike(term) + "%", LIKE_ESCAPE));
+			final Join<CustomerSearchValue, String> trigram = searchValue.join(CustomerSearchValue_.trigrams);
+			predicates.add(trigram.in(trigrams));
+			matchingCustomers.groupBy(searchValue.get(CustomerSearchValue_.id), searchValue.get(CustomerSearchValue_.customerId))
+					.having(cb.equal(cb.count(trigram), (long) trigrams.size()));
+		}
+		matchingCustomers.select(searchValue.get(CustomerSearchValue_.customerId))
+				.where(predicates.toArray(new Predicate[0]));
+		return root.get(Customer_.customerId).in(matchingCustomers);
+	}
+
+	private String escapeLike(String term) {
+		return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
 	}
 }
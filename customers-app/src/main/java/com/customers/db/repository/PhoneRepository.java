@@ -1,17 +1,30 @@
 package com.customers.db.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.customers.db.model.ContactOwner;
 import com.customers.db.model.PhoneEntity;
 
 @Repository
 public interface PhoneRepository extends JpaRepository<PhoneEntity, UUID> {
 
-  boolean existsByPhoneNumberAndCommunicationEntityIdNotIn(String phone, List<UUID> communicationsIds);
+  @Query("select p.phoneNumber as value, p.communicationEntity.customer.customerId as customerId from PhoneEntity p"
+      + " where p.phoneNumber in :phoneNumbers")
+  List<ContactOwner> findOwnersByPhoneNumberIn(Collection<String> phoneNumbers);
 
-  boolean existsByPhoneNumber(String phone);
+  @Modifying
+  @Query("delete from PhoneEntity p where p.communicationEntity.id in"
+      + " (select c.id from CommunicationEntity c where c.customer.customerId in :customerIds)")
+  int deleteAllOfCustomers(Collection<UUID> customerIds);
+
+  @Modifying
+  @Query("delete from PhoneEntity p where p.communicationEntity.id = :communicationId")
+  int deleteAllOfCommunication(UUID communicationId);
 }
@@ -0,0 +1,55 @@
+package com.customers.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Sort;
+
+import com.customers.db.model.Customer_;
+import com.customers.exception.ValidationException;
+import com.customers.exception.general.ApplicationError;
+import com.customers.exception.general.ErrorCode;
+import com.customers.model.CustomerDTO;
+
+import lombok.Value;
+
+/**
+ * Position of the last customer of a page in (created, customerId) order, used for keyset pagination.
+ * It is handed to the clients as an opaque url-safe string.
+ */
+@Value
+public class CustomerCursor {
+
+  public static final Sort KEYSET_SORT = Sort.by(Customer_.CREATED, Customer_.CUSTOMER_ID);
+
+  private static final String SEPARATOR = "|";
+
+  private OffsetDateTime created;
+  private UUID customerId;
+
+  public static CustomerCursor of(CustomerDTO customer) {
+    return new CustomerCursor(customer.getCreated(), customer.getCustomerId());
+  }
+
+  public static CustomerCursor decode(String cursor) {
+    try {
+      final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      final int separatorIndex = decoded.indexOf(SEPARATOR);
+      return new CustomerCursor(OffsetDateTime.parse(decoded.substring(0, separatorIndex)),
+          UUID.fromString(decoded.substring(separatorIndex + 1)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+      throw new ValidationException(new ApplicationError()
+          .setParameters(List.of(cursor))
+          .setCodeAndMessage(ErrorCode.INVALID_CURSOR));
+    }
+  }
+
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((created + SEPARATOR + customerId).getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,145 @@
+package com.customers.domain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.customers.exception.ValidationException;
+import com.customers.exception.general.ApplicationError;
+import com.customers.exception.general.ErrorCode;
+import com.customers.model.CustomerDTO;
+import com.customers.model.PersonDataDTO;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Members of the customer a read returns, taken from the {@code fields} and {@code expand} query parameters.
+ * Without both parameters the whole customer is returned. With {@code fields} only the listed members are returned, the
+ * person can be narrowed further with {@code person.<member>}. The collections are only returned when they are listed
+ * in {@code fields} or {@code expand}, so the reads can skip the queries of the others.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CustomerFields {
+
+  public static final String CUSTOMER_ID = "customerId";
+  public static final String PERSON = "person";
+  public static final String ADDRESSES = "addresses";
+  public static final String COMMUNICATIONS = "communications";
+  public static final String CREATED = "created";
+  public static final String CREATED_BY = "createdBy";
+  public static final String LAST_MODIFIED = "lastModified";
+  public static final String LAST_MODIFIED_BY = "lastModifiedBy";
+
+  public static final String PERSON_NAME = "name";
+  public static final String PERSON_FIRST_NAME = "firstName";
+  public static final String PERSON_DATE_OF_BIRTH = "dateOfBirth";
+
+  public static final CustomerFields ALL = new CustomerFields(null, null);
+
+  private static final String PERSON_PREFIX = PERSON + ".";
+  private static final Set<String> MEMBERS = Set.of(CUSTOMER_ID, PERSON, ADDRESSES, COMMUNICATIONS, CREATED, CREATED_BY,
+      LAST_MODIFIED, LAST_MODIFIED_BY);
+  private static final Set<String> PERSON_MEMBERS = Set.of(PERSON_NAME, PERSON_FIRST_NAME, PERSON_DATE_OF_BIRTH);
+  private static final Set<String> COLLECTIONS = Set.of(ADDRESSES, COMMUNICATIONS);
+  private static final Set<String> DEFAULT_MEMBERS = Set.of(CUSTOMER_ID, PERSON, CREATED, CREATED_BY, LAST_MODIFIED,
+      LAST_MODIFIED_BY);
+
+  /**
+   * The returned members, null for all of them.
+   */
+  private Set<String> members;
+
+  /**
+   * The returned members of the person, null for all of them.
+   */
+  private Set<String> personMembers;
+
+  public static CustomerFields of(List<String> fields, List<String> expand) {
+    if (fields == null && expand == null) {
+      return ALL;
+    }
+    final List<String> unknown = new ArrayList<>();
+    final Set<String> members = new HashSet<>();
+    final Set<String> personMembers = new HashSet<>();
+    if (fields == null) {
+      members.addAll(DEFAULT_MEMBERS);
+    } else {
+      fields.forEach(field -> {
+        if (MEMBERS.contains(field)) {
+          members.add(field);
+        } else if (field.startsWith(PERSON_PREFIX) && PERSON_MEMBERS.contains(field.substring(PERSON_PREFIX.length()))) {
+          personMembers.add(field.substring(PERSON_PREFIX.length()));
+        } else {
+          unknown.add(field);
+        }
+      });
+    }
+    if (expand != null) {
+      expand.forEach(collection -> {
+        if (COLLECTIONS.contains(collection)) {
+          members.add(collection);
+        } else {
+          unknown.add(collection);
+        }
+      });
+    }
+    if (!unknown.isEmpty()) {
+      throw new ValidationException(new ApplicationError()
+          .setParameters(List.of(String.join(",", unknown)))
+          .setCodeAndMessage(ErrorCode.INVALID_FIELDS));
+    }
+    if (members.contains(PERSON) || personMembers.isEmpty()) {
+      return new CustomerFields(Set.copyOf(members), null);
+    }
+    members.add(PERSON);
+    return new CustomerFields(Set.copyOf(members), Set.copyOf(personMembers));
+  }
+
+  public boolean isAll() {
+    return members == null;
+  }
+
+  public boolean includes(String member) {
+    return members == null || members.contains(member);
+  }
+
+  /**
+   * Whether both collections are requested, so the whole customer graph has to be read.
+   */
+  public boolean includesCollections() {
+    return includes(ADDRESSES) && includes(COMMUNICATIONS);
+  }
+
+  /**
+   * Returns a copy of the customer with the requested members only, the customer itself when all are requested. The
+   * given customer is never changed, it can be shared with the cache.
+   */
+  public CustomerDTO apply(CustomerDTO customer) {
+    if (isAll()) {
+      return customer;
+    }
+    return new CustomerDTO()
+        .customerId(includes(CUSTOMER_ID) ? customer.getCustomerId() : null)
+        .person(includes(PERSON) ? apply(customer.getPerson()) : null)
+        .addresses(includes(ADDRESSES) ? customer.getAddresses() : null)
+        .communications(includes(COMMUNICATIONS) ? customer.getCommunications() : null)
+        .created(includes(CREATED) ? customer.getCreated() : null)
+        .createdBy(includes(CREATED_BY) ? customer.getCreatedBy() : null)
+        .lastModified(includes(LAST_MODIFIED) ? customer.getLastModified() : null)
+        .lastModifiedBy(includes(LAST_MODIFIED_BY) ? customer.getLastModifiedBy() : null);
+  }
+
+  private PersonDataDTO apply(PersonDataDTO person) {
+    if (person == null || personMembers == null) {
+      return person;
+    }
+    return new PersonDataDTO()
+        .name(personMembers.contains(PERSON_NAME) ? person.getName() : null)
+        .firstName(personMembers.contains(PERSON_FIRST_NAME) ? person.getFirstName() : null)
+        .dateOfBirth(personMembers.contains(PERSON_DATE_OF_BIRTH) ? person.getDateOfBirth() : null);
+  }
+}
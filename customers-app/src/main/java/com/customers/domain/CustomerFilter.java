@@ -3,6 +3,9 @@ package com.customers.domain;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
 import lombok.Builder;
 import lombok.Value;
 
@@ -16,4 +19,19 @@ public class CustomerFilter {
   private String email;
   private String search;
   private List<UUID> customersIds;
+
+  /**
+   * The filter as it is matched, so filters selecting the same customers are equal. Blank values are left out, the
+   * indexed values are normalized like the search index does, the search tokens and the ids are sorted.
+   */
+  public CustomerFilter normalized() {
+    return CustomerFilter.builder()
+        .name(StringUtils.hasText(name) ? SearchText.normalize(name) : null)
+        .firstName(StringUtils.hasText(firstName) ? SearchText.normalize(firstName) : null)
+        .city(StringUtils.hasText(city) ? city : null)
+        .email(StringUtils.hasText(email) ? email : null)
+        .search(StringUtils.hasText(search) ? String.join(" ", SearchText.tokens(search).stream().sorted().toList()) : null)
+        .customersIds(CollectionUtils.isEmpty(customersIds) ? null : customersIds.stream().distinct().sorted().toList())
+        .build();
+  }
 }
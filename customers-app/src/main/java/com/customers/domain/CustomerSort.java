@@ -0,0 +1,82 @@
+package com.customers.domain;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+
+import com.customers.db.model.CustomerRow;
+import com.customers.db.model.Customer_;
+import com.customers.exception.ValidationException;
+import com.customers.exception.general.ApplicationError;
+import com.customers.exception.general.ErrorCode;
+
+/**
+ * Order of the listed customers, taken from the {@code sort} query parameter. Only the columns of the customer can be
+ * sorted by, the rows of the shards are merged in the same order the databases read them.
+ */
+public final class CustomerSort {
+
+  /**
+   * The ids are ordered as unsigned numbers, the way the databases compare them.
+   */
+  private static final Comparator<UUID> ID_ORDER = Comparator
+      .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+      .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+  private static final Map<String, Comparator<CustomerRow>> ROW_ORDERS = Map.of(
+      Customer_.CUSTOMER_ID, Comparator.comparing(CustomerRow::getCustomerId, Comparator.nullsFirst(ID_ORDER)),
+      Customer_.NAME, naturalOrder(CustomerRow::getName),
+      Customer_.FIRST_NAME, naturalOrder(CustomerRow::getFirstName),
+      Customer_.DATE_OF_BIRTH, naturalOrder(CustomerRow::getDateOfBirth),
+      Customer_.CREATED_BY, naturalOrder(CustomerRow::getCreatedBy),
+      Customer_.CREATED, naturalOrder(CustomerRow::getCreated),
+      Customer_.UPDATED_BY, naturalOrder(CustomerRow::getUpdatedBy),
+      Customer_.LAST_MODIFIED, naturalOrder(CustomerRow::getLastModified),
+      Customer_.VERSION, naturalOrder(CustomerRow::getVersion));
+
+  private CustomerSort() {
+  }
+
+  /**
+   * The default order is the keyset order, so the first offset page already hands out a cursor for the following ones.
+   */
+  public static Sort of(String sort) {
+    if (sort == null) {
+      return CustomerCursor.KEYSET_SORT;
+    }
+    if (!ROW_ORDERS.containsKey(sort)) {
+      throw invalidSort(sort);
+    }
+    return Sort.by(sort);
+  }
+
+  /**
+   * Orders the rows like the database does, the nulls first in ascending order.
+   */
+  public static Comparator<CustomerRow> rowOrder(Sort sort) {
+    Comparator<CustomerRow> rowOrder = (first, second) -> 0;
+    for (Sort.Order order : sort) {
+      final Comparator<CustomerRow> propertyOrder = ROW_ORDERS.get(order.getProperty());
+      if (propertyOrder == null) {
+        throw invalidSort(order.getProperty());
+      }
+      rowOrder = rowOrder.thenComparing(order.isAscending() ? propertyOrder : propertyOrder.reversed());
+    }
+    return rowOrder;
+  }
+
+  private static ValidationException invalidSort(String property) {
+    return new ValidationException(new ApplicationError()
+        .setParameters(List.of(property))
+        .setCodeAndMessage(ErrorCode.INVALID_SORT));
+  }
+
+  private static <T extends Comparable<? super T>> Comparator<CustomerRow> naturalOrder(
+      Function<CustomerRow, T> property) {
+    return Comparator.comparing(property, Comparator.nullsFirst(Comparator.naturalOrder()));
+  }
+}
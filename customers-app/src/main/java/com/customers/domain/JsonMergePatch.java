@@ -0,0 +1,34 @@
+package com.customers.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * JSON merge patch as of RFC 7396. The members of a patch object are merged into the target one by one, a null member
+ * removes the target member and any other value, arrays included, replaces it as a whole.
+ */
+@UtilityClass
+public class JsonMergePatch {
+
+  /**
+   * Returns the patched document, the target is not changed.
+   */
+  public JsonNode apply(JsonNode target, JsonNode patch) {
+    if (!patch.isObject()) {
+      return patch.deepCopy();
+    }
+    final ObjectNode result = target != null && target.isObject() ? ((ObjectNode) target).deepCopy()
+        : JsonNodeFactory.instance.objectNode();
+    patch.fields().forEachRemaining(member -> {
+      if (member.getValue().isNull()) {
+        result.remove(member.getKey());
+      } else {
+        result.set(member.getKey(), apply(result.get(member.getKey()), member.getValue()));
+      }
+    });
+    return result;
+  }
+}
@@ -0,0 +1,61 @@
+package com.customers.domain;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Normalization and trigram decomposition shared by the search index and the search queries, so both sides agree on
+ * what a term looks like.
+ */
+@UtilityClass
+public class SearchText {
+
+  public static final int TRIGRAM_LENGTH = 3;
+
+  private static final int CUSTOMER_ID_LENGTH = 36;
+
+  public String normalize(String text) {
+    return text.strip().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Splits a search into its distinct, normalized tokens.
+   */
+  public List<String> tokens(String search) {
+    return Arrays.stream(normalize(search).split("\\s+")).filter(token -> !token.isEmpty()).distinct().toList();
+  }
+
+  /**
+   * All substrings of three characters of the normalized text, a text containing a term contains all trigrams of the term.
+   * Terms shorter than a trigram have none.
+   */
+  public Set<String> trigrams(String normalizedText) {
+    final Set<String> trigrams = new LinkedHashSet<>();
+    for (int index = 0; index + TRIGRAM_LENGTH <= normalizedText.length(); index++) {
+      trigrams.add(normalizedText.substring(index, index + TRIGRAM_LENGTH));
+    }
+    return trigrams;
+  }
+
+  /**
+   * The customer id a normalized token stands for, only a token in the canonical form of an id is one.
+   */
+  public Optional<UUID> customerId(String token) {
+    if (token.length() != CUSTOMER_ID_LENGTH) {
+      return Optional.empty();
+    }
+    try {
+      final UUID customerId = UUID.fromString(token);
+      return customerId.toString().equals(token) ? Optional.of(customerId) : Optional.empty();
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+}
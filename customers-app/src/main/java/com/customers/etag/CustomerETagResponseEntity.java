@@ -1,5 +1,7 @@
 package com.customers.etag;
 
+import java.time.OffsetDateTime;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -12,10 +14,21 @@ import lombok.Data;
 public class CustomerETagResponseEntity<T> implements ETagResponseEntity<T> {
 
 	private String eTag;
+	private OffsetDateTime lastModified;
 	private T body;
 
 	public CustomerETagResponseEntity(VersionModel<T> versionModel) {
-		this.eTag = ETagUtils.formatVersionToETag(versionModel.getVersion());
+		this(versionModel, null);
+	}
+
+	public CustomerETagResponseEntity(VersionModel<T> versionModel, OffsetDateTime lastModified) {
+		this(versionModel, lastModified, false);
+	}
+
+	public CustomerETagResponseEntity(VersionModel<T> versionModel, OffsetDateTime lastModified, boolean weak) {
+		this.eTag = weak ? ETagUtils.formatVersionToWeakETag(versionModel.getVersion())
+				: ETagUtils.formatVersionToETag(versionModel.getVersion());
+		this.lastModified = lastModified;
 		this.body = versionModel.getBody();
 	}
 
@@ -26,7 +39,11 @@ public class CustomerETagResponseEntity<T> implements ETagResponseEntity<T> {
 
 	@Override
 	public ResponseEntity<T> httpStatus(HttpStatus httpStatus) {
-		return ResponseEntity.status(httpStatus).eTag(eTag).body(body);
+		ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(httpStatus).eTag(eTag);
+		if (lastModified != null) {
+			responseBuilder.lastModified(lastModified.toInstant());
+		}
+		return responseBuilder.body(body);
 	}
 
 }
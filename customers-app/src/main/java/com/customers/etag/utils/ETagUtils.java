@@ -1,10 +1,17 @@
 package com.customers.etag.utils;
 
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerVersion;
 import com.customers.etag.exception.ETagPreconditionFailedException;
 import com.customers.exception.general.ApplicationError;
 
@@ -30,8 +37,74 @@ public class ETagUtils {
     }
   }
 
+  /**
+   * Returns the version of a strong or weak ETag, or null if the value is not the ETag of a version.
+   */
+  @Nullable
+  public static Long parseVersion(@Nullable String eTag) {
+    if (eTag == null) {
+      return null;
+    }
+    Matcher matcher = ETAG_PATTERN.matcher(eTag);
+    if (!matcher.matches()) {
+      return null;
+    }
+    try {
+      return Long.valueOf(matcher.group(2));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Evaluates the If-None-Match and If-Modified-Since headers of a GET request against the current customer version.
+   * If-Modified-Since is only considered without If-None-Match, and an unparsable date is ignored.
+   */
+  public static boolean isNotModified(@NonNull CustomerVersion customerVersion, @Nullable String ifNoneMatch,
+      @Nullable String ifModifiedSince) {
+    if (ifNoneMatch != null) {
+      return matchesAny(ifNoneMatch, String.valueOf(customerVersion.getVersion()));
+    }
+    if (ifModifiedSince == null || customerVersion.getLastModified() == null) {
+      return false;
+    }
+    try {
+      ZonedDateTime modifiedSince = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME);
+      return !customerVersion.getLastModified().toInstant().truncatedTo(ChronoUnit.SECONDS).isAfter(modifiedSince.toInstant());
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+
   public static String formatVersionToETag(Long version) {
     return "\"" + version + "\"";
   }
 
+  /**
+   * The ETag of a customer narrowed down by {@code fields} or {@code expand}. It is weak, as the partial representation
+   * is not the one the strong ETag of the version stands for, while it still changes with the version.
+   */
+  public static String formatVersionToWeakETag(Long version) {
+    return "W/" + formatVersionToETag(version);
+  }
+
+  /**
+   * Evaluates the If-None-Match header of a list read against the digest of the listed page, weak and strong ETags
+   * compare the same.
+   */
+  public static boolean isNotModified(long digest, @Nullable String ifNoneMatch) {
+    return ifNoneMatch != null && matchesAny(ifNoneMatch, Long.toHexString(digest));
+  }
+
+  public static String formatDigestToWeakETag(long digest) {
+    return "W/\"" + Long.toHexString(digest) + "\"";
+  }
+
+  private static boolean matchesAny(String ifNoneMatch, String value) {
+    return Arrays.stream(ifNoneMatch.split(",")).map(String::trim).anyMatch(eTag -> {
+      Matcher matcher = ETAG_PATTERN.matcher(eTag);
+      return "*".equals(eTag) || matcher.matches() && matcher.group(2).equals(value);
+    });
+  }
+
 }
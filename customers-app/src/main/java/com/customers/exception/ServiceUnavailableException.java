@@ -0,0 +1,10 @@
+package com.customers.exception;
+
+import com.customers.exception.general.ApplicationError;
+import com.customers.exception.general.ApplicationErrorException;
+
+public class ServiceUnavailableException extends ApplicationErrorException {
+
+  public ServiceUnavailableException(final ApplicationError error) { super(error); }
+
+}
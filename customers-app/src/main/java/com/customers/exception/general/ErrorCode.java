@@ -15,6 +15,14 @@ public enum ErrorCode {
     CUSTOMER_NOT_FOUND("CUSTOMERS_ERR_1401_CUSTOMER_NOT_FOUND", "Customer with the given customer id ({}) is not found."),
     CUSTOMER_EMAIL_ALREADY_EXISTS("CUSTOMERS_ERR_1402_CUSTOMER_EMAIL_ALREADY_EXISTS", "Customer with this email or username ({}) already exists."),
     CUSTOMER_PHONE_ALREADY_EXISTS("CUSTOMERS_ERR_1403_CUSTOMER_PHONE_ALREADY_EXISTS", "Customer with this phone number ({}) already exists."),
+    INVALID_CURSOR("CUSTOMERS_ERR_1404_INVALID_CURSOR", "The given cursor ({}) is not valid."),
+    INVALID_CUSTOMER("CUSTOMERS_ERR_1405_INVALID_CUSTOMER", "The customer in line ({}) is not valid."),
+    BULK_JOB_NOT_FOUND("CUSTOMERS_ERR_1406_BULK_JOB_NOT_FOUND", "Bulk job with the given job id ({}) is not found."),
+    INVALID_PATCH("CUSTOMERS_ERR_1407_INVALID_PATCH", "The patch of the customer ({}) is not valid."),
+    COMMUNICATION_NOT_FOUND("CUSTOMERS_ERR_1408_COMMUNICATION_NOT_FOUND", "Communication with the given email ({}) is not found."),
+    INVALID_FIELDS("CUSTOMERS_ERR_1409_INVALID_FIELDS", "The requested fields ({}) are not known."),
+    BULK_JOB_QUEUE_FULL("CUSTOMERS_ERR_1410_BULK_JOB_QUEUE_FULL", "The queue of the bulk jobs is full ({} jobs are waiting), try again later."),
+    INVALID_SORT("CUSTOMERS_ERR_1411_INVALID_SORT", "The sort property ({}) is not known."),
     
     ;
 
@@ -0,0 +1,108 @@
+package com.customers.infrastructure.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.EncodedCustomer;
+import com.customers.db.model.VersionModel;
+import com.customers.model.CustomerDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-process cache of the customer representations, keyed by customer id.
+ * <p>
+ * Next to the representations the JSON of the whole customers is kept, bounded by its size in bytes. It is only
+ * returned for the version it was encoded from, so it never outlives the representation it belongs to.
+ * <p>
+ * An entry is only replaced by a representation with the same or a newer version, so a slow reader can not put back an
+ * outdated customer. The writers evict the entries once their transaction is committed, the time to live bounds the
+ * staleness left by a reader which loaded a customer just before such a commit. The hit, miss and eviction statistics
+ * are published as {@code cache.*} meters tagged with {@code cache=customers} and {@code cache=customers-json}.
+ */
+@Component
+public class CustomerCache {
+
+  public static final String NAME = "customers";
+  public static final String ENCODED_NAME = "customers-json";
+
+  private final Cache<UUID, VersionModel<CustomerDTO>> customers;
+  private final Cache<UUID, EncodedCustomer> encodedCustomers;
+
+  public CustomerCache(CustomersProperties customersProperties, MeterRegistry meterRegistry) {
+    final CustomersProperties.Cache properties = customersProperties.getCache();
+    this.customers = Caffeine.newBuilder()
+        .maximumSize(properties.getMaximumSize())
+        .expireAfterWrite(properties.getTimeToLive())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, customers, NAME);
+    this.encodedCustomers = Caffeine.newBuilder()
+        .maximumWeight(properties.getEncodedMaximumSize().toBytes())
+        .<UUID, EncodedCustomer>weigher((customerId, customer) -> customer.getJson().length)
+        .expireAfterWrite(properties.getTimeToLive())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, encodedCustomers, ENCODED_NAME);
+  }
+
+  public Optional<VersionModel<CustomerDTO>> get(UUID customerId) {
+    return Optional.ofNullable(customers.getIfPresent(customerId));
+  }
+
+  public void put(VersionModel<CustomerDTO> customer) {
+    customers.asMap().merge(customer.getBody().getCustomerId(), customer,
+        (cached, loaded) -> loaded.getVersion() >= cached.getVersion() ? loaded : cached);
+  }
+
+  /**
+   * Returns the JSON of the customer if it was encoded from the given version.
+   */
+  public Optional<EncodedCustomer> getEncoded(UUID customerId, Long version) {
+    return Optional.ofNullable(encodedCustomers.getIfPresent(customerId))
+        .filter(customer -> customer.getVersion().getVersion().equals(version));
+  }
+
+  public EncodedCustomer putEncoded(UUID customerId, EncodedCustomer customer) {
+    encodedCustomers.asMap().merge(customerId, customer,
+        (cached, encoded) -> encoded.getVersion().getVersion() >= cached.getVersion().getVersion() ? encoded : cached);
+    return customer;
+  }
+
+  public void evictAfterCommit(UUID customerId) {
+    evictAfterCommit(List.of(customerId));
+  }
+
+  /**
+   * Evicts the customers once the current transaction is committed, right away when there is none.
+   */
+  public void evictAfterCommit(Collection<UUID> customerIds) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      invalidateAll(customerIds);
+      return;
+    }
+    final List<UUID> evictedCustomerIds = List.copyOf(customerIds);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCommit() {
+        invalidateAll(evictedCustomerIds);
+      }
+    });
+  }
+
+  private void invalidateAll(Collection<UUID> customerIds) {
+    customers.invalidateAll(customerIds);
+    encodedCustomers.invalidateAll(customerIds);
+  }
+}
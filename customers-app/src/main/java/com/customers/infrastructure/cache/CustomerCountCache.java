@@ -0,0 +1,65 @@
+package com.customers.infrastructure.cache;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.customers.config.CustomersProperties;
+import com.customers.domain.CustomerFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Short-lived cache of the number of customers matching a filter, keyed by the normalized filter, so the pages of a
+ * list do not count the same customers again.
+ * <p>
+ * Any committed write may change the counts, so all of them are dropped then. The time to live bounds how far the counts
+ * lag behind the writes of the other instances. The statistics are published as {@code cache.*} meters tagged with
+ * {@code cache=customer-counts}.
+ */
+@Component
+public class CustomerCountCache {
+
+  public static final String NAME = "customer-counts";
+
+  private final Cache<CustomerFilter, Long> counts;
+
+  public CustomerCountCache(CustomersProperties customersProperties, MeterRegistry meterRegistry) {
+    final CustomersProperties.Cache properties = customersProperties.getCache();
+    this.counts = Caffeine.newBuilder()
+        .maximumSize(properties.getCountMaximumSize())
+        .expireAfterWrite(properties.getCountTimeToLive())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, counts, NAME);
+  }
+
+  /**
+   * Returns the cached count of the filter, or counts the customers once for all concurrent callers.
+   */
+  public long get(CustomerFilter filter, LongSupplier count) {
+    return counts.get(filter.normalized(), normalizedFilter -> count.getAsLong());
+  }
+
+  /**
+   * Drops the counts once the current transaction is committed, right away when there is none.
+   */
+  public void invalidateAfterCommit() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      counts.invalidateAll();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCommit() {
+        counts.invalidateAll();
+      }
+    });
+  }
+}
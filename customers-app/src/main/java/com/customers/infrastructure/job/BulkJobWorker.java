@@ -0,0 +1,267 @@
+package com.customers.infrastructure.job;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.BulkJob;
+import com.customers.db.model.BulkJobResult;
+import com.customers.db.model.BulkJobStatusEnum;
+import com.customers.db.repository.BulkJobRepository;
+import com.customers.db.repository.BulkJobResultRepository;
+import com.customers.exception.general.ApplicationErrorException;
+import com.customers.exception.general.ErrorCode;
+import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.BulkUpdateRequestDTO;
+import com.customers.model.CreateCustomerRequestDTO;
+import com.customers.model.CustomerDTO;
+import com.customers.service.CustomerService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Executes the bulk jobs on a bounded pool of worker threads, the waiting jobs only take their id in the bounded queue.
+ * The service rejects new jobs while the queue is full. A job which still misses the queue, or which is resumed at the
+ * start beyond the capacity of the queue, waits in its QUEUED status and is submitted when a running job has ended.
+ * <p>
+ * Every chunk of customers goes through the bulk operation of the {@link CustomerService}, in one transaction with its
+ * results and the progress of the job. A job interrupted by a restart is therefore resumed right after its last
+ * committed chunk. A rejected chunk is rolled back and retried customer by customer, so only the invalid customers
+ * fail, each with its own error.
+ * <p>
+ * With shards every shard commits its part of a chunk on its own, before the results of the chunk. A chunk which fails
+ * after some shards have committed is written once more, so the chunks are idempotent: the new customers get ids derived
+ * from the job and their item, the ones which exist already are skipped. The updates are written again with the same
+ * values. The customers which are gone when an interrupted deletion chunk is resumed count as deleted.
+ */
+@Log4j2
+@Component
+public class BulkJobWorker {
+
+  private static final int MESSAGE_LENGTH = 1000;
+
+  private final BulkJobRepository bulkJobRepository;
+  private final BulkJobResultRepository bulkJobResultRepository;
+  private final CustomerService customerService;
+  private final CustomersProperties customersProperties;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final ThreadPoolTaskExecutor executor;
+  private final Set<UUID> submittedJobIds = ConcurrentHashMap.newKeySet();
+  private final Queue<UUID> waitingJobIds = new ConcurrentLinkedQueue<>();
+
+  public BulkJobWorker(BulkJobRepository bulkJobRepository, BulkJobResultRepository bulkJobResultRepository,
+      CustomerService customerService, CustomersProperties customersProperties, TransactionTemplate transactionTemplate,
+      ObjectMapper objectMapper) {
+    this.bulkJobRepository = bulkJobRepository;
+    this.bulkJobResultRepository = bulkJobResultRepository;
+    this.customerService = customerService;
+    this.customersProperties = customersProperties;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(customersProperties.getJobs().getWorkers());
+    executor.setMaxPoolSize(customersProperties.getJobs().getWorkers());
+    executor.setQueueCapacity(customersProperties.getJobs().getQueueCapacity());
+    executor.setThreadNamePrefix("bulk-job-");
+    executor.initialize();
+  }
+
+  /**
+   * Whether the queue has room for another job.
+   */
+  public boolean isAcceptingJobs() {
+    return executor.getThreadPoolExecutor().getQueue().remainingCapacity() > 0;
+  }
+
+  /**
+   * Hands the job to a worker, a job which is already queued or running is not submitted twice.
+   */
+  public void submit(UUID jobId) {
+    if (!submittedJobIds.add(jobId)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          run(jobId);
+        } finally {
+          submittedJobIds.remove(jobId);
+          submitWaitingJobs();
+        }
+      });
+    } catch (TaskRejectedException e) {
+      submittedJobIds.remove(jobId);
+      waitingJobIds.add(jobId);
+      log.warn("Bulk job {} stays queued until a running job has ended", jobId);
+      // the running jobs may have ended in the meantime, without seeing the waiting job
+      submitWaitingJobs();
+    }
+  }
+
+  /**
+   * Resumes the jobs which were queued or running when the application stopped.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeUnfinishedJobs() {
+    final List<UUID> jobIds = bulkJobRepository.findJobIdsByStatusIn(BulkJobStatusEnum.UNFINISHED);
+    if (!jobIds.isEmpty()) {
+      log.info("Resuming {} unfinished bulk jobs", jobIds.size());
+      jobIds.forEach(this::submit);
+    }
+  }
+
+  /**
+   * The running jobs are interrupted, they stay in the RUNNING status and are resumed at the next start.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Submits the jobs which missed the queue, as far as there is room for them.
+   */
+  private void submitWaitingJobs() {
+    UUID jobId;
+    while (!executor.getThreadPoolExecutor().isShutdown() && isAcceptingJobs() && (jobId = waitingJobIds.poll()) != null) {
+      submit(jobId);
+    }
+  }
+
+  void run(UUID jobId) {
+    final BulkJob job = bulkJobRepository.findById(jobId).orElse(null);
+    if (job == null || !BulkJobStatusEnum.UNFINISHED.contains(job.getStatus())) {
+      return;
+    }
+    try {
+      updateStatus(jobId, BulkJobStatusEnum.RUNNING, null);
+      final boolean completed = switch (job.getOperation()) {
+        case CREATE -> process(job, newCustomers(job, readRequest(job, BulkCreationRequestDTO.class).getCustomers()),
+            chunk -> customerService.createCustomers(
+                new BulkCreationRequestDTO().customers(chunk.stream().map(NewCustomer::request).toList()),
+                chunk.stream().map(NewCustomer::customerId).toList()));
+        case UPDATE -> process(job, readRequest(job, BulkUpdateRequestDTO.class).getCustomers(),
+            chunk -> customerService.updateCustomers(new BulkUpdateRequestDTO().customers(chunk)).stream()
+                .map(CustomerDTO::getCustomerId).toList());
+        case DELETE -> process(job, objectMapper.readValue(job.getRequest(), new TypeReference<List<UUID>>() {
+        }), chunk -> {
+          customerService.deleteCustomers(chunk);
+          return chunk;
+        });
+      };
+      updateStatus(jobId, completed ? BulkJobStatusEnum.COMPLETED : BulkJobStatusEnum.CANCELLED, null);
+    } catch (Exception e) {
+      if (executor.getThreadPoolExecutor().isShutdown()) {
+        log.info("Bulk job {} is interrupted by the shutdown, it is resumed at the next start", jobId);
+        return;
+      }
+      log.error("Bulk job {} failed", jobId, e);
+      updateStatus(jobId, BulkJobStatusEnum.FAILED, e.getMessage());
+    }
+  }
+
+  /**
+   * Processes the items from the first one which was not committed yet, returns false when the job was cancelled.
+   */
+  private <T> boolean process(BulkJob job, List<T> items, Function<List<T>, List<UUID>> operation) {
+    final int chunkSize = customersProperties.getBulk().getChunkSize();
+    // the chunk a running job was interrupted in may have been committed by some of the shards
+    final int interruptedItem = job.getStatus() == BulkJobStatusEnum.RUNNING ? job.getProcessedItems() : -1;
+    for (int from = job.getProcessedItems(); from < items.size(); from += chunkSize) {
+      if (bulkJobRepository.isCancelRequested(job.getJobId())) {
+        return false;
+      }
+      final int firstItem = from;
+      final List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+      try {
+        transactionTemplate.executeWithoutResult(status -> {
+          final List<UUID> customerIds = operation.apply(chunk);
+          final List<BulkJobResult> results = new ArrayList<>(chunk.size());
+          for (int index = 0; index < chunk.size(); index++) {
+            results.add(result(job.getJobId(), firstItem + index).customerId(customerIds.get(index)).build());
+          }
+          saveResults(job.getJobId(), results, 0);
+        });
+      } catch (ApplicationErrorException e) {
+        for (int index = 0; index < chunk.size(); index++) {
+          processItem(job.getJobId(), firstItem + index, chunk.get(index), operation, firstItem == interruptedItem);
+        }
+      }
+    }
+    return true;
+  }
+
+  private <T> void processItem(UUID jobId, int item, T itemRequest, Function<List<T>, List<UUID>> operation,
+      boolean interrupted) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> saveResults(jobId,
+          List.of(result(jobId, item).customerId(operation.apply(List.of(itemRequest)).get(0)).build()), 0));
+    } catch (ApplicationErrorException e) {
+      if (interrupted && itemRequest instanceof UUID customerId
+          && ErrorCode.CUSTOMER_NOT_FOUND.getErrorCode().equals(e.getApplicationError().getCode())) {
+        transactionTemplate.executeWithoutResult(status -> saveResults(jobId,
+            List.of(result(jobId, item).customerId(customerId).build()), 0));
+        return;
+      }
+      transactionTemplate.executeWithoutResult(status -> saveResults(jobId, List.of(result(jobId, item)
+          .customerId(itemRequest instanceof UUID customerId ? customerId
+              : itemRequest instanceof CustomerDTO customer ? customer.getCustomerId() : null)
+          .code(e.getApplicationError().getCode())
+          .message(e.getApplicationError().getMessage())
+          .build()), 1));
+    }
+  }
+
+  /**
+   * The id of a new customer only depends on the job and the item, a retried chunk creates it under the same id.
+   */
+  private List<NewCustomer> newCustomers(BulkJob job, List<CreateCustomerRequestDTO> createCustomerRequests) {
+    return IntStream.range(0, createCustomerRequests.size())
+        .mapToObj(item -> new NewCustomer(UUID.nameUUIDFromBytes((job.getJobId() + "/" + item)
+            .getBytes(StandardCharsets.UTF_8)), createCustomerRequests.get(item)))
+        .toList();
+  }
+
+  private BulkJobResult.BulkJobResultBuilder result(UUID jobId, int item) {
+    return BulkJobResult.builder().jobId(jobId).item(item);
+  }
+
+  private void saveResults(UUID jobId, List<BulkJobResult> results, int failedItems) {
+    bulkJobResultRepository.saveAll(results);
+    bulkJobRepository.addProgress(jobId, results.size(), failedItems, OffsetDateTime.now());
+  }
+
+  private void updateStatus(UUID jobId, BulkJobStatusEnum status, String message) {
+    final String storedMessage = message != null && message.length() > MESSAGE_LENGTH ? message.substring(0, MESSAGE_LENGTH) : message;
+    transactionTemplate.executeWithoutResult(transactionStatus -> bulkJobRepository.updateStatus(jobId, status, storedMessage,
+        OffsetDateTime.now()));
+  }
+
+  private <R> R readRequest(BulkJob job, Class<R> requestType) throws JsonProcessingException {
+    return objectMapper.readValue(job.getRequest(), requestType);
+  }
+
+  private record NewCustomer(UUID customerId, CreateCustomerRequestDTO request) {
+  }
+}
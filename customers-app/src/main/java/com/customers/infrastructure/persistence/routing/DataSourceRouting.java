@@ -0,0 +1,34 @@
+package com.customers.infrastructure.persistence.routing;
+
+import java.util.function.Supplier;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Pins the database work of the current thread to the primary database, even inside read-only transactions.
+ */
+@UtilityClass
+public class DataSourceRouting {
+
+  private static final ThreadLocal<Boolean> ON_PRIMARY = new ThreadLocal<>();
+
+  public boolean isOnPrimary() {
+    return Boolean.TRUE.equals(ON_PRIMARY.get());
+  }
+
+  /**
+   * Runs the read on the primary database. The connection is chosen once it is first used, so the read must not join a
+   * transaction which already used its connection.
+   */
+  public <T> T onPrimary(Supplier<T> read) {
+    if (isOnPrimary()) {
+      return read.get();
+    }
+    ON_PRIMARY.set(Boolean.TRUE);
+    try {
+      return read.get();
+    } finally {
+      ON_PRIMARY.remove();
+    }
+  }
+}
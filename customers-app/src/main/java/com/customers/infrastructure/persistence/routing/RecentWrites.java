@@ -0,0 +1,92 @@
+package com.customers.infrastructure.persistence.routing;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.customers.config.CustomersProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers the customers written lately, for the read-your-writes window. Their reads go to the primary database,
+ * as the replicas may not have the change yet. A list may show any customer, so the lists are read on the primary
+ * database while any customer was written lately. Nothing is remembered when there are no replicas.
+ */
+@Component
+public class RecentWrites {
+
+  private final Cache<UUID, Boolean> customers;
+  private final long windowNanos;
+  private volatile long lastWriteNanos;
+
+  public RecentWrites(CustomersProperties customersProperties) {
+    final CustomersProperties.Datasource properties = customersProperties.getDatasource();
+    this.customers = properties.getReplicas().isEmpty() ? null : Caffeine.newBuilder()
+        .expireAfterWrite(properties.getReadYourWrites())
+        .build();
+    this.windowNanos = properties.getReadYourWrites().toNanos();
+    this.lastWriteNanos = System.nanoTime() - windowNanos;
+  }
+
+  public void markAfterCommit(UUID customerId) {
+    markAfterCommit(List.of(customerId));
+  }
+
+  /**
+   * Marks the customers once the current transaction is committed, so the window starts when the change is visible.
+   */
+  public void markAfterCommit(Collection<UUID> customerIds) {
+    if (customers == null || customerIds.isEmpty()) {
+      return;
+    }
+    final List<UUID> writtenCustomerIds = List.copyOf(customerIds);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      mark(writtenCustomerIds);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCommit() {
+        mark(writtenCustomerIds);
+      }
+    });
+  }
+
+  public <T> T read(UUID customerId, Supplier<T> read) {
+    return read(List.of(customerId), read);
+  }
+
+  /**
+   * Runs the read on the primary database when one of the customers was written lately, where it is routed to
+   * otherwise.
+   */
+  public <T> T read(Collection<UUID> customerIds, Supplier<T> read) {
+    if (customers == null || customerIds.stream().noneMatch(customerId -> customers.getIfPresent(customerId) != null)) {
+      return read.get();
+    }
+    return DataSourceRouting.onPrimary(read);
+  }
+
+  /**
+   * Runs the read of a list on the primary database when any customer was written lately, where it is routed to
+   * otherwise.
+   */
+  public <T> T readList(Supplier<T> read) {
+    if (customers == null || System.nanoTime() - lastWriteNanos >= windowNanos) {
+      return read.get();
+    }
+    return DataSourceRouting.onPrimary(read);
+  }
+
+  private void mark(List<UUID> customerIds) {
+    customerIds.forEach(customerId -> customers.put(customerId, Boolean.TRUE));
+    lastWriteNanos = System.nanoTime();
+  }
+}
@@ -0,0 +1,61 @@
+package com.customers.infrastructure.persistence.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out the connections of the replicas to read-only transactions, in turns, and the connections of the primary
+ * database to everything else. The transaction has to be known when the connection is taken, so the data source is
+ * wrapped into a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+  private static final String PRIMARY = "primary";
+  private static final String REPLICA = "replica-";
+
+  private final List<DataSource> replicas;
+  private final List<String> replicaKeys = new ArrayList<>();
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+    this.replicas = List.copyOf(replicas);
+    final Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(PRIMARY, primary);
+    for (int index = 0; index < replicas.size(); index++) {
+      replicaKeys.add(REPLICA + index);
+      targetDataSources.put(REPLICA + index, replicas.get(index));
+    }
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicaKeys.isEmpty() || DataSourceRouting.isOnPrimary()
+        || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return PRIMARY;
+    }
+    return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+  }
+
+  /**
+   * The replicas are no beans of their own, their pools are closed together with the routing.
+   */
+  @Override
+  public void destroy() throws Exception {
+    for (DataSource replica : replicas) {
+      if (replica instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.customers.db.model.ContactClaim;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.ContactTypeEnum;
+import com.customers.db.repository.ContactClaimRepository;
+import com.customers.db.repository.CustomerRepository;
+
+import lombok.Value;
+
+/**
+ * Claims of the customers of all shards on their emails and phone numbers, kept on the first shard.
+ * <p>
+ * The unique constraints of a database only see the contacts of its own shard. So the contacts are claimed here before
+ * they are written to the shard of their customer, and released once the customer does not use them any more. A
+ * contact is never written without its claim, a failed write at most leaves a claim behind until its customer is
+ * written again.
+ */
+@Component
+public class ContactDirectory {
+
+  private static final int DIRECTORY_SHARD = 0;
+  private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+  private final ContactClaimRepository contactClaimRepository;
+  private final CustomerRepository customerRepository;
+  private final CustomerShards customerShards;
+  private final TransactionTemplate claimTransaction;
+
+  public ContactDirectory(ContactClaimRepository contactClaimRepository, CustomerRepository customerRepository,
+      CustomerShards customerShards, PlatformTransactionManager transactionManager) {
+    this.contactClaimRepository = contactClaimRepository;
+    this.customerRepository = customerRepository;
+    this.customerShards = customerShards;
+    this.claimTransaction = new TransactionTemplate(transactionManager);
+    claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Claims the contacts for their customers, in a transaction of its own, so the claims hold for the concurrent writers
+   * right away. A contact claimed concurrently in the meantime violates the unique constraint, then the claims are
+   * looked up once more.
+   *
+   * @param owners the customer claiming each contact
+   * @return a contact which is claimed by another customer already, none when all contacts are claimed now
+   */
+  public Optional<String> claim(ContactTypeEnum contactType, Map<String, UUID> owners) {
+    if (owners.isEmpty()) {
+      return Optional.empty();
+    }
+    try {
+      return claimOnce(contactType, owners);
+    } catch (DataIntegrityViolationException e) {
+      return claimOnce(contactType, owners);
+    }
+  }
+
+  /**
+   * Releases the claims of the customers on the contacts they do not use, all of them for a deleted customer or for one
+   * whose creation failed. The contacts in use are read from the shards of the customers.
+   */
+  public void releaseUnused(Collection<UUID> customerIds) {
+    final List<UUID> distinctCustomerIds = customerIds.stream().distinct().toList();
+    for (int from = 0; from < distinctCustomerIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+      final List<UUID> customerIdsChunk =
+          distinctCustomerIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctCustomerIds.size()));
+      final Set<Contact> usedContacts = new HashSet<>();
+      customerShards.readEach(customerIdsChunk, customerId -> customerId, customerRepository::findContactRows)
+          .forEach(contact -> usedContacts(contact, usedContacts));
+      ShardRouting.onShard(DIRECTORY_SHARD, () -> claimTransaction.execute(status -> {
+        contactClaimRepository.deleteAllByIdInBatch(contactClaimRepository.findAllByCustomerIdIn(customerIdsChunk).stream()
+            .filter(claim -> !usedContacts.contains(
+                new Contact(claim.getCustomerId(), claim.getContactType(), claim.getContactValue())))
+            .map(ContactClaim::getId)
+            .toList());
+        return null;
+      }));
+    }
+  }
+
+  private Optional<String> claimOnce(ContactTypeEnum contactType, Map<String, UUID> owners) {
+    return ShardRouting.onShard(DIRECTORY_SHARD, () -> claimTransaction.execute(status -> {
+      final List<String> contactValues = List.copyOf(owners.keySet());
+      final Set<String> claimedValues = new HashSet<>();
+      for (int from = 0; from < contactValues.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+        for (ContactClaim claim : contactClaimRepository.findAllByContactTypeAndContactValueIn(contactType,
+            contactValues.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, contactValues.size())))) {
+          if (!claim.getCustomerId().equals(owners.get(claim.getContactValue()))) {
+            return Optional.of(claim.getContactValue());
+          }
+          claimedValues.add(claim.getContactValue());
+        }
+      }
+      final List<ContactClaim> claims = new ArrayList<>();
+      owners.forEach((contactValue, customerId) -> {
+        if (!claimedValues.contains(contactValue)) {
+          claims.add(ContactClaim.builder().contactType(contactType).contactValue(contactValue).customerId(customerId).build());
+        }
+      });
+      contactClaimRepository.saveAllAndFlush(claims);
+      return Optional.empty();
+    }));
+  }
+
+  private static void usedContacts(ContactRow contact, Set<Contact> usedContacts) {
+    usedContacts.add(new Contact(contact.getCustomerId(), ContactTypeEnum.EMAIL, contact.getEmail()));
+    if (contact.getPhoneNumber() != null) {
+      usedContacts.add(new Contact(contact.getCustomerId(), ContactTypeEnum.PHONE, contact.getPhoneNumber()));
+    }
+  }
+
+  @Value
+  private static class Contact {
+
+    UUID customerId;
+    ContactTypeEnum contactType;
+    String value;
+  }
+}
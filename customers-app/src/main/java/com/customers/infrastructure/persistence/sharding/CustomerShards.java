@@ -0,0 +1,226 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.customers.config.CustomersProperties;
+
+/**
+ * Spreads the customers over the shards by the hash of their id, every customer is stored together with all its
+ * children on one shard.
+ * <p>
+ * With shards the work on a shard runs in a transaction of its own, a transaction covers one shard only. The reads of
+ * several shards run in parallel, the writes of several shards commit together as far as the shards allow. Without
+ * shards all work runs right away, in the transaction of the caller.
+ * <p>
+ * The parallel reads never wait for a free reader: when all readers are busy, a read runs on the calling thread. So a
+ * fan-out started by a reader, or by many requests at once, cannot wait on itself.
+ */
+@Component
+public class CustomerShards implements DisposableBean {
+
+  private final int shardCount;
+  private final TransactionTemplate writeTransaction;
+  private final TransactionTemplate readTransaction;
+  private final ThreadPoolTaskExecutor readers;
+
+  public CustomerShards(CustomersProperties customersProperties, PlatformTransactionManager transactionManager) {
+    final List<CustomersProperties.Database> shards = customersProperties.getDatasource().getShards();
+    this.shardCount = shards.isEmpty() ? 1 : shards.size() + 1;
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    readTransaction.setReadOnly(true);
+    this.readers = isSharded() ? readers(shardCount) : null;
+  }
+
+  public boolean isSharded() {
+    return shardCount > 1;
+  }
+
+  public List<Integer> all() {
+    return IntStream.range(0, shardCount).boxed().toList();
+  }
+
+  /**
+   * Without shards the customer may have no id yet, it is generated on insert then.
+   */
+  public int shardOf(UUID customerId) {
+    return isSharded() ? Math.floorMod(customerId.hashCode(), shardCount) : 0;
+  }
+
+  public <T> T write(UUID customerId, Supplier<T> write) {
+    return write(shardOf(customerId), write);
+  }
+
+  /**
+   * Runs the write in a transaction on the shard, or in the transaction already running there.
+   */
+  public <T> T write(int shard, Supplier<T> write) {
+    return onShard(shard, writeTransaction, write);
+  }
+
+  public <T> T read(UUID customerId, Supplier<T> read) {
+    return read(shardOf(customerId), read);
+  }
+
+  /**
+   * Runs the read in a read-only transaction on the shard, or in the transaction already running there.
+   */
+  public <T> T read(int shard, Supplier<T> read) {
+    return onShard(shard, readTransaction, read);
+  }
+
+  /**
+   * Runs the read on every shard, in parallel.
+   *
+   * @return the results of the shards, in the order of the shards
+   */
+  public <T> List<T> readAll(IntFunction<T> read) {
+    return readAll(all(), read);
+  }
+
+  /**
+   * Runs the read on every shard after another, like a stream which is consumed in the order of the shards.
+   */
+  public void readEach(IntConsumer read) {
+    all().forEach(shard -> read(shard, () -> {
+      read.accept(shard);
+      return null;
+    }));
+  }
+
+  /**
+   * Reads the items on the shards of their customers, in parallel.
+   *
+   * @return the results of all shards, the results of a shard in the order the read returned them
+   */
+  public <T, R> List<R> readEach(Collection<T> items, Function<T, UUID> customerId, Function<List<T>, List<R>> read) {
+    if (!isSharded()) {
+      return read.apply(List.copyOf(items));
+    }
+    final Map<Integer, List<T>> itemsByShard = byShard(items, customerId);
+    return readAll(itemsByShard.keySet(), shard -> read.apply(itemsByShard.get(shard))).stream()
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  /**
+   * Writes the items on the shards of their customers, each shard in a transaction of its own. The transactions are
+   * nested in the order of the shards, so a shard commits only once every later shard has written and committed: a
+   * failing write rolls back all shards. Only a commit failing after a later shard has committed already leaves that
+   * shard written. The write returns a result per item of its shard, in their order.
+   *
+   * @return the results in the order of the items
+   */
+  public <T, R> List<R> writeEach(List<T> items, Function<T, UUID> customerId, Function<List<T>, List<R>> write) {
+    if (!isSharded()) {
+      return write.apply(items);
+    }
+    final Map<Integer, List<Integer>> indexesByShard = byShard(IntStream.range(0, items.size()).boxed().toList(),
+        index -> customerId.apply(items.get(index)));
+    final List<R> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+    writeEach(new ArrayList<>(indexesByShard.entrySet()), 0, indexes -> {
+      final List<R> shardResults = write.apply(indexes.stream().map(items::get).toList());
+      for (int index = 0; index < indexes.size(); index++) {
+        results.set(indexes.get(index), shardResults.get(index));
+      }
+    });
+    return results;
+  }
+
+  @Override
+  public void destroy() {
+    if (readers != null) {
+      readers.shutdown();
+    }
+  }
+
+  /**
+   * Two readers per shard, for the fan-outs of concurrent requests, without a queue.
+   */
+  private static ThreadPoolTaskExecutor readers(int shardCount) {
+    final ThreadPoolTaskExecutor readers = new ThreadPoolTaskExecutor();
+    readers.setCorePoolSize(shardCount);
+    readers.setMaxPoolSize(2 * shardCount);
+    readers.setQueueCapacity(0);
+    readers.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    readers.setThreadNamePrefix("shard-reader-");
+    readers.initialize();
+    return readers;
+  }
+
+  /**
+   * A single shard is read on the calling thread, so a read of the shard the caller is working on joins its transaction.
+   */
+  private <T> List<T> readAll(Collection<Integer> shards, IntFunction<T> read) {
+    if (shards.size() == 1) {
+      final int shard = shards.iterator().next();
+      return List.of(read(shard, () -> read.apply(shard)));
+    }
+    final List<CompletableFuture<T>> results = shards.stream()
+        .map(shard -> CompletableFuture.supplyAsync(() -> read(shard, () -> read.apply(shard)), readers))
+        .toList();
+    try {
+      return results.stream().map(CompletableFuture::join).toList();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Writes the shard and, still within its transaction, all later shards.
+   */
+  private void writeEach(List<Map.Entry<Integer, List<Integer>>> shards, int position,
+      Consumer<List<Integer>> write) {
+    if (position == shards.size()) {
+      return;
+    }
+    final Map.Entry<Integer, List<Integer>> shard = shards.get(position);
+    write(shard.getKey(), () -> {
+      write.accept(shard.getValue());
+      writeEach(shards, position + 1, write);
+      return null;
+    });
+  }
+
+  private <T> Map<Integer, List<T>> byShard(Collection<T> items, Function<T, UUID> customerId) {
+    final Map<Integer, List<T>> itemsByShard = new TreeMap<>();
+    items.forEach(item -> itemsByShard.computeIfAbsent(shardOf(customerId.apply(item)), shard -> new ArrayList<>())
+        .add(item));
+    return itemsByShard;
+  }
+
+  private <T> T onShard(int shard, TransactionTemplate transaction, Supplier<T> work) {
+    if (!isSharded() || ShardRouting.isOn(shard) && TransactionSynchronizationManager.isActualTransactionActive()) {
+      return work.get();
+    }
+    return ShardRouting.onShard(shard, () -> transaction.execute(status -> work.get()));
+  }
+}
@@ -0,0 +1,86 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.ContactOwner;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.ContactTypeEnum;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+
+/**
+ * Where the customers are stored, so the customer service works as if there was one database. Without shards this is
+ * the {@link DirectCustomerStore}, which hands everything to the repositories in the transaction of the caller. With
+ * shards it is the {@link ShardedCustomerStore}.
+ */
+public interface CustomerStore {
+
+  /**
+   * Runs the read where the customer is stored.
+   */
+  <T> T read(UUID customerId, Supplier<T> read);
+
+  /**
+   * Runs the write where the customer is stored.
+   */
+  <T> T write(UUID customerId, Supplier<T> write);
+
+  /**
+   * Writes the items where their customers are stored, the write may be called once for every group of items stored
+   * together. It returns a result per item, in their order. Either all items are written or none.
+   *
+   * @return the results in the order of the items
+   */
+  <T, R> List<R> writeEach(List<T> items, Function<T, UUID> customerId, Function<List<T>, List<R>> write);
+
+  /**
+   * Reads the first rows in the given order.
+   */
+  List<CustomerRow> findRows(Specification<Customer> specification, Sort sort, int limit);
+
+  Slice<CustomerRow> findRowSlice(Specification<Customer> specification, Pageable pageRequest);
+
+  Page<CustomerRow> findRows(Specification<Customer> specification, Pageable pageRequest, LongSupplier total);
+
+  long countRows(Specification<Customer> specification);
+
+  List<AddressRow> findAddressRows(Collection<UUID> customerIds);
+
+  List<ContactRow> findContactRows(Collection<UUID> customerIds);
+
+  /**
+   * Hands the stream of the rows to the consumer, which may be called more than once.
+   */
+  void streamRows(Specification<Customer> specification, int fetchSize, Consumer<Stream<CustomerRow>> rowsConsumer);
+
+  List<UUID> findExistingCustomerIds(Collection<UUID> customerIds);
+
+  List<ContactOwner> findOwnersByEmailIn(Collection<String> emails);
+
+  List<ContactOwner> findOwnersByPhoneNumberIn(Collection<String> phoneNumbers);
+
+  /**
+   * Claims the contacts for their customers within a write, once their existing owners have been checked. Without
+   * shards nothing needs to be claimed, the unique constraints of the database reject a contact taken concurrently.
+   *
+   * @param owners the customer claiming each contact
+   * @return a contact which is claimed by another customer already, none when all contacts can be taken
+   */
+  Optional<String> claim(ContactTypeEnum contactType, Map<String, UUID> owners);
+}
@@ -0,0 +1,119 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.ContactOwner;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.ContactTypeEnum;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.repository.CommunicationRepository;
+import com.customers.db.repository.CustomerRepository;
+import com.customers.db.repository.PhoneRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The customers of a single database. Everything is handed to the repositories right away, in the transaction of the
+ * caller.
+ */
+@Component
+@ConditionalOnExpression("'${customers.datasource.shards[0].url:}'.isEmpty()")
+@RequiredArgsConstructor
+public class DirectCustomerStore implements CustomerStore {
+
+  private final CustomerRepository customerRepository;
+  private final CommunicationRepository communicationRepository;
+  private final PhoneRepository phoneRepository;
+
+  @Override
+  public <T> T read(UUID customerId, Supplier<T> read) {
+    return read.get();
+  }
+
+  @Override
+  public <T> T write(UUID customerId, Supplier<T> write) {
+    return write.get();
+  }
+
+  @Override
+  public <T, R> List<R> writeEach(List<T> items, Function<T, UUID> customerId, Function<List<T>, List<R>> write) {
+    return write.apply(items);
+  }
+
+  @Override
+  public List<CustomerRow> findRows(Specification<Customer> specification, Sort sort, int limit) {
+    return customerRepository.findRows(specification, sort, limit);
+  }
+
+  @Override
+  public Slice<CustomerRow> findRowSlice(Specification<Customer> specification, Pageable pageRequest) {
+    return customerRepository.findRowSlice(specification, pageRequest);
+  }
+
+  @Override
+  public Page<CustomerRow> findRows(Specification<Customer> specification, Pageable pageRequest, LongSupplier total) {
+    return customerRepository.findRows(specification, pageRequest, total);
+  }
+
+  @Override
+  public long countRows(Specification<Customer> specification) {
+    return customerRepository.countRows(specification);
+  }
+
+  @Override
+  public List<AddressRow> findAddressRows(Collection<UUID> customerIds) {
+    return customerRepository.findAddressRows(customerIds);
+  }
+
+  @Override
+  public List<ContactRow> findContactRows(Collection<UUID> customerIds) {
+    return customerRepository.findContactRows(customerIds);
+  }
+
+  @Override
+  public void streamRows(Specification<Customer> specification, int fetchSize,
+      Consumer<Stream<CustomerRow>> rowsConsumer) {
+    try (Stream<CustomerRow> customers = customerRepository.streamRows(specification, fetchSize)) {
+      rowsConsumer.accept(customers);
+    }
+  }
+
+  @Override
+  public List<UUID> findExistingCustomerIds(Collection<UUID> customerIds) {
+    return customerRepository.findExistingCustomerIds(customerIds);
+  }
+
+  @Override
+  public List<ContactOwner> findOwnersByEmailIn(Collection<String> emails) {
+    return communicationRepository.findOwnersByEmailIn(emails);
+  }
+
+  @Override
+  public List<ContactOwner> findOwnersByPhoneNumberIn(Collection<String> phoneNumbers) {
+    return phoneRepository.findOwnersByPhoneNumberIn(phoneNumbers);
+  }
+
+  @Override
+  public Optional<String> claim(ContactTypeEnum contactType, Map<String, UUID> owners) {
+    return Optional.empty();
+  }
+}
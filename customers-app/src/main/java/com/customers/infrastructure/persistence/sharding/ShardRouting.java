@@ -0,0 +1,42 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import java.util.function.Supplier;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Pins the database work of the current thread to one shard, the first shard when none is pinned.
+ */
+@UtilityClass
+public class ShardRouting {
+
+  private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+  public int currentShard() {
+    final Integer shard = SHARD.get();
+    return shard == null ? 0 : shard;
+  }
+
+  public boolean isOn(int shard) {
+    final Integer currentShard = SHARD.get();
+    return currentShard != null && currentShard == shard;
+  }
+
+  /**
+   * Runs the work on the shard. The connection is chosen once it is first used, so the work must start a transaction of
+   * its own rather than join one which already used its connection.
+   */
+  public <T> T onShard(int shard, Supplier<T> work) {
+    final Integer previousShard = SHARD.get();
+    SHARD.set(shard);
+    try {
+      return work.get();
+    } finally {
+      if (previousShard == null) {
+        SHARD.remove();
+      } else {
+        SHARD.set(previousShard);
+      }
+    }
+  }
+}
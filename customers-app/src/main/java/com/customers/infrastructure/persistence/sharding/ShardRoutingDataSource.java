@@ -0,0 +1,50 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out the connections of the shard the current thread is pinned to by {@link ShardRouting}. The shard has to be
+ * known when the connection is taken, so the data source is wrapped into a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+  private final List<DataSource> shards;
+
+  /**
+   * @param shards the databases of the shards, the first one is the {@code spring.datasource} database
+   */
+  public ShardRoutingDataSource(List<DataSource> shards) {
+    this.shards = List.copyOf(shards);
+    final Map<Object, Object> targetDataSources = new HashMap<>();
+    for (int shard = 0; shard < shards.size(); shard++) {
+      targetDataSources.put(shard, shards.get(shard));
+    }
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(shards.get(0));
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return ShardRouting.currentShard();
+  }
+
+  /**
+   * The further shards are no beans of their own, their pools are closed together with the routing.
+   */
+  @Override
+  public void destroy() throws Exception {
+    for (DataSource shard : shards.subList(1, shards.size())) {
+      if (shard instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+}
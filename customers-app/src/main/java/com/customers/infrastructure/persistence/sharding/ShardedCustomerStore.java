@@ -0,0 +1,208 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.ContactOwner;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.ContactTypeEnum;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.repository.CommunicationRepository;
+import com.customers.db.repository.CustomerRepository;
+import com.customers.db.repository.PhoneRepository;
+import com.customers.domain.CustomerSort;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The customers spread over the shards. The reads of several customers run on every shard and are merged, the work on
+ * a customer runs on its shard.
+ * <p>
+ * The unique constraints of a database only cover its own shard, so the contacts are claimed in the
+ * {@link ContactDirectory} before they are written. Once a write has ended, committed or not, its customers give up
+ * their claims on the contacts they do not use: the replaced ones, the ones of a failed creation and all of a deleted
+ * customer.
+ */
+@Component
+@ConditionalOnProperty(prefix = "customers.datasource", name = "shards[0].url")
+@RequiredArgsConstructor
+public class ShardedCustomerStore implements CustomerStore {
+
+  /**
+   * The customers of the write running on the current thread, their claims are released once it has ended.
+   */
+  private static final ThreadLocal<Set<UUID>> WRITTEN_CUSTOMERS = new ThreadLocal<>();
+
+  private final CustomerRepository customerRepository;
+  private final CommunicationRepository communicationRepository;
+  private final PhoneRepository phoneRepository;
+  private final CustomerShards customerShards;
+  private final ContactDirectory contactDirectory;
+
+  @Override
+  public <T> T read(UUID customerId, Supplier<T> read) {
+    return customerShards.read(customerId, read);
+  }
+
+  @Override
+  public <T> T write(UUID customerId, Supplier<T> write) {
+    return releasingClaims(List.of(customerId), () -> customerShards.write(customerId, write));
+  }
+
+  /**
+   * Every shard commits only once all shards have written, see {@link CustomerShards#writeEach}.
+   */
+  @Override
+  public <T, R> List<R> writeEach(List<T> items, Function<T, UUID> customerId, Function<List<T>, List<R>> write) {
+    return releasingClaims(items.stream().map(customerId).toList(),
+        () -> customerShards.writeEach(items, customerId, write));
+  }
+
+  /**
+   * Every shard reads the rows, in parallel, and the rows of all shards are merged in the same order.
+   */
+  @Override
+  public List<CustomerRow> findRows(Specification<Customer> specification, Sort sort, int limit) {
+    return customerShards.readAll(shard -> customerRepository.findRows(specification, sort, limit)).stream()
+        .flatMap(List::stream)
+        .sorted(CustomerSort.rowOrder(sort))
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * Every shard reads its rows up to the end of the page and one more, the merged rows are cut to the page. The deeper
+   * the page, the more rows every shard reads, the cursor pages do not have this cost.
+   */
+  @Override
+  public Slice<CustomerRow> findRowSlice(Specification<Customer> specification, Pageable pageRequest) {
+    final List<CustomerRow> customers = findPageRows(specification, pageRequest);
+    return new SliceImpl<>(pageContent(customers, pageRequest), pageRequest,
+        customers.size() > pageRequest.getOffset() + pageRequest.getPageSize());
+  }
+
+  @Override
+  public Page<CustomerRow> findRows(Specification<Customer> specification, Pageable pageRequest, LongSupplier total) {
+    return new PageImpl<>(pageContent(findPageRows(specification, pageRequest), pageRequest), pageRequest,
+        total.getAsLong());
+  }
+
+  /**
+   * The total is the sum of the counts of the shards.
+   */
+  @Override
+  public long countRows(Specification<Customer> specification) {
+    return customerShards.readAll(shard -> customerRepository.countRows(specification)).stream()
+        .mapToLong(Long::longValue)
+        .sum();
+  }
+
+  @Override
+  public List<AddressRow> findAddressRows(Collection<UUID> customerIds) {
+    return customerShards.readEach(customerIds, customerId -> customerId, customerRepository::findAddressRows);
+  }
+
+  @Override
+  public List<ContactRow> findContactRows(Collection<UUID> customerIds) {
+    return customerShards.readEach(customerIds, customerId -> customerId, customerRepository::findContactRows);
+  }
+
+  /**
+   * The rows of every shard are streamed shard after shard, each in a read-only transaction on its shard.
+   */
+  @Override
+  public void streamRows(Specification<Customer> specification, int fetchSize,
+      Consumer<Stream<CustomerRow>> rowsConsumer) {
+    customerShards.readEach(shard -> {
+      try (Stream<CustomerRow> customers = customerRepository.streamRows(specification, fetchSize)) {
+        rowsConsumer.accept(customers);
+      }
+    });
+  }
+
+  @Override
+  public List<UUID> findExistingCustomerIds(Collection<UUID> customerIds) {
+    return customerShards.readEach(customerIds, customerId -> customerId, customerRepository::findExistingCustomerIds);
+  }
+
+  /**
+   * Looks up the owners of the emails on every shard.
+   */
+  @Override
+  public List<ContactOwner> findOwnersByEmailIn(Collection<String> emails) {
+    return customerShards.readAll(shard -> communicationRepository.findOwnersByEmailIn(emails)).stream()
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  /**
+   * Looks up the owners of the phone numbers on every shard.
+   */
+  @Override
+  public List<ContactOwner> findOwnersByPhoneNumberIn(Collection<String> phoneNumbers) {
+    return customerShards.readAll(shard -> phoneRepository.findOwnersByPhoneNumberIn(phoneNumbers)).stream()
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  /**
+   * The claims hold for the concurrent writers right away.
+   */
+  @Override
+  public Optional<String> claim(ContactTypeEnum contactType, Map<String, UUID> owners) {
+    return contactDirectory.claim(contactType, owners);
+  }
+
+  /**
+   * A write within another one joins it, the claims are released once the outermost write has ended and everything it
+   * wrote is committed.
+   */
+  private <T> T releasingClaims(Collection<UUID> customerIds, Supplier<T> write) {
+    final Set<UUID> writtenCustomers = WRITTEN_CUSTOMERS.get();
+    if (writtenCustomers != null) {
+      writtenCustomers.addAll(customerIds);
+      return write.get();
+    }
+    final Set<UUID> customers = new LinkedHashSet<>(customerIds);
+    WRITTEN_CUSTOMERS.set(customers);
+    try {
+      return write.get();
+    } finally {
+      WRITTEN_CUSTOMERS.remove();
+      contactDirectory.releaseUnused(customers);
+    }
+  }
+
+  private List<CustomerRow> findPageRows(Specification<Customer> specification, Pageable pageRequest) {
+    final int limit = (int) pageRequest.getOffset() + pageRequest.getPageSize() + 1;
+    return findRows(specification, pageRequest.getSort(), limit);
+  }
+
+  private static List<CustomerRow> pageContent(List<CustomerRow> customers, Pageable pageRequest) {
+    final int offset = (int) pageRequest.getOffset();
+    return customers.subList(Math.min(offset, customers.size()),
+        Math.min(offset + pageRequest.getPageSize(), customers.size()));
+  }
+}
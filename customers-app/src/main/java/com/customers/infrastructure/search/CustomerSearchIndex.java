@@ -0,0 +1,148 @@
+package com.customers.infrastructure.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.Address;
+import com.customers.db.model.CommunicationEntity;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerSearchValue;
+import com.customers.db.model.SearchFieldEnum;
+import com.customers.db.repository.CustomerRepository;
+import com.customers.db.repository.CustomerSearchValueRepository;
+import com.customers.domain.SearchText;
+import com.customers.infrastructure.persistence.sharding.CustomerShards;
+import com.customers.infrastructure.persistence.sharding.ShardRouting;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Trigram index of the searchable customer fields: name, first name, emails and cities. The customer id is searched
+ * exactly, it is not indexed.
+ * <p>
+ * Every value is stored normalized together with all its trigrams. The writers keep the index in the transaction which
+ * changes the customers, so it is never ahead of or behind a committed customer. The index entries are written with
+ * batched inserts and flushed right away, the bulk operations clear the persistence context after every chunk.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class CustomerSearchIndex {
+
+  private final CustomerSearchValueRepository searchValueRepository;
+  private final CustomerRepository customerRepository;
+  private final CustomerShards customerShards;
+  private final CustomersProperties customersProperties;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Indexes customers which were not indexed before, like newly created ones.
+   */
+  public void add(Collection<Customer> customers) {
+    searchValueRepository.saveAllAndFlush(customers.stream().flatMap(this::searchValues).toList());
+  }
+
+  /**
+   * Replaces the index entries of changed customers.
+   */
+  public void update(Collection<Customer> customers) {
+    remove(customers.stream().map(Customer::getCustomerId).toList());
+    add(customers);
+  }
+
+  /**
+   * Replaces the name and first name entries of a customer whose other values did not change, a null value is kept. An
+   * entry is only written when its normalized value changed.
+   */
+  public void updatePerson(UUID customerId, String name, String firstName) {
+    final Map<SearchFieldEnum, String> values = new EnumMap<>(SearchFieldEnum.class);
+    if (name != null) {
+      values.put(SearchFieldEnum.NAME, name);
+    }
+    if (firstName != null) {
+      values.put(SearchFieldEnum.FIRST_NAME, firstName);
+    }
+    final List<CustomerSearchValue> changedValues = new ArrayList<>(values.size());
+    values.forEach((field, value) -> {
+      if (searchValueRepository.deleteOtherValues(customerId, field, SearchText.normalize(value)) > 0) {
+        changedValues.add(searchValue(customerId, field, value));
+      }
+    });
+    if (!changedValues.isEmpty()) {
+      searchValueRepository.saveAllAndFlush(changedValues);
+    }
+  }
+
+  /**
+   * Replaces the entries of one field of a customer whose other values did not change.
+   */
+  public void replace(UUID customerId, SearchFieldEnum field, Collection<String> values) {
+    searchValueRepository.deleteAllOfCustomerFields(customerId, List.of(field));
+    searchValueRepository.saveAllAndFlush(values.stream().map(value -> searchValue(customerId, field, value)).toList());
+  }
+
+  public void remove(Collection<UUID> customerIds) {
+    searchValueRepository.deleteAllOfCustomers(customerIds);
+  }
+
+  /**
+   * Indexes the customers which were stored before the index existed, shard after shard and chunk by chunk in
+   * transactions of their own.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void addUnindexedCustomers() {
+    customerShards.all().forEach(shard -> ShardRouting.onShard(shard, this::addUnindexedCustomersOfShard));
+  }
+
+  private int addUnindexedCustomersOfShard() {
+    final PageRequest chunk = PageRequest.ofSize(customersProperties.getBulk().getChunkSize());
+    int indexedCustomers = 0;
+    List<UUID> customerIds;
+    while (!(customerIds = customerRepository.findUnindexedCustomerIds(chunk)).isEmpty()) {
+      final List<UUID> customerIdsChunk = customerIds;
+      transactionTemplate.executeWithoutResult(status -> {
+        add(customerRepository.findAllDetailedByCustomerIdIn(customerIdsChunk));
+        customerRepository.detachAll();
+      });
+      indexedCustomers += customerIds.size();
+    }
+    if (indexedCustomers > 0) {
+      log.info("Added {} customers of shard {} to the search index", indexedCustomers, ShardRouting.currentShard());
+    }
+    return indexedCustomers;
+  }
+
+  private Stream<CustomerSearchValue> searchValues(Customer customer) {
+    return Stream.of(
+            Stream.of(searchValue(customer.getCustomerId(), SearchFieldEnum.NAME, customer.getName()),
+                searchValue(customer.getCustomerId(), SearchFieldEnum.FIRST_NAME, customer.getFirstName())),
+            customer.getCommunications().stream().map(CommunicationEntity::getEmail)
+                .map(email -> searchValue(customer.getCustomerId(), SearchFieldEnum.EMAIL, email)),
+            customer.getAddresses().stream().map(Address::getCity)
+                .map(city -> searchValue(customer.getCustomerId(), SearchFieldEnum.CITY, city)))
+        .flatMap(values -> values);
+  }
+
+  private CustomerSearchValue searchValue(UUID customerId, SearchFieldEnum field, String value) {
+    final String normalizedValue = SearchText.normalize(value);
+    return CustomerSearchValue.builder()
+        .customerId(customerId)
+        .field(field)
+        .value(normalizedValue)
+        .trigrams(SearchText.trigrams(normalizedValue))
+        .build();
+  }
+}
@@ -0,0 +1,31 @@
+package com.customers.mapper;
+
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.springframework.data.domain.Page;
+
+import com.customers.db.model.BulkJob;
+import com.customers.db.model.BulkJobResult;
+import com.customers.model.BulkJobDTO;
+import com.customers.model.BulkJobItemResultDTO;
+import com.customers.model.BulkJobResultsDTO;
+import com.customers.model.PagingDTO;
+
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface BulkJobMapper {
+
+  BulkJobDTO fromEntity(BulkJob job);
+
+  BulkJobItemResultDTO fromEntity(BulkJobResult result);
+
+  default BulkJobResultsDTO fromPage(Page<BulkJobResult> page) {
+    return new BulkJobResultsDTO()
+        .results(page.getContent().stream().map(this::fromEntity).toList())
+        .paging(new PagingDTO()
+            .pageNumber(page.getNumber())
+            .pageSize(page.getSize())
+            .pageCount(page.getTotalPages())
+            .totalElements(page.getTotalElements())
+            .hasNext(page.hasNext()));
+  }
+}
@@ -1,7 +1,10 @@
 package com.customers.mapper;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.UUID;
 
 import org.mapstruct.AfterMapping;
 import org.mapstruct.BeanMapping;
@@ -11,13 +14,26 @@ import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
+import com.customers.db.model.Address;
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.CommunicationEntity;
+import com.customers.db.model.ContactRow;
 import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.model.PhoneEntity;
 import com.customers.db.model.VersionModel;
+import com.customers.domain.CustomerCursor;
+import com.customers.model.AddressDataDTO;
+import com.customers.model.CommunicationDataDTO;
 import com.customers.model.CreateCustomerRequestDTO;
 import com.customers.model.CustomerDTO;
 import com.customers.model.ListCustomersResponseDTO;
 import com.customers.model.PagingDTO;
+import com.customers.model.PersonDataDTO;
+import com.customers.model.PhoneDataDTO;
+import com.customers.model.SlicePagingDTO;
 import com.customers.model.UpdateCustomerRequestDTO;
 
 @Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR)
@@ -32,6 +48,50 @@ public interface CustomerMapper {
   @Mapping(target = "person.dateOfBirth", source = "dateOfBirth")
   CustomerDTO fromEntity(Customer entity);
 
+  @Mapping(target = "lastModifiedBy", source = "updatedBy")
+  @Mapping(target = "person.name", source = "name")
+  @Mapping(target = "person.firstName", source = "firstName")
+  @Mapping(target = "person.dateOfBirth", source = "dateOfBirth")
+  @Mapping(target = "addresses", ignore = true)
+  @Mapping(target = "communications", ignore = true)
+  CustomerDTO fromRow(CustomerRow row);
+
+  AddressDataDTO fromRow(AddressRow row);
+
+  PhoneDataDTO phoneFromRow(ContactRow row);
+
+  /**
+   * Assembles the customers of a list in one pass over the rows, in the order of the customer rows. The address and
+   * contact rows of a customer may arrive in any order, the rows of a communication are expected to be adjacent.
+   */
+  default List<CustomerDTO> fromRows(List<CustomerRow> customerRows, List<AddressRow> addressRows,
+      List<ContactRow> contactRows) {
+    final Map<UUID, CustomerDTO> customers = new LinkedHashMap<>(customerRows.size() * 2);
+    customerRows.forEach(row -> customers.put(row.getCustomerId(),
+        fromRow(row).addresses(new ArrayList<>()).communications(new ArrayList<>())));
+    addressRows.forEach(row -> customers.get(row.getCustomerId()).addAddressesItem(fromRow(row)));
+
+    UUID communicationId = null;
+    CommunicationDataDTO communication = null;
+    for (ContactRow row : contactRows) {
+      if (!row.getCommunicationId().equals(communicationId)) {
+        communicationId = row.getCommunicationId();
+        communication = new CommunicationDataDTO().email(row.getEmail()).phones(new ArrayList<>());
+        customers.get(row.getCustomerId()).addCommunicationsItem(communication);
+      }
+      if (row.getPhoneNumber() != null) {
+        communication.addPhonesItem(phoneFromRow(row));
+      }
+    }
+    return new ArrayList<>(customers.values());
+  }
+
+  Address fromAddressData(AddressDataDTO addressData);
+
+  CommunicationEntity fromCommunicationData(CommunicationDataDTO communicationData);
+
+  PhoneEntity fromPhoneData(PhoneDataDTO phoneData);
+
   @Mapping(target = "name", source = "person.name")
   @Mapping(target = "firstName", source = "person.firstName")
   @Mapping(target = "dateOfBirth", source = "person.dateOfBirth")
@@ -51,6 +111,8 @@ public interface CustomerMapper {
   Customer updateEntityFromModel(CustomerDTO dto,
       @MappingTarget Customer entity);
 
+  void replacePerson(PersonDataDTO person, @MappingTarget Customer entity);
+
   @AfterMapping
   default void provideCustomer(@MappingTarget Customer customer) {
     customer.getAddresses().forEach(address -> address.setCustomer(customer));
@@ -66,17 +128,51 @@ public interface CustomerMapper {
         fromEntity(entity));
   }
 
-  default ListCustomersResponseDTO pageToCustomersResponseDTO(Page<Customer> page) {
+  /**
+   * Maps a page, or a slice when the total was not requested. A slice has no page count and total number of elements.
+   */
+  default ListCustomersResponseDTO pageToCustomersResponseDTO(Slice<CustomerDTO> page) {
+    return new ListCustomersResponseDTO()
+        .results(page.getContent())
+        .paging(page instanceof Page<CustomerDTO> counted ? createPagingResponseFromPage(counted)
+            : createSlicePagingResponse(page));
+  }
+
+  /**
+   * Maps a keyset page, the customers are expected to be fetched with one more element than the page size
+   * so the presence of a next page is known without counting.
+   */
+  default ListCustomersResponseDTO cursorPageToCustomersResponseDTO(List<CustomerDTO> customers, int pageSize) {
+    final boolean hasNext = customers.size() > pageSize;
+    final List<CustomerDTO> content = hasNext ? customers.subList(0, pageSize) : customers;
     return new ListCustomersResponseDTO()
-        .results(page.get().map(this::fromEntity).collect(Collectors.toList()))
-        .paging(createPagingResponseFromPage(page));
+        .results(content)
+        .paging(new SlicePagingDTO()
+            .pageSize(pageSize)
+            .hasNext(hasNext)
+            .nextCursor(hasNext && !content.isEmpty() ? CustomerCursor.of(content.get(content.size() - 1)).encode() : null));
   }
 
-  default PagingDTO createPagingResponseFromPage(Page<?> page) {
+  default PagingDTO createPagingResponseFromPage(Page<CustomerDTO> page) {
     return new PagingDTO()
         .pageNumber(page.getNumber())
         .pageSize(page.getSize())
         .pageCount(page.getTotalPages())
-        .totalElements(page.getTotalElements());
+        .totalElements(page.getTotalElements())
+        .hasNext(page.hasNext())
+        .nextCursor(nextCursor(page));
+  }
+
+  default SlicePagingDTO createSlicePagingResponse(Slice<CustomerDTO> slice) {
+    return new SlicePagingDTO()
+        .pageNumber(slice.getNumber())
+        .pageSize(slice.getSize())
+        .hasNext(slice.hasNext())
+        .nextCursor(nextCursor(slice));
+  }
+
+  private static String nextCursor(Slice<CustomerDTO> page) {
+    return page.hasNext() && page.hasContent() && CustomerCursor.KEYSET_SORT.equals(page.getSort())
+        ? CustomerCursor.of(page.getContent().get(page.getNumberOfElements() - 1)).encode() : null;
   }
 }
@@ -0,0 +1,39 @@
+package com.customers.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+
+import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.BulkJobDTO;
+import com.customers.model.BulkJobResultsDTO;
+import com.customers.model.BulkUpdateRequestDTO;
+
+/**
+ * Runs the bulk operations of {@link CustomerService} in the background. A job is stored with its request body and
+ * handed to a worker once it is committed, every chunk of customers is committed together with its results.
+ */
+public interface BulkJobService {
+
+  BulkJobDTO submitCreation(BulkCreationRequestDTO bulkCreationRequestDTO);
+
+  BulkJobDTO submitUpdate(BulkUpdateRequestDTO bulkUpdateRequestDTO);
+
+  BulkJobDTO submitDeletion(List<UUID> customersIds);
+
+  /**
+   * The status and the counters of the job, without the results of its customers.
+   */
+  BulkJobDTO getJob(UUID jobId);
+
+  /**
+   * One page of the results of the customers processed so far, in the order of the bulk body.
+   */
+  BulkJobResultsDTO getJobResults(UUID jobId, Pageable pageable);
+
+  /**
+   * Requests the cancellation of a queued or running job, the worker stops before the next chunk.
+   */
+  BulkJobDTO cancelJob(UUID jobId);
+}
@@ -2,38 +2,112 @@ package com.customers.service;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import com.customers.db.model.CustomerVersion;
+import com.customers.db.model.EncodedCustomer;
 import com.customers.db.model.VersionModel;
+import com.customers.domain.CustomerFields;
+import com.customers.model.AddressDataDTO;
 import com.customers.model.BulkCreationRequestDTO;
 import com.customers.model.BulkUpdateRequestDTO;
+import com.customers.model.CommunicationDataDTO;
 import com.customers.model.CreateCustomerRequestDTO;
 import com.customers.model.CustomerDTO;
+import com.customers.model.CustomerImportResultDTO;
 import com.customers.model.ListCustomersResponseDTO;
+import com.customers.model.PhoneDataDTO;
 import com.customers.model.UpdateCustomerRequestDTO;
 
 public interface CustomerService {
 
-  VersionModel<CustomerDTO> getCustomer(UUID customerId);
+  /**
+   * Returns the requested members of the customer only, the collections which are not requested are not read.
+   */
+  VersionModel<CustomerDTO> getCustomer(UUID customerId, CustomerFields fields);
 
-  ListCustomersResponseDTO getCustomers(String name, String firstName, List<UUID> customerIds, String city,
-      String email, String search, Pageable pageRequest);
+  /**
+   * Returns the whole customer as JSON. The encoding is kept for the version it was made from, so the following reads
+   * skip the mapping and the serialization.
+   */
+  EncodedCustomer getEncodedCustomer(UUID customerId);
+
+  /**
+   * Looks up the version of the customer only, its addresses and communications are not loaded.
+   */
+  CustomerVersion getCustomerVersion(UUID customerId);
+
+  /**
+   * Returns the page with the digest of its customers and paging as version. Its body is null when the digest matches
+   * the If-None-Match header, the collections of the customers are not read then. Without the total only a slice is
+   * read, the total is taken from the short-lived counts cache otherwise.
+   */
+  VersionModel<ListCustomersResponseDTO> getCustomers(String name, String firstName, List<UUID> customerIds, String city,
+      String email, String search, Pageable pageRequest, boolean includeTotal, CustomerFields fields, String ifNoneMatch);
+
+  VersionModel<ListCustomersResponseDTO> getCustomersByCursor(String name, String firstName, List<UUID> customerIds,
+      String city, String email, String search, String cursor, int pageSize, CustomerFields fields, String ifNoneMatch);
+
+  /**
+   * Hands every customer matching the filters to the consumer, while they are read. The heap use does not depend on the
+   * number of customers.
+   */
+  void exportCustomers(String name, String firstName, List<UUID> customerIds, String city, String email, String search,
+      Consumer<CustomerDTO> customerConsumer);
 
   CustomerDTO createCustomer(CreateCustomerRequestDTO createCustomerRequestDTO);
 
   CustomerDTO updateCustomer(UpdateCustomerRequestDTO updateCustomerRequestDTO, UUID customerId, String ifMatch);
 
+  /**
+   * Applies a JSON merge patch to the person, addresses and communications of the customer.
+   */
+  CustomerDTO patchCustomer(Object patch, UUID customerId, String ifMatch);
+
+  /**
+   * The sub-resource replacements only write the rows of the replaced children and increment the version of the
+   * customer, they return the new version together with the replaced children.
+   */
+  VersionModel<List<AddressDataDTO>> replaceAddresses(List<AddressDataDTO> addresses, UUID customerId, String ifMatch);
+
+  VersionModel<List<CommunicationDataDTO>> replaceCommunications(List<CommunicationDataDTO> communications, UUID customerId,
+      String ifMatch);
+
+  VersionModel<List<PhoneDataDTO>> replacePhones(List<PhoneDataDTO> phones, UUID customerId, String email, String ifMatch);
+
   void deleteCustomer(UUID customerId);
 
-  ListCustomersResponseDTO getAllCustomers(PageRequest pageRequest);
+  VersionModel<ListCustomersResponseDTO> getAllCustomers(PageRequest pageRequest, boolean includeTotal,
+      CustomerFields fields, String ifNoneMatch);
+
+  VersionModel<ListCustomersResponseDTO> getAllCustomersByCursor(String cursor, int pageSize, CustomerFields fields,
+      String ifNoneMatch);
 
   List<CustomerDTO> createCustomers(BulkCreationRequestDTO bulkCreationRequestDTO);
 
+  /**
+   * Creates the customers under the given ids, the customers whose ids exist already are skipped. A retried chunk of a
+   * bulk job therefore does not create the customers twice which some shards committed before the chunk failed.
+   *
+   * @return the given ids
+   */
+  List<UUID> createCustomers(BulkCreationRequestDTO bulkCreationRequestDTO, List<UUID> customerIds);
+
+  /**
+   * Creates the customers of the given JSON lines, in chunks which are committed on their own. Every line gets a result,
+   * handed to the consumer once its chunk is committed.
+   */
+  void importCustomers(Stream<String> lines, Consumer<CustomerImportResultDTO> resultConsumer);
+
   void deleteCustomers(List<UUID> customersIds);
 
   List<CustomerDTO> updateCustomers(BulkUpdateRequestDTO bulkUpdateRequestDTO);
 
-  VersionModel<CustomerDTO> getSingleCustomer(UUID customerId, String name, String firstName);
+  VersionModel<CustomerDTO> getSingleCustomer(UUID customerId, String name, String firstName, CustomerFields fields);
+
+  CustomerVersion getSingleCustomerVersion(UUID customerId, String name, String firstName);
 }
@@ -0,0 +1,137 @@
+package com.customers.service.impl;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.BulkJob;
+import com.customers.db.model.BulkJobOperationEnum;
+import com.customers.db.model.BulkJobResult;
+import com.customers.db.model.BulkJobStatusEnum;
+import com.customers.db.repository.BulkJobRepository;
+import com.customers.db.repository.BulkJobResultRepository;
+import com.customers.exception.NotFoundException;
+import com.customers.exception.ServiceUnavailableException;
+import com.customers.exception.general.ApplicationError;
+import com.customers.exception.general.ErrorCode;
+import com.customers.infrastructure.job.BulkJobWorker;
+import com.customers.mapper.BulkJobMapper;
+import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.BulkJobDTO;
+import com.customers.model.BulkJobResultsDTO;
+import com.customers.model.BulkUpdateRequestDTO;
+import com.customers.service.BulkJobService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+@Timed(value = "customers.jobs.service", description = "Latency of the bulk job service operations", histogram = true)
+public class BulkJobServiceImpl implements BulkJobService {
+
+  private final BulkJobRepository bulkJobRepository;
+  private final BulkJobResultRepository bulkJobResultRepository;
+  private final BulkJobMapper bulkJobMapper;
+  private final BulkJobWorker bulkJobWorker;
+  private final CustomersProperties customersProperties;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  @Transactional
+  public BulkJobDTO submitCreation(BulkCreationRequestDTO bulkCreationRequestDTO) {
+    return submit(BulkJobOperationEnum.CREATE, bulkCreationRequestDTO, bulkCreationRequestDTO.getCustomers().size());
+  }
+
+  @Override
+  @Transactional
+  public BulkJobDTO submitUpdate(BulkUpdateRequestDTO bulkUpdateRequestDTO) {
+    return submit(BulkJobOperationEnum.UPDATE, bulkUpdateRequestDTO, bulkUpdateRequestDTO.getCustomers().size());
+  }
+
+  @Override
+  @Transactional
+  public BulkJobDTO submitDeletion(List<UUID> customersIds) {
+    return submit(BulkJobOperationEnum.DELETE, customersIds, customersIds.size());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public BulkJobDTO getJob(UUID jobId) {
+    return bulkJobMapper.fromEntity(bulkJobRepository.findById(jobId).orElseThrow(() -> bulkJobNotFound(jobId)));
+  }
+
+  /**
+   * The processed customers of the job are the total of the results, the page is read as a range of items.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public BulkJobResultsDTO getJobResults(UUID jobId, Pageable pageable) {
+    final BulkJob job = bulkJobRepository.findById(jobId).orElseThrow(() -> bulkJobNotFound(jobId));
+    final int fromItem = (int) Math.min(pageable.getOffset(), job.getProcessedItems());
+    final int toItem = Math.min(fromItem + pageable.getPageSize(), job.getProcessedItems());
+    final List<BulkJobResult> results = bulkJobResultRepository.findItemRange(jobId, fromItem, toItem);
+    return bulkJobMapper.fromPage(new PageImpl<>(results, pageable, job.getProcessedItems()));
+  }
+
+  /**
+   * A job which has already ended is left as it is.
+   */
+  @Override
+  @Transactional
+  public BulkJobDTO cancelJob(UUID jobId) {
+    bulkJobRepository.requestCancellation(jobId, BulkJobStatusEnum.UNFINISHED, OffsetDateTime.now());
+    return getJob(jobId);
+  }
+
+  private BulkJobDTO submit(BulkJobOperationEnum operation, Object request, int totalItems) {
+    if (!bulkJobWorker.isAcceptingJobs()) {
+      throw new ServiceUnavailableException(new ApplicationError()
+          .setParameters(List.of(customersProperties.getJobs().getQueueCapacity()))
+          .setCodeAndMessage(ErrorCode.BULK_JOB_QUEUE_FULL));
+    }
+    final OffsetDateTime now = OffsetDateTime.now();
+    final BulkJob job = bulkJobRepository.save(BulkJob.builder()
+        .operation(operation)
+        .status(BulkJobStatusEnum.QUEUED)
+        .request(writeRequest(request))
+        .totalItems(totalItems)
+        .created(now)
+        .lastModified(now)
+        .build());
+    final UUID jobId = job.getJobId();
+    // the worker reads the job in its own transaction, it must not start before the job is committed
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+      @Override
+      public void afterCommit() {
+        bulkJobWorker.submit(jobId);
+      }
+    });
+    return bulkJobMapper.fromEntity(job);
+  }
+
+  private String writeRequest(Object request) {
+    try {
+      return objectMapper.writeValueAsString(request);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("The bulk request can not be written as JSON", e);
+    }
+  }
+
+  private NotFoundException bulkJobNotFound(UUID jobId) {
+    return new NotFoundException(new ApplicationError()
+        .setParameters(List.of(jobId))
+        .setCodeAndMessage(ErrorCode.BULK_JOB_NOT_FOUND));
+  }
+}
@@ -1,210 +1,1132 @@
 package com.customers.service.impl;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.Address;
 import com.customers.db.model.CommunicationEntity;
+import com.customers.db.model.ContactOwner;
+import com.customers.db.model.ContactTypeEnum;
 import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.model.CustomerVersion;
+import com.customers.db.model.EncodedCustomer;
+import com.customers.db.model.PhoneEntity;
+import com.customers.db.model.SearchFieldEnum;
 import com.customers.db.model.VersionModel;
+import com.customers.db.repository.AddressRepository;
 import com.customers.db.repository.CommunicationRepository;
 import com.customers.db.repository.CustomerRepository;
 import com.customers.db.repository.CustomerSpecificationHelper;
 import com.customers.db.repository.PhoneRepository;
+import com.customers.domain.CustomerCursor;
+import com.customers.domain.CustomerFields;
 import com.customers.domain.CustomerFilter;
+import com.customers.domain.JsonMergePatch;
+import com.customers.etag.exception.ETagPreconditionFailedException;
 import com.customers.etag.utils.ETagUtils;
 import com.customers.exception.NotFoundException;
 import com.customers.exception.ValidationException;
 import com.customers.exception.general.ApplicationError;
+import com.customers.exception.general.ApplicationErrorException;
 import com.customers.exception.general.ErrorCode;
+import com.customers.infrastructure.cache.CustomerCache;
+import com.customers.infrastructure.cache.CustomerCountCache;
+import com.customers.infrastructure.persistence.routing.RecentWrites;
+import com.customers.infrastructure.persistence.sharding.CustomerStore;
+import com.customers.infrastructure.search.CustomerSearchIndex;
 import com.customers.mapper.CustomerMapper;
+import com.customers.model.AddressDataDTO;
 import com.customers.model.BulkCreationRequestDTO;
 import com.customers.model.BulkUpdateRequestDTO;
 import com.customers.model.CommunicationDataDTO;
 import com.customers.model.CreateCustomerRequestDTO;
 import com.customers.model.CustomerDTO;
+import com.customers.model.CustomerImportResultDTO;
 import com.customers.model.ListCustomersResponseDTO;
+import com.customers.model.PersonDataDTO;
 import com.customers.model.PhoneDataDTO;
 import com.customers.model.UpdateCustomerRequestDTO;
 import com.customers.service.CustomerService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
 @Service
 @Log4j2
-@RequiredArgsConstructor
+@Timed(value = "customers.service", description = "Latency of the customer service operations", histogram = true)
 public class CustomerServiceImpl implements CustomerService {
 
+  /**
+   * Keeps the number of bind parameters of the IN queries below the limits of the usual databases.
+   */
+  private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+  private static final String PERSON = "person";
+  private static final String ADDRESSES = "addresses";
+  private static final String COMMUNICATIONS = "communications";
+  private static final Set<String> PATCHABLE_MEMBERS = Set.of(PERSON, ADDRESSES, COMMUNICATIONS);
+  private static final List<String> BULK_OPERATIONS = List.of("createCustomers", "deleteCustomers", "updateCustomers",
+      "importCustomers");
+
   private final CustomerRepository customerRepository;
+  private final AddressRepository addressRepository;
   private final CommunicationRepository communicationRepository;
   private final PhoneRepository phoneRepository;
   private final CustomerMapper customerMapper;
+  private final CustomersProperties customersProperties;
+  private final CustomerCache customerCache;
+  private final CustomerCountCache customerCountCache;
+  private final CustomerSearchIndex customerSearchIndex;
+  private final RecentWrites recentWrites;
+  private final CustomerStore customerStore;
+  private final Map<String, DistributionSummary> bulkSizes;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * The bulk size summaries are registered once, per bulk operation.
+   */
+  public CustomerServiceImpl(CustomerRepository customerRepository, AddressRepository addressRepository,
+      CommunicationRepository communicationRepository, PhoneRepository phoneRepository, CustomerMapper customerMapper,
+      CustomersProperties customersProperties, CustomerCache customerCache, CustomerCountCache customerCountCache,
+      CustomerSearchIndex customerSearchIndex, RecentWrites recentWrites, CustomerStore customerStore,
+      MeterRegistry meterRegistry, ObjectMapper objectMapper, Validator validator,
+      TransactionTemplate transactionTemplate) {
+    this.customerRepository = customerRepository;
+    this.addressRepository = addressRepository;
+    this.communicationRepository = communicationRepository;
+    this.phoneRepository = phoneRepository;
+    this.customerMapper = customerMapper;
+    this.customersProperties = customersProperties;
+    this.customerCache = customerCache;
+    this.customerCountCache = customerCountCache;
+    this.customerSearchIndex = customerSearchIndex;
+    this.recentWrites = recentWrites;
+    this.customerStore = customerStore;
+    this.bulkSizes = BULK_OPERATIONS.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+        operation -> DistributionSummary.builder("customers.bulk.size")
+            .description("Number of customers per bulk request")
+            .baseUnit("customers")
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(meterRegistry)));
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  /**
+   * Not transactional, a cache hit must not take a connection. The entity graph loads everything the mapper reads, it
+   * is only loaded when both collections are requested. Otherwise only the requested rows are read and not cached.
+   * A customer written lately is read from the primary database, not from a replica.
+   */
+  @Override
+  public VersionModel<CustomerDTO> getCustomer(UUID customerId, CustomerFields fields) {
+    final Optional<VersionModel<CustomerDTO>> cachedCustomer = customerCache.get(customerId);
+    if (cachedCustomer.isPresent()) {
+      return select(cachedCustomer.get(), fields);
+    }
+    return customerStore.read(customerId, () -> recentWrites.read(customerId, () -> fields.includesCollections()
+        ? select(cache(getCustomerById(customerId)), fields)
+        : readCustomer(CustomerSpecificationHelper.byId(customerId), customerId, fields)));
+  }
+
+  @Override
+  public EncodedCustomer getEncodedCustomer(UUID customerId) {
+    final VersionModel<CustomerDTO> customer = getCustomer(customerId, CustomerFields.ALL);
+    return customerCache.getEncoded(customerId, customer.getVersion())
+        .orElseGet(() -> customerCache.putEncoded(customerId, encode(customer)));
+  }
+
+  @Override
+  public CustomerVersion getCustomerVersion(UUID customerId) {
+    return customerCache.get(customerId).map(CustomerVersion::of)
+        .orElseGet(() -> customerStore.read(customerId, () -> recentWrites.read(customerId,
+            () -> customerRepository.findVersionByCustomerId(customerId).orElseThrow(() -> customerNotFound(customerId)))));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public VersionModel<ListCustomersResponseDTO> getCustomers(String name, String firstName, List<UUID> customerIds,
+      String city, String email, String search, Pageable pageRequest, boolean includeTotal, CustomerFields fields,
+      String ifNoneMatch) {
+    final CustomerFilter filter = CustomerFilter.builder().name(name).firstName(firstName)
+        .city(city).search(search).email(email)
+        .customersIds(customerIds).build();
+
+    return recentWrites.readList(() -> toCustomersPage(
+        findRows(filter, CustomerSpecificationHelper.createFilter(filter), pageRequest, includeTotal), fields,
+        ifNoneMatch));
+  }
 
   @Override
-  public VersionModel<CustomerDTO> getCustomer(UUID customerId) {
-    Customer customer = getCustomerById(customerId);
+  @Transactional(readOnly = true)
+  public VersionModel<ListCustomersResponseDTO> getCustomersByCursor(String name, String firstName,
+      List<UUID> customerIds, String city, String email, String search, String cursor, int pageSize,
+      CustomerFields fields, String ifNoneMatch) {
+    final CustomerFilter filter = CustomerFilter.builder().name(name).firstName(firstName)
+        .city(city).search(search).email(email)
+        .customersIds(customerIds).build();
 
-    return customerMapper.entityToVersionModel(customer);
+    return recentWrites.readList(() -> findCustomersAfter(CustomerSpecificationHelper.createFilter(filter), cursor,
+        pageSize, fields, ifNoneMatch));
   }
 
+  /**
+   * The customers are streamed as rows, their addresses and communications are read for every chunk of fetched rows, so
+   * the memory is bounded by the fetch size and no row is repeated per collection element.
+   */
   @Override
-  public ListCustomersResponseDTO getCustomers(String name, String firstName, List<UUID> customerIds, String city,
-      String email, String search, Pageable pageRequest) {
+  @Transactional(readOnly = true)
+  public void exportCustomers(String name, String firstName, List<UUID> customerIds, String city, String email,
+      String search, Consumer<CustomerDTO> customerConsumer) {
     final CustomerFilter filter = CustomerFilter.builder().name(name).firstName(firstName)
         .city(city).search(search).email(email)
         .customersIds(customerIds).build();
+    final int fetchSize = customersProperties.getExport().getFetchSize();
 
-    Page<Customer> page = customerRepository.findAll(CustomerSpecificationHelper.createFilter(filter), pageRequest);
-    return customerMapper.pageToCustomersResponseDTO(page);
+    final List<CustomerRow> chunk = new ArrayList<>(fetchSize);
+    customerStore.streamRows(CustomerSpecificationHelper.createFilter(filter), fetchSize,
+        customers -> customers.forEach(customer -> {
+          chunk.add(customer);
+          if (chunk.size() == fetchSize) {
+            exportChunk(chunk, customerConsumer);
+          }
+        }));
+    exportChunk(chunk, customerConsumer);
   }
 
   @Override
+  @Transactional
   public CustomerDTO createCustomer(CreateCustomerRequestDTO createCustomerRequestDTO) {
-    Customer customer = customerMapper.fromCreateBodyToEntity(createCustomerRequestDTO);
+    final UUID customerId = UUID.randomUUID();
+    final Customer customer = newCustomer(createCustomerRequestDTO, customerId);
 
-    validateCustomerCreate(createCustomerRequestDTO);
+    return customerStore.write(customerId, () -> {
+      validateContactsUniqueness(newCustomersCommunications(List.of(new NewCustomer(customerId, createCustomerRequestDTO))));
 
-    customerMapper.provideCustomer(customer);
-    return customerMapper.fromEntity(customerRepository.save(customer));
+      final CustomerDTO createdCustomer = customerMapper.fromEntity(writeContacts(
+          () -> customerRepository.saveAndFlush(customer), createCustomerRequestDTO.getCommunications()));
+      customerSearchIndex.add(List.of(customer));
+      recentWrites.markAfterCommit(customer.getCustomerId());
+      customerCountCache.invalidateAfterCommit();
+      return createdCustomer;
+    });
   }
 
   @Override
+  @Transactional
   public CustomerDTO updateCustomer(UpdateCustomerRequestDTO updateCustomerRequestDTO, UUID customerId,
       String ifMatch) {
-    Customer customer = getCustomerById(customerId);
+    return customerStore.write(customerId, () -> {
+      if (updateCustomerRequestDTO.getPerson() != null && updateCustomerRequestDTO.getAddresses() == null
+          && updateCustomerRequestDTO.getCommunications() == null) {
+        return updatePerson(updateCustomerRequestDTO.getPerson(), customerId, ifMatch);
+      }
+      Customer customer = getCustomerById(customerId);
+
+      ETagUtils.checkETag(customer, ifMatch);
+      return updateCustomer(updateCustomerRequestDTO, customer, false);
+    });
+  }
+
+  /**
+   * Merges the patch into the editable members of the customer, then updates the members present in the patch only.
+   * Addresses and communications which the patch does not mention are not touched.
+   */
+  @Override
+  @Transactional
+  public CustomerDTO patchCustomer(Object patch, UUID customerId, String ifMatch) {
+    final JsonNode patchNode = objectMapper.valueToTree(patch);
+    if (patchNode == null || !patchNode.isObject()) {
+      throw invalidPatch(customerId, List.of("The patch is not a JSON object"));
+    }
+    final List<String> unknownMembers = new ArrayList<>();
+    patchNode.fieldNames().forEachRemaining(member -> {
+      if (!PATCHABLE_MEMBERS.contains(member)) {
+        unknownMembers.add(member);
+      }
+    });
+    if (!unknownMembers.isEmpty()) {
+      throw invalidPatch(customerId, unknownMembers);
+    }
+    return customerStore.write(customerId, () -> applyPatch(patchNode, customerId, ifMatch));
+  }
 
+  private CustomerDTO applyPatch(JsonNode patchNode, UUID customerId, String ifMatch) {
+    final Customer customer = getCustomerById(customerId);
     ETagUtils.checkETag(customer, ifMatch);
-    validateCustomerUpdate(updateCustomerRequestDTO.getCommunications(), customerId, customer);
+    final ObjectNode current = objectMapper.valueToTree(customerMapper.fromEntity(customer));
+    current.retain(PATCHABLE_MEMBERS);
+    final UpdateCustomerRequestDTO patched;
+    try {
+      patched = objectMapper.treeToValue(JsonMergePatch.apply(current, patchNode), UpdateCustomerRequestDTO.class);
+    } catch (JsonProcessingException e) {
+      throw invalidPatch(customerId, List.of(e.getOriginalMessage()));
+    }
+
+    final UpdateCustomerRequestDTO updateCustomerRequestDTO = new UpdateCustomerRequestDTO();
+    if (patchNode.has(PERSON)) {
+      final PersonDataDTO person = patched.getPerson();
+      if (person == null || person.getName() == null || person.getFirstName() == null) {
+        throw invalidPatch(customerId, List.of("The name and the first name of the person cannot be removed"));
+      }
+      updateCustomerRequestDTO.setPerson(person);
+    }
+    if (patchNode.has(ADDRESSES)) {
+      updateCustomerRequestDTO.setAddresses(Objects.requireNonNullElse(patched.getAddresses(), List.of()));
+    }
+    if (patchNode.has(COMMUNICATIONS)) {
+      updateCustomerRequestDTO.setCommunications(Objects.requireNonNullElse(patched.getCommunications(), List.of()));
+    }
+    return updateCustomer(updateCustomerRequestDTO, customer, true);
+  }
+
+  @Override
+  @Transactional
+  public VersionModel<List<AddressDataDTO>> replaceAddresses(List<AddressDataDTO> addresses, UUID customerId,
+      String ifMatch) {
+    return customerStore.write(customerId, () -> {
+      final long version = updateVersioned(customerId, ifMatch, null, null, null);
+      addressRepository.deleteAllOfCustomers(List.of(customerId));
+
+      final Customer customer = customerRepository.getReferenceById(customerId);
+      final List<Address> addressEntities = addresses.stream().map(customerMapper::fromAddressData).toList();
+      addressEntities.forEach(address -> address.setCustomer(customer));
+      addressRepository.saveAllAndFlush(addressEntities);
+      customerSearchIndex.replace(customerId, SearchFieldEnum.CITY, addresses.stream().map(AddressDataDTO::getCity).toList());
+      return new VersionModel<>(version, addresses);
+    });
+  }
+
+  @Override
+  @Transactional
+  public VersionModel<List<CommunicationDataDTO>> replaceCommunications(List<CommunicationDataDTO> communications,
+      UUID customerId, String ifMatch) {
+    return customerStore.write(customerId, () -> {
+      final long version = updateVersioned(customerId, ifMatch, null, null, null);
+      validateContactsUniqueness(Map.of(customerId, communications));
+      phoneRepository.deleteAllOfCustomers(List.of(customerId));
+      communicationRepository.deleteAllOfCustomers(List.of(customerId));
+
+      final Customer customer = customerRepository.getReferenceById(customerId);
+      final List<CommunicationEntity> communicationEntities = communications.stream()
+          .map(customerMapper::fromCommunicationData).toList();
+      communicationEntities.forEach(communication -> {
+        communication.setCustomer(customer);
+        communication.getPhones().forEach(phone -> phone.setCommunicationEntity(communication));
+      });
+      writeContacts(() -> communicationRepository.saveAllAndFlush(communicationEntities), communications);
+      customerSearchIndex.replace(customerId, SearchFieldEnum.EMAIL,
+          communications.stream().map(CommunicationDataDTO::getEmail).toList());
+      return new VersionModel<>(version, communications);
+    });
+  }
 
-    customer = customerMapper.updateEntityFromModel(updateCustomerRequestDTO, customer);
+  @Override
+  @Transactional
+  public VersionModel<List<PhoneDataDTO>> replacePhones(List<PhoneDataDTO> phones, UUID customerId, String email,
+      String ifMatch) {
+    return customerStore.write(customerId, () -> {
+      final long version = updateVersioned(customerId, ifMatch, null, null, null);
+      final CommunicationEntity communication = communicationRepository.findByCustomerCustomerIdAndEmail(customerId, email)
+          .orElseThrow(() -> new NotFoundException(new ApplicationError()
+              .setParameters(List.of(email))
+              .setCodeAndMessage(ErrorCode.COMMUNICATION_NOT_FOUND)));
+      final List<CommunicationDataDTO> communications = List.of(new CommunicationDataDTO().email(email).phones(phones));
+      validateContactsUniqueness(Map.of(customerId, communications));
+      phoneRepository.deleteAllOfCommunication(communication.getId());
 
-    return customerMapper.fromEntity(customerRepository.save(customer));
+      final List<PhoneEntity> phoneEntities = phones.stream().map(customerMapper::fromPhoneData).toList();
+      phoneEntities.forEach(phone -> phone.setCommunicationEntity(communication));
+      writeContacts(() -> phoneRepository.saveAllAndFlush(phoneEntities), communications);
+      return new VersionModel<>(version, phones);
+    });
   }
 
   @Override
+  @Transactional
   public void deleteCustomer(UUID customerId) {
-    Customer customer = getCustomerById(customerId);
-    customerRepository.delete(customer);
+    customerStore.write(customerId, () -> {
+      Customer customer = getCustomerById(customerId);
+      customerRepository.delete(customer);
+      customerSearchIndex.remove(List.of(customerId));
+      written(customerId);
+      return customer;
+    });
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public VersionModel<ListCustomersResponseDTO> getAllCustomers(PageRequest pageRequest, boolean includeTotal,
+      CustomerFields fields, String ifNoneMatch) {
+    return recentWrites.readList(() -> toCustomersPage(findRows(CustomerFilter.builder().build(), null, pageRequest,
+        includeTotal), fields, ifNoneMatch));
   }
 
   @Override
-  public ListCustomersResponseDTO getAllCustomers(PageRequest pageRequest) {
-    Page<Customer> page = customerRepository.findAll(pageRequest);
-    return customerMapper.pageToCustomersResponseDTO(page);
+  @Transactional(readOnly = true)
+  public VersionModel<ListCustomersResponseDTO> getAllCustomersByCursor(String cursor, int pageSize,
+      CustomerFields fields, String ifNoneMatch) {
+    return recentWrites.readList(() -> findCustomersAfter(null, cursor, pageSize, fields, ifNoneMatch));
   }
 
   @Override
+  @Transactional
   public List<CustomerDTO> createCustomers(BulkCreationRequestDTO bulkCreationRequestDTO) {
-    List<Customer> customerEntities = bulkCreationRequestDTO.getCustomers().stream()
-        .map(currentRequest -> {
-          validateCustomerCreate(currentRequest);
-          Customer customer = customerMapper.fromCreateBodyToEntity(currentRequest);
-          customerMapper.provideCustomer(customer);
-          return customer;
-        }).toList();
-    return customerMapper.fromEntity(customerRepository.saveAll(customerEntities));
+    final List<CreateCustomerRequestDTO> createCustomerRequests = bulkCreationRequestDTO.getCustomers();
+    recordBulkSize("createCustomers", createCustomerRequests.size());
+    return createNewCustomers(createCustomerRequests.stream()
+        .map(createCustomerRequest -> new NewCustomer(UUID.randomUUID(), createCustomerRequest))
+        .toList());
+  }
+
+  @Override
+  @Transactional
+  public List<UUID> createCustomers(BulkCreationRequestDTO bulkCreationRequestDTO, List<UUID> customerIds) {
+    final List<CreateCustomerRequestDTO> createCustomerRequests = bulkCreationRequestDTO.getCustomers();
+    recordBulkSize("createCustomers", createCustomerRequests.size());
+    final Set<UUID> existingCustomerIds = new HashSet<>(findExistingCustomerIds(customerIds));
+    createNewCustomers(IntStream.range(0, customerIds.size())
+        .filter(index -> !existingCustomerIds.contains(customerIds.get(index)))
+        .mapToObj(index -> new NewCustomer(customerIds.get(index), createCustomerRequests.get(index)))
+        .toList());
+    return customerIds;
+  }
+
+  private List<CustomerDTO> createNewCustomers(List<NewCustomer> newCustomers) {
+    return customerStore.writeEach(newCustomers, NewCustomer::customerId, this::writeNewCustomers);
+  }
+
+  /**
+   * Creates the customers written together, their contacts are validated before any of them is written.
+   */
+  private List<CustomerDTO> writeNewCustomers(List<NewCustomer> newCustomers) {
+    validateContactsUniqueness(newCustomersCommunications(newCustomers));
+
+    // every chunk is written with batched inserts and detached afterwards, so the heap use does not grow with the request
+    final int chunkSize = customersProperties.getBulk().getChunkSize();
+    final List<CustomerDTO> createdCustomers = new ArrayList<>(newCustomers.size());
+    for (int from = 0; from < newCustomers.size(); from += chunkSize) {
+      final List<NewCustomer> chunk = newCustomers.subList(from, Math.min(from + chunkSize, newCustomers.size()));
+      final List<Customer> customerEntities = writeContacts(() -> customerRepository.saveAllAndFlush(chunk.stream()
+              .map(newCustomer -> newCustomer(newCustomer.request(), newCustomer.customerId()))
+              .toList()),
+          chunk.stream().map(newCustomer -> newCustomer.request().getCommunications()).filter(Objects::nonNull)
+              .flatMap(List::stream).toList());
+      customerSearchIndex.add(customerEntities);
+      recentWrites.markAfterCommit(customerEntities.stream().map(Customer::getCustomerId).toList());
+      customerCountCache.invalidateAfterCommit();
+      createdCustomers.addAll(customerMapper.fromEntity(customerEntities));
+      customerRepository.detachAll();
+    }
+    return createdCustomers;
+  }
+
+  /**
+   * Not transactional, every chunk of lines is written in a transaction of its own. A rejected line does not stop the
+   * import, its result carries the error instead of the customer id.
+   */
+  @Override
+  public void importCustomers(Stream<String> lines, Consumer<CustomerImportResultDTO> resultConsumer) {
+    final int chunkSize = customersProperties.getBulk().getChunkSize();
+    final List<ImportLine> chunk = new ArrayList<>(chunkSize);
+    final Iterator<String> lineIterator = lines.iterator();
+    int lineNumber = 0;
+    while (lineIterator.hasNext()) {
+      final String line = lineIterator.next();
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      chunk.add(readImportLine(line, lineNumber));
+      if (chunk.size() == chunkSize) {
+        importChunk(chunk, resultConsumer);
+      }
+    }
+    importChunk(chunk, resultConsumer);
+    recordBulkSize("importCustomers", lineNumber);
   }
 
   @Override
+  @Transactional
   public void deleteCustomers(List<UUID> customersIds) {
+    recordBulkSize("deleteCustomers", customersIds.size());
     checkForCustomersExistence(customersIds);
-    List<Customer> customers = customerRepository.findAllByCustomerIdIn(customersIds);
-    customers.forEach(customerRepository::delete);
+    customerStore.writeEach(customersIds.stream().distinct().toList(), customerId -> customerId, shardCustomerIds -> {
+      // set based deletes, the children first, instead of loading and cascading every customer graph
+      forEachChunk(shardCustomerIds, customerIdsChunk -> {
+        phoneRepository.deleteAllOfCustomers(customerIdsChunk);
+        communicationRepository.deleteAllOfCustomers(customerIdsChunk);
+        addressRepository.deleteAllOfCustomers(customerIdsChunk);
+        customerRepository.deleteAllByIdInBatch(customerIdsChunk);
+        customerSearchIndex.remove(customerIdsChunk);
+      });
+      written(shardCustomerIds);
+      return shardCustomerIds;
+    });
   }
 
   @Override
+  @Transactional
   public List<CustomerDTO> updateCustomers(BulkUpdateRequestDTO bulkUpdateRequestDTO) {
-    checkForCustomersExistence(bulkUpdateRequestDTO.getCustomers().stream().map(CustomerDTO::getCustomerId).toList());
-    final List<Customer> customerEntities = bulkUpdateRequestDTO.getCustomers().stream().map(customerRequest -> {
-      final UUID customerId = customerRequest.getCustomerId();
-      Customer customer = getCustomerById(customerId);
-      validateCustomerUpdate(customerRequest.getCommunications(), customerId, customer);
-      return customerMapper.updateEntityFromModel(customerRequest, customer);
-    }).toList();
-    return customerMapper.fromEntity(customerRepository.saveAll(customerEntities));
+    final List<CustomerDTO> customerRequests = bulkUpdateRequestDTO.getCustomers();
+    recordBulkSize("updateCustomers", customerRequests.size());
+    return customerStore.writeEach(customerRequests, CustomerDTO::getCustomerId, this::updateCustomers);
   }
 
   @Override
-  public VersionModel<CustomerDTO> getSingleCustomer(UUID customerId, String name, String firstName) {
-    Customer customer = customerRepository.findOneByCustomerIdAndNameAndFirstName(customerId, name, firstName).orElseThrow(
-        () -> new NotFoundException(new ApplicationError()
-            .setParameters(List.of(customerId))
-            .setCodeAndMessage(ErrorCode.CUSTOMER_NOT_FOUND)));
+  public VersionModel<CustomerDTO> getSingleCustomer(UUID customerId, String name, String firstName,
+      CustomerFields fields) {
+    final Optional<VersionModel<CustomerDTO>> cachedCustomer = getCachedCustomer(customerId, name, firstName);
+    if (cachedCustomer.isPresent()) {
+      return select(cachedCustomer.get(), fields);
+    }
 
-    return customerMapper.entityToVersionModel(customer);
+    return customerStore.read(customerId, () -> recentWrites.read(customerId, () -> {
+      if (!fields.includesCollections()) {
+        return readCustomer(CustomerSpecificationHelper.byIdAndName(customerId, name, firstName), customerId, fields);
+      }
+      Customer customer = customerRepository.findOneByCustomerIdAndNameAndFirstName(customerId, name, firstName).orElseThrow(
+          () -> customerNotFound(customerId));
+      return select(cache(customer), fields);
+    }));
   }
 
-  private void checkForCustomersExistence(List<UUID> customersIds) {
-    Optional<UUID> noneExistingCustomer = customersIds.stream().filter(customerId -> !customerRepository.existsById(customerId))
-        .findFirst();
-    if (noneExistingCustomer.isPresent()) {
-      throw new ValidationException(new ApplicationError()
-          .setParameters(List.of(noneExistingCustomer.get()))
-          .setCodeAndMessage(ErrorCode.CUSTOMER_NOT_FOUND));
+  @Override
+  public CustomerVersion getSingleCustomerVersion(UUID customerId, String name, String firstName) {
+    return getCachedCustomer(customerId, name, firstName).map(CustomerVersion::of)
+        .orElseGet(() -> customerStore.read(customerId, () -> recentWrites.read(customerId,
+            () -> customerRepository.findVersionByCustomerIdAndNameAndFirstName(customerId, name, firstName)
+                .orElseThrow(() -> customerNotFound(customerId)))));
+  }
+
+  /**
+   * Updates the customers written together, their graphs are loaded with one query per chunk of ids.
+   */
+  private List<CustomerDTO> updateCustomers(List<CustomerDTO> customerRequests) {
+    final Map<UUID, Customer> customersById = getCustomersByIds(customerRequests.stream().map(CustomerDTO::getCustomerId).toList());
+    validateContactsUniqueness(customerRequests.stream()
+        .filter(customerRequest -> customerRequest.getCommunications() != null)
+        .collect(Collectors.toMap(CustomerDTO::getCustomerId, CustomerDTO::getCommunications,
+            (first, second) -> Stream.concat(first.stream(), second.stream()).toList())));
+    removeReplacedChildren(
+        customerRequests.stream().filter(customerRequest -> customerRequest.getAddresses() != null)
+            .map(customerRequest -> customersById.get(customerRequest.getCustomerId())).toList(),
+        customerRequests.stream().filter(customerRequest -> customerRequest.getCommunications() != null)
+            .map(customerRequest -> customersById.get(customerRequest.getCustomerId())).toList());
+    final List<Customer> customerEntities = customerRequests.stream()
+        .map(customerRequest -> customerMapper.updateEntityFromModel(customerRequest, customersById.get(customerRequest.getCustomerId())))
+        .toList();
+    final List<Customer> updatedCustomers = writeContacts(() -> customerRepository.saveAllAndFlush(customerEntities),
+        customerRequests.stream().map(CustomerDTO::getCommunications).filter(Objects::nonNull).flatMap(List::stream).toList());
+    customerSearchIndex.update(updatedCustomers);
+    written(customersById.keySet());
+    return customerMapper.fromEntity(updatedCustomers);
+  }
+
+  private Optional<VersionModel<CustomerDTO>> getCachedCustomer(UUID customerId, String name, String firstName) {
+    return customerCache.get(customerId)
+        .filter(customer -> Objects.equals(customer.getBody().getPerson().getName(), name)
+            && Objects.equals(customer.getBody().getPerson().getFirstName(), firstName));
+  }
+
+  /**
+   * Updates only the person data with the versioned statement, the customer entity is never loaded. The response is
+   * assembled from the rows of the updated customer.
+   */
+  private CustomerDTO updatePerson(PersonDataDTO person, UUID customerId, String ifMatch) {
+    updateVersioned(customerId, ifMatch, person.getName(), person.getFirstName(), person.getDateOfBirth());
+    customerSearchIndex.updatePerson(customerId, person.getName(), person.getFirstName());
+    return toCustomers(customerRepository.findRows(CustomerSpecificationHelper.byId(customerId), Sort.unsorted(), 1),
+        CustomerFields.ALL).get(0);
+  }
+
+  /**
+   * Changes the given person data and increments the version with a single statement which checks the If-Match version
+   * in the database, without person data only the version is incremented. Without an updated row a missing customer is
+   * told apart from a stale version.
+   *
+   * @return the new version of the customer
+   */
+  private long updateVersioned(UUID customerId, String ifMatch, String name, String firstName, LocalDate dateOfBirth) {
+    final Long version = ETagUtils.parseVersion(ifMatch);
+    final int updatedCustomers = version == null ? 0
+        : customerRepository.updatePerson(customerId, version, name, firstName, dateOfBirth);
+    if (updatedCustomers == 0) {
+      final CustomerVersion customerVersion = customerRepository.findVersionByCustomerId(customerId)
+          .orElseThrow(() -> customerNotFound(customerId));
+      throw new ETagPreconditionFailedException(new ApplicationError().setDetails(List.of(
+          "ETag version does not match! createETagResponse=" + ifMatch + ", version=" + customerVersion.getVersion())));
     }
+    written(customerId);
+    return version + 1;
   }
 
-  private void validateCustomerUpdate(List<CommunicationDataDTO> communications, UUID customerId,
-      Customer customer) {
-    if (communications == null || communications.isEmpty()) {
-      return;
+  /**
+   * Applies an update to a loaded customer whose version is checked already, the addresses and communications are only
+   * replaced when they are given. A replaced person also clears the person data missing from it, otherwise missing
+   * data is kept.
+   */
+  private CustomerDTO updateCustomer(UpdateCustomerRequestDTO updateCustomerRequestDTO, Customer customer,
+      boolean replacePerson) {
+    if (updateCustomerRequestDTO.getCommunications() != null) {
+      validateContactsUniqueness(Map.of(customer.getCustomerId(), updateCustomerRequestDTO.getCommunications()));
+    }
+
+    removeReplacedChildren(updateCustomerRequestDTO.getAddresses() != null ? List.of(customer) : List.of(),
+        updateCustomerRequestDTO.getCommunications() != null ? List.of(customer) : List.of());
+    final Customer updatedCustomer = customerMapper.updateEntityFromModel(updateCustomerRequestDTO, customer);
+    if (replacePerson && updateCustomerRequestDTO.getPerson() != null) {
+      customerMapper.replacePerson(updateCustomerRequestDTO.getPerson(), updatedCustomer);
+    }
+    if (updateCustomerRequestDTO.getAddresses() != null || updateCustomerRequestDTO.getCommunications() != null) {
+      // the children are owned by their side of the relation, touching the customer gets its version incremented
+      updatedCustomer.setLastModified(OffsetDateTime.now());
+    }
+    writeContacts(() -> customerRepository.saveAndFlush(updatedCustomer), updateCustomerRequestDTO.getCommunications());
+    customerSearchIndex.update(List.of(updatedCustomer));
+    written(customer.getCustomerId());
+
+    return customerMapper.fromEntity(updatedCustomer);
+  }
+
+  /**
+   * The written customers are evicted from the cache once committed, and read from the primary database during the
+   * read-your-writes window. The cached counts are dropped as the write may change any of them.
+   */
+  private void written(UUID customerId) {
+    recentWrites.markAfterCommit(customerId);
+    customerCache.evictAfterCommit(customerId);
+    customerCountCache.invalidateAfterCommit();
+  }
+
+  private void written(Collection<UUID> customerIds) {
+    recentWrites.markAfterCommit(customerIds);
+    customerCache.evictAfterCommit(customerIds);
+    customerCountCache.invalidateAfterCommit();
+  }
+
+  /**
+   * The id of a new customer is assigned before it is written, it decides where the customer is stored.
+   */
+  private Customer newCustomer(CreateCustomerRequestDTO createCustomerRequest, UUID customerId) {
+    final Customer customer = customerMapper.fromCreateBodyToEntity(createCustomerRequest);
+    customer.setCustomerId(customerId);
+    customerMapper.provideCustomer(customer);
+    return customer;
+  }
+
+  private EncodedCustomer encode(VersionModel<CustomerDTO> customer) {
+    try {
+      return new EncodedCustomer(CustomerVersion.of(customer), objectMapper.writeValueAsBytes(customer.getBody()));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("The customer " + customer.getBody().getCustomerId() + " can not be written as JSON",
+          e);
+    }
+  }
+
+  private VersionModel<CustomerDTO> cache(Customer customer) {
+    final VersionModel<CustomerDTO> customerModel = customerMapper.entityToVersionModel(customer);
+    customerCache.put(customerModel);
+    return customerModel;
+  }
+
+  private VersionModel<ListCustomersResponseDTO> findCustomersAfter(Specification<Customer> filter, String cursor,
+      int pageSize, CustomerFields fields, String ifNoneMatch) {
+    final Specification<Customer> after = CustomerSpecificationHelper.after(CustomerCursor.decode(cursor));
+    final List<CustomerRow> customers = customerStore.findRows(filter == null ? after : filter.and(after),
+        CustomerCursor.KEYSET_SORT, pageSize + 1);
+    final long digest = digest(customers, fields, pageSize);
+    if (ETagUtils.isNotModified(digest, ifNoneMatch)) {
+      return new VersionModel<>(digest, null);
+    }
+    return new VersionModel<>(digest,
+        select(customerMapper.cursorPageToCustomersResponseDTO(toCustomers(customers, fields), pageSize), fields));
+  }
+
+  /**
+   * Reads a page with its total, taken from the counts cache, or only a slice when the total is not wanted.
+   */
+  private Slice<CustomerRow> findRows(CustomerFilter filter, Specification<Customer> specification, Pageable pageRequest,
+      boolean includeTotal) {
+    if (!includeTotal) {
+      return customerStore.findRowSlice(specification, pageRequest);
+    }
+    return customerStore.findRows(specification, pageRequest,
+        () -> customerCountCache.get(filter, () -> customerStore.countRows(specification)));
+  }
+
+  private VersionModel<ListCustomersResponseDTO> toCustomersPage(Slice<CustomerRow> page, CustomerFields fields,
+      String ifNoneMatch) {
+    // a slice has no total, whether it has a next slice stands in for it
+    final long total = page instanceof Page<CustomerRow> counted ? counted.getTotalElements() : page.hasNext() ? -1 : -2;
+    final long digest = digest(page.getContent(), fields, page.getNumber(), page.getSize(), total);
+    if (ETagUtils.isNotModified(digest, ifNoneMatch)) {
+      return new VersionModel<>(digest, null);
+    }
+    final List<CustomerDTO> customers = toCustomers(page.getContent(), fields);
+    return new VersionModel<>(digest, select(customerMapper.pageToCustomersResponseDTO(
+        page instanceof Page<CustomerRow> counted
+            ? new PageImpl<>(customers, counted.getPageable(), counted.getTotalElements())
+            : new SliceImpl<>(customers, page.getPageable(), page.hasNext())), fields));
+  }
+
+  /**
+   * Digest of a listed page, taken from the ids and versions of its customers, the requested members and the paging.
+   * Every write of a customer, its collections included, moves its version, so the digest changes with the page.
+   */
+  private static long digest(List<CustomerRow> customers, CustomerFields fields, long... paging) {
+    long digest = fields.hashCode();
+    for (long value : paging) {
+      digest = 31 * digest + value;
+    }
+    for (CustomerRow customer : customers) {
+      digest = 31 * digest + customer.getCustomerId().getMostSignificantBits();
+      digest = 31 * digest + customer.getCustomerId().getLeastSignificantBits();
+      digest = 31 * digest + Objects.hashCode(customer.getVersion());
+    }
+    return digest;
+  }
+
+  /**
+   * Reads the addresses and contacts of the listed customers as rows, two queries no matter how many customers are
+   * listed, and assembles the customers from them without any managed entity. The collections which are not requested
+   * are not queried and stay empty.
+   */
+  private List<CustomerDTO> toCustomers(List<CustomerRow> customers, CustomerFields fields) {
+    final List<UUID> customerIds = customers.stream().map(CustomerRow::getCustomerId).toList();
+    return customerMapper.fromRows(customers,
+        fields.includes(CustomerFields.ADDRESSES)
+            ? customerStore.findAddressRows(customerIds)
+            : List.of(),
+        fields.includes(CustomerFields.COMMUNICATIONS)
+            ? customerStore.findContactRows(customerIds)
+            : List.of());
+  }
+
+  private void exportChunk(List<CustomerRow> chunk, Consumer<CustomerDTO> customerConsumer) {
+    if (!chunk.isEmpty()) {
+      toCustomers(chunk, CustomerFields.ALL).forEach(customerConsumer);
+      chunk.clear();
+    }
+  }
+
+  /**
+   * Reads the customer row and the requested collection in one read-only transaction, without the entity graph. The
+   * partial customer is not cached.
+   */
+  private VersionModel<CustomerDTO> readCustomer(Specification<Customer> specification, UUID customerId,
+      CustomerFields fields) {
+    final TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    readOnlyTransaction.setReadOnly(true);
+    final VersionModel<CustomerDTO> customer = readOnlyTransaction.execute(status -> {
+      final List<CustomerRow> customers = customerRepository.findRows(specification, Sort.unsorted(), 1);
+      return customers.isEmpty() ? null
+          : new VersionModel<>(customers.get(0).getVersion(), toCustomers(customers, fields).get(0));
+    });
+    if (customer == null) {
+      throw customerNotFound(customerId);
+    }
+    return select(customer, fields);
+  }
+
+  /**
+   * The cursor of the next page is taken from the whole customers, so they are narrowed down to the requested members
+   * only once the page is complete.
+   */
+  private ListCustomersResponseDTO select(ListCustomersResponseDTO customers, CustomerFields fields) {
+    if (!fields.isAll()) {
+      customers.setResults(customers.getResults().stream().map(fields::apply).toList());
     }
-    final Optional<String> duplicatedEmailOptional = communications.stream().map(CommunicationDataDTO::getEmail)
-        .filter(
-            email -> communicationRepository
-                .existsByEmailAndCustomerCustomerIdNot(email, customerId)).findFirst();
-    if (duplicatedEmailOptional.isPresent()) {
-      throw new ValidationException(new ApplicationError()
-          .setParameters(List.of(duplicatedEmailOptional.get()))
-          .setCodeAndMessage(ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS));
-    }
-    List<UUID> communicationsIds = customer.getCommunications().stream().map(CommunicationEntity::getId).toList();
-    final List<String> phones = communications.stream()
-        .map(CommunicationDataDTO::getPhones).flatMap(List::stream).map(PhoneDataDTO::getPhoneNumber).toList();
-    final Optional<String> duplicatedPhoneOptional = phones.stream()
-        .filter(
-            phone -> phoneRepository
-                .existsByPhoneNumberAndCommunicationEntityIdNotIn(phone, communicationsIds)).findFirst();
-    if (duplicatedPhoneOptional.isPresent()) {
-      throw new ValidationException(new ApplicationError()
-          .setParameters(List.of(duplicatedPhoneOptional.get()))
-          .setCodeAndMessage(ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS));
-    }
-  }
-
-  private void validateCustomerCreate(CreateCustomerRequestDTO createCustomerRequestDTO) {
-    if (createCustomerRequestDTO.getCommunications() == null || createCustomerRequestDTO.getCommunications().isEmpty()) {
+    return customers;
+  }
+
+  private VersionModel<CustomerDTO> select(VersionModel<CustomerDTO> customer, CustomerFields fields) {
+    return fields.isAll() ? customer : new VersionModel<>(customer.getVersion(), fields.apply(customer.getBody()));
+  }
+
+  private ImportLine readImportLine(String line, int lineNumber) {
+    final ImportLine importLine = new ImportLine(new CustomerImportResultDTO().line(lineNumber));
+    try {
+      importLine.setRequest(readCustomerRequest(line, lineNumber));
+    } catch (ValidationException e) {
+      importLine.reject(e);
+    }
+    return importLine;
+  }
+
+  private CreateCustomerRequestDTO readCustomerRequest(String line, int lineNumber) {
+    final CreateCustomerRequestDTO createCustomerRequest;
+    try {
+      createCustomerRequest = objectMapper.readValue(line, CreateCustomerRequestDTO.class);
+    } catch (JsonProcessingException e) {
+      throw invalidCustomer(lineNumber, List.of(e.getOriginalMessage()));
+    }
+    if (createCustomerRequest == null) {
+      throw invalidCustomer(lineNumber, List.of());
+    }
+    final Set<ConstraintViolation<CreateCustomerRequestDTO>> violations = validator.validate(createCustomerRequest);
+    if (!violations.isEmpty()) {
+      throw invalidCustomer(lineNumber, violations.stream()
+          .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+          .toList());
+    }
+    return createCustomerRequest;
+  }
+
+  /**
+   * Writes the accepted lines of the chunk with batched inserts and commits them, then hands out the results of all
+   * lines of the chunk, in their order.
+   */
+  private void importChunk(List<ImportLine> chunk, Consumer<CustomerImportResultDTO> resultConsumer) {
+    if (chunk.isEmpty()) {
       return;
     }
-    final Optional<String> duplicatedEmailOptional = createCustomerRequestDTO.getCommunications().stream().map(CommunicationDataDTO::getEmail)
-        .filter(communicationRepository::existsByEmail).findFirst();
-    if (duplicatedEmailOptional.isPresent()) {
-      throw new ValidationException(new ApplicationError()
-          .setParameters(List.of(duplicatedEmailOptional.get()))
-          .setCodeAndMessage(ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS));
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        rejectTakenContacts(chunk);
+        final List<ImportLine> acceptedLines = chunk.stream().filter(ImportLine::isAccepted).toList();
+        acceptedLines.forEach(importLine -> importLine.setCustomer(newCustomer(importLine.getRequest(), UUID.randomUUID())));
+        final List<Customer> customers = customerStore.writeEach(acceptedLines,
+            importLine -> importLine.getCustomer().getCustomerId(), this::writeImportLines);
+        for (int index = 0; index < customers.size(); index++) {
+          acceptedLines.get(index).getResult().setCustomerId(customers.get(index).getCustomerId());
+        }
+      });
+    } catch (ValidationException e) {
+      // a contact taken concurrently rolls back the whole chunk, none of its lines is written then
+      chunk.stream().filter(ImportLine::isAccepted).forEach(importLine -> importLine.reject(e));
+    }
+    chunk.forEach(importLine -> resultConsumer.accept(importLine.getResult()));
+    chunk.clear();
+  }
+
+  /**
+   * Writes the accepted lines stored together. They were checked against each other and the existing owners already,
+   * their contacts only need to be claimed.
+   */
+  private List<Customer> writeImportLines(List<ImportLine> importLines) {
+    claimContacts(contactOwners(importLines.stream()
+        .filter(importLine -> importLine.getRequest().getCommunications() != null)
+        .collect(Collectors.toMap(importLine -> importLine.getCustomer().getCustomerId(),
+            importLine -> importLine.getRequest().getCommunications()))));
+    final List<Customer> customers = writeContacts(
+        () -> customerRepository.saveAllAndFlush(importLines.stream().map(ImportLine::getCustomer).toList()),
+        importLines.stream()
+            .map(importLine -> importLine.getRequest().getCommunications())
+            .filter(Objects::nonNull).flatMap(List::stream).toList());
+    customerSearchIndex.add(customers);
+    recentWrites.markAfterCommit(customers.stream().map(Customer::getCustomerId).toList());
+    customerCountCache.invalidateAfterCommit();
+    customerRepository.detachAll();
+    return customers;
+  }
+
+  /**
+   * Rejects the lines claiming an email or phone number which is already taken, by an existing customer or by an earlier
+   * line. The existing owners of the whole chunk are looked up with one IN query per contact type.
+   */
+  private void rejectTakenContacts(List<ImportLine> chunk) {
+    final Map<ImportLine, List<String>> emailsByLine = new HashMap<>();
+    final Map<ImportLine, List<String>> phonesByLine = new HashMap<>();
+    chunk.stream().filter(ImportLine::isAccepted).forEach(importLine -> {
+      final List<CommunicationDataDTO> communications = Optional.ofNullable(importLine.getRequest().getCommunications())
+          .orElse(List.of());
+      emailsByLine.put(importLine, communications.stream().map(CommunicationDataDTO::getEmail).filter(Objects::nonNull).toList());
+      phonesByLine.put(importLine, communications.stream()
+          .filter(communication -> communication.getPhones() != null)
+          .flatMap(communication -> communication.getPhones().stream())
+          .map(PhoneDataDTO::getPhoneNumber)
+          .filter(Objects::nonNull)
+          .toList());
+    });
+
+    final Set<String> takenEmails = existingValues(emailsByLine, customerStore::findOwnersByEmailIn);
+    final Set<String> takenPhones = existingValues(phonesByLine, customerStore::findOwnersByPhoneNumberIn);
+    chunk.stream().filter(ImportLine::isAccepted).forEach(importLine -> {
+      try {
+        checkContactsAvailable(takenEmails, emailsByLine.get(importLine), ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS);
+        checkContactsAvailable(takenPhones, phonesByLine.get(importLine), ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS);
+        takenEmails.addAll(emailsByLine.get(importLine));
+        takenPhones.addAll(phonesByLine.get(importLine));
+      } catch (ValidationException e) {
+        importLine.reject(e);
+      }
+    });
+  }
+
+  private Set<String> existingValues(Map<ImportLine, List<String>> valuesByLine,
+      Function<Collection<String>, List<ContactOwner>> ownersLookup) {
+    final Set<String> existingValues = new HashSet<>();
+    forEachChunk(valuesByLine.values().stream().flatMap(List::stream).distinct().toList(),
+        values -> ownersLookup.apply(values).forEach(owner -> existingValues.add(owner.getValue())));
+    return existingValues;
+  }
+
+  private void checkContactsAvailable(Set<String> takenValues, List<String> values, ErrorCode errorCode) {
+    final Set<String> claimedValues = new HashSet<>();
+    values.stream()
+        .filter(value -> takenValues.contains(value) || !claimedValues.add(value))
+        .findFirst()
+        .ifPresent(value -> {
+          throw contactAlreadyExists(value, errorCode);
+        });
+  }
+
+  private ValidationException invalidPatch(UUID customerId, List<String> details) {
+    return new ValidationException(new ApplicationError()
+        .setParameters(List.of(customerId))
+        .setDetails(details)
+        .setCodeAndMessage(ErrorCode.INVALID_PATCH));
+  }
+
+  private ValidationException invalidCustomer(int lineNumber, List<String> details) {
+    return new ValidationException(new ApplicationError()
+        .setParameters(List.of(lineNumber))
+        .setDetails(details)
+        .setCodeAndMessage(ErrorCode.INVALID_CUSTOMER));
+  }
+
+  private void recordBulkSize(String operation, int size) {
+    bulkSizes.get(operation).record(size);
+  }
+
+  private void checkForCustomersExistence(List<UUID> customersIds) {
+    final Set<UUID> noneExistingCustomers = new LinkedHashSet<>(customersIds);
+    findExistingCustomerIds(List.copyOf(noneExistingCustomers)).forEach(noneExistingCustomers::remove);
+    if (!noneExistingCustomers.isEmpty()) {
+      throw customersNotFound(noneExistingCustomers);
+    }
+  }
+
+  private List<UUID> findExistingCustomerIds(List<UUID> customersIds) {
+    final List<UUID> existingCustomerIds = new ArrayList<>();
+    forEachChunk(customersIds, customerIdsChunk ->
+        existingCustomerIds.addAll(customerStore.findExistingCustomerIds(customerIdsChunk)));
+    return existingCustomerIds;
+  }
+
+  /**
+   * Loads the customers together with their graphs, with one query per chunk of ids, and indexes them by id.
+   */
+  private Map<UUID, Customer> getCustomersByIds(List<UUID> customersIds) {
+    final Map<UUID, Customer> customersById = new HashMap<>();
+    forEachChunk(customersIds.stream().distinct().toList(), customerIdsChunk -> customerRepository
+        .findAllDetailedByCustomerIdIn(customerIdsChunk)
+        .forEach(customer -> customersById.put(customer.getCustomerId(), customer)));
+    final Set<UUID> noneExistingCustomers = customersIds.stream().filter(customerId -> !customersById.containsKey(customerId))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (!noneExistingCustomers.isEmpty()) {
+      throw customersNotFound(noneExistingCustomers);
+    }
+    return customersById;
+  }
+
+  private ValidationException customersNotFound(Set<UUID> noneExistingCustomers) {
+    return new ValidationException(new ApplicationError()
+        .setParameters(List.of(noneExistingCustomers.iterator().next()))
+        .setDetails(noneExistingCustomers.stream().map(UUID::toString).toList())
+        .setCodeAndMessage(ErrorCode.CUSTOMER_NOT_FOUND));
+  }
+
+  /**
+   * Checks all emails and phone numbers claimed by the given customers at once. Duplicates inside the request are
+   * rejected right away, the existing owners are looked up with one IN query per contact type.
+   */
+  private void validateContactsUniqueness(Map<UUID, List<CommunicationDataDTO>> communicationsByCustomer) {
+    final ContactOwners contactOwners = contactOwners(communicationsByCustomer);
+    checkExistingOwners(contactOwners.emails(), customerStore::findOwnersByEmailIn, ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS);
+    checkExistingOwners(contactOwners.phones(), customerStore::findOwnersByPhoneNumberIn, ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS);
+    claimContacts(contactOwners);
+  }
+
+  /**
+   * The customer claiming each email and phone number, a contact claimed twice is rejected.
+   */
+  private ContactOwners contactOwners(Map<UUID, List<CommunicationDataDTO>> communicationsByCustomer) {
+    final ContactOwners contactOwners = new ContactOwners(new HashMap<>(), new HashMap<>());
+    communicationsByCustomer.forEach((customerId, communications) -> communications.forEach(communication -> {
+      claimContact(contactOwners.emails(), communication.getEmail(), customerId, ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS);
+      if (communication.getPhones() != null) {
+        communication.getPhones().stream().map(PhoneDataDTO::getPhoneNumber).forEach(phoneNumber ->
+            claimContact(contactOwners.phones(), phoneNumber, customerId, ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS));
+      }
+    }));
+    return contactOwners;
+  }
+
+  private void claimContacts(ContactOwners contactOwners) {
+    customerStore.claim(ContactTypeEnum.EMAIL, contactOwners.emails()).ifPresent(value -> {
+      throw contactAlreadyExists(value, ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS);
+    });
+    customerStore.claim(ContactTypeEnum.PHONE, contactOwners.phones()).ifPresent(value -> {
+      throw contactAlreadyExists(value, ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS);
+    });
+  }
+
+  private Map<UUID, List<CommunicationDataDTO>> newCustomersCommunications(List<NewCustomer> newCustomers) {
+    final Map<UUID, List<CommunicationDataDTO>> communicationsByCustomer = new HashMap<>();
+    newCustomers.stream()
+        .filter(newCustomer -> newCustomer.request().getCommunications() != null)
+        .forEach(newCustomer -> communicationsByCustomer.put(newCustomer.customerId(), newCustomer.request().getCommunications()));
+    return communicationsByCustomer;
+  }
+
+  /**
+   * Hibernate inserts new children before it deletes the orphans, so the children replaced by an update are deleted
+   * and flushed first, and the unique contacts can be taken over by the new ones. Each kind of child is flushed on its
+   * own, the phones before their communications, so its deletes go out in one batch.
+   */
+  private void removeReplacedChildren(Collection<Customer> newAddressesCustomers, Collection<Customer> newCommunicationsCustomers) {
+    newCommunicationsCustomers.forEach(customer -> customer.getCommunications().forEach(communication -> communication.getPhones().clear()));
+    customerRepository.flush();
+    newCommunicationsCustomers.forEach(customer -> customer.getCommunications().clear());
+    customerRepository.flush();
+    newAddressesCustomers.forEach(customer -> customer.getAddresses().clear());
+    customerRepository.flush();
+  }
+
+  /**
+   * The checks above give the precise error, a contact taken by a concurrent request between the check and the write
+   * is still rejected by the unique constraints of the database and reported as the same validation error.
+   */
+  private <T> T writeContacts(Supplier<T> write, List<CommunicationDataDTO> communications) {
+    try {
+      return write.get();
+    } catch (DataIntegrityViolationException e) {
+      final String constraintName = e.getCause() instanceof ConstraintViolationException violation
+          && violation.getConstraintName() != null ? violation.getConstraintName().toUpperCase(Locale.ROOT) : "";
+      final List<CommunicationDataDTO> claimedCommunications = Optional.ofNullable(communications).orElse(List.of());
+      if (constraintName.contains(CommunicationEntity.UK_COMMUNICATIONS_EMAIL)) {
+        throw contactAlreadyExists(claimedCommunications.stream()
+            .map(CommunicationDataDTO::getEmail)
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining(", ")), ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS);
+      }
+      if (constraintName.contains(PhoneEntity.UK_PHONES_PHONE_NUMBER)) {
+        throw contactAlreadyExists(claimedCommunications.stream()
+            .filter(communication -> communication.getPhones() != null)
+            .flatMap(communication -> communication.getPhones().stream())
+            .map(PhoneDataDTO::getPhoneNumber)
+            .filter(Objects::nonNull)
+            .collect(Collectors.joining(", ")), ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS);
+      }
+      throw e;
+    }
+  }
+
+  private void claimContact(Map<String, UUID> owners, String value, UUID customerId, ErrorCode errorCode) {
+    if (value != null && owners.put(value, customerId) != null) {
+      throw contactAlreadyExists(value, errorCode);
     }
+  }
+
+  private void checkExistingOwners(Map<String, UUID> claimedOwners, Function<Collection<String>, List<ContactOwner>> ownersLookup,
+      ErrorCode errorCode) {
+    forEachChunk(List.copyOf(claimedOwners.keySet()), values -> ownersLookup.apply(values).stream()
+        .filter(owner -> !owner.getCustomerId().equals(claimedOwners.get(owner.getValue())))
+        .findFirst()
+        .ifPresent(owner -> {
+          throw contactAlreadyExists(owner.getValue(), errorCode);
+        }));
+  }
 
-    final List<String> phones = createCustomerRequestDTO.getCommunications().stream()
-        .map(CommunicationDataDTO::getPhones).flatMap(List::stream).map(PhoneDataDTO::getPhoneNumber).toList();
-    final Optional<String> duplicatedPhoneOptional = phones.stream()
-        .filter(phoneRepository::existsByPhoneNumber).findFirst();
-    if (duplicatedPhoneOptional.isPresent()) {
-      throw new ValidationException(new ApplicationError()
-          .setParameters(List.of(duplicatedPhoneOptional.get()))
-          .setCodeAndMessage(ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS));
+  private static <T> void forEachChunk(List<T> values, Consumer<List<T>> chunkConsumer) {
+    for (int from = 0; from < values.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+      chunkConsumer.accept(values.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, values.size())));
     }
   }
 
+  private ValidationException contactAlreadyExists(String value, ErrorCode errorCode) {
+    return new ValidationException(new ApplicationError()
+        .setParameters(List.of(value))
+        .setCodeAndMessage(errorCode));
+  }
+
   private Customer getCustomerById(UUID customerId) {
-    return customerRepository.findById(customerId).orElseThrow(
-        () -> new NotFoundException(new ApplicationError()
-            .setParameters(List.of(customerId))
-            .setCodeAndMessage(ErrorCode.CUSTOMER_NOT_FOUND)));
+    return customerRepository.findDetailedByCustomerId(customerId).orElseThrow(() -> customerNotFound(customerId));
+  }
+
+  private NotFoundException customerNotFound(UUID customerId) {
+    return new NotFoundException(new ApplicationError()
+        .setParameters(List.of(customerId))
+        .setCodeAndMessage(ErrorCode.CUSTOMER_NOT_FOUND));
+  }
+
+  /**
+   * A line of an import, the request is only set while the line is not rejected, the customer once it is written.
+   */
+  @Getter
+  @Setter
+  @RequiredArgsConstructor
+  private static class ImportLine {
+
+    private final CustomerImportResultDTO result;
+    private CreateCustomerRequestDTO request;
+    private Customer customer;
+
+    boolean isAccepted() {
+      return request != null;
+    }
+
+    void reject(ApplicationErrorException e) {
+      final ApplicationError applicationError = e.getApplicationError();
+      request = null;
+      result.code(applicationError.getCode()).message(applicationError.getMessage()).details(applicationError.getDetails());
+    }
+  }
+
+  private record NewCustomer(UUID customerId, CreateCustomerRequestDTO request) {
+  }
+
+  private record ContactOwners(Map<String, UUID> emails, Map<String, UUID> phones) {
   }
 }
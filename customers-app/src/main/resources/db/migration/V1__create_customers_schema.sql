@@ -0,0 +1,44 @@
+-- the schema as it was generated by hibernate before the migrations were introduced, existing databases are baselined on
+-- this version
+
+create table customer (
+    customer_id uuid not null,
+    created timestamp(6),
+    created_by varchar(255),
+    last_modified timestamp(6),
+    last_modified_by varchar(255),
+    date_of_birth date,
+    first_name varchar(255) not null,
+    name varchar(255) not null,
+    version bigint,
+    primary key (customer_id)
+);
+
+create table address (
+    id uuid not null,
+    address_type varchar(255) not null,
+    city varchar(255) not null,
+    number varchar(255),
+    postal varchar(255) not null,
+    street varchar(255) not null,
+    customer_id uuid not null,
+    primary key (id),
+    constraint FK_ADDRESS_CUSTOMER foreign key (customer_id) references customer
+);
+
+create table customer_communications (
+    id uuid not null,
+    email varchar(255) not null,
+    customer_id uuid not null,
+    primary key (id),
+    constraint FK_COMMUNICATIONS_CUSTOMER foreign key (customer_id) references customer
+);
+
+create table communication_phones (
+    id uuid not null,
+    phone_number varchar(255) not null,
+    phone_type varchar(255) not null,
+    communication_id uuid not null,
+    primary key (id),
+    constraint FK_PHONES_COMMUNICATION foreign key (communication_id) references customer_communications
+);
@@ -0,0 +1,18 @@
+-- the values of the searchable fields and their trigrams, the search looks the trigrams of a term up in the index
+create table customer_search_values (
+    id uuid not null,
+    customer_id uuid not null,
+    field varchar(255) not null,
+    search_value varchar(255) not null,
+    primary key (id)
+);
+
+create table customer_search_trigrams (
+    value_id uuid not null,
+    trigram varchar(255) not null,
+    primary key (value_id, trigram),
+    constraint FK_SEARCH_TRIGRAMS_VALUE foreign key (value_id) references customer_search_values
+);
+
+create index IDX_SEARCH_VALUES_CUSTOMER_ID on customer_search_values (customer_id);
+create index IDX_SEARCH_TRIGRAMS_TRIGRAM on customer_search_trigrams (trigram, value_id);
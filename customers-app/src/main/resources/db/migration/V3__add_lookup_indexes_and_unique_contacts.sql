@@ -0,0 +1,12 @@
+-- the children are loaded and deleted by their customer or communication
+create index IDX_ADDRESS_CUSTOMER_ID on address (customer_id);
+create index IDX_COMMUNICATIONS_CUSTOMER_ID on customer_communications (customer_id);
+create index IDX_PHONES_COMMUNICATION_ID on communication_phones (communication_id);
+
+-- city filter and keyset pagination in (created, customer_id) order
+create index IDX_ADDRESS_CITY on address (city);
+create index IDX_CUSTOMER_CREATED on customer (created, customer_id);
+
+-- an email or phone number belongs to one customer only, the unique indexes also answer the owner lookups of the service
+alter table customer_communications add constraint UK_COMMUNICATIONS_EMAIL unique (email);
+alter table communication_phones add constraint UK_PHONES_PHONE_NUMBER unique (phone_number);
@@ -0,0 +1,32 @@
+-- bulk operations running in the background, a job keeps its request body until it has ended so it can be resumed
+-- after a restart, from the first chunk which was not committed
+create table bulk_jobs (
+    job_id uuid not null,
+    operation varchar(255) not null,
+    status varchar(255) not null,
+    request clob not null,
+    total_items integer not null,
+    processed_items integer not null,
+    failed_items integer not null,
+    cancel_requested boolean not null,
+    message varchar(1000),
+    created timestamp(6),
+    last_modified timestamp(6),
+    primary key (job_id)
+);
+
+-- the unfinished jobs are looked up at startup
+create index IDX_BULK_JOBS_STATUS on bulk_jobs (status);
+
+create table bulk_job_results (
+    id uuid not null,
+    job_id uuid not null,
+    item integer not null,
+    customer_id uuid,
+    code varchar(255),
+    message varchar(1000),
+    primary key (id),
+    constraint FK_BULK_JOB_RESULTS_JOB foreign key (job_id) references bulk_jobs
+);
+
+create index IDX_BULK_JOB_RESULTS_JOB_ID on bulk_job_results (job_id, item);
@@ -0,0 +1,13 @@
+-- with shards the emails and phone numbers are claimed here, on the first shard, before they are written to the shard of
+-- their customer, the unique constraints of the contact tables only see the contacts of their own shard
+create table contact_claims (
+    id uuid not null,
+    contact_type varchar(255) not null,
+    contact_value varchar(255) not null,
+    customer_id uuid not null,
+    primary key (id),
+    constraint UK_CONTACT_CLAIMS_VALUE unique (contact_type, contact_value)
+);
+
+-- the claims are released by their customer
+create index IDX_CONTACT_CLAIMS_CUSTOMER_ID on contact_claims (customer_id);
@@ -0,0 +1,6 @@
+-- the customer ids are matched exactly by the search, they are not part of the index anymore
+delete from customer_search_trigrams where value_id in (select id from customer_search_values where field = 'ID');
+delete from customer_search_values where field = 'ID';
+
+-- terms shorter than a trigram are matched as prefixes of the values
+create index IDX_SEARCH_VALUES_VALUE on customer_search_values (search_value, field);
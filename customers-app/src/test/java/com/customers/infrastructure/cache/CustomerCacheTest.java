@@ -0,0 +1,98 @@
+package com.customers.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.CustomerVersion;
+import com.customers.db.model.EncodedCustomer;
+import com.customers.db.model.VersionModel;
+import com.customers.model.CustomerDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CustomerCacheTest {
+
+  private static final UUID CUSTOMER_ID = UUID.randomUUID();
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final CustomerCache customerCache = new CustomerCache(new CustomersProperties(), meterRegistry);
+
+  @Test
+  void put_doesNotReplaceANewerVersion() {
+    VersionModel<CustomerDTO> newerCustomer = customer(2L);
+    customerCache.put(newerCustomer);
+    customerCache.put(customer(1L));
+
+    assertEquals(newerCustomer, customerCache.get(CUSTOMER_ID).orElseThrow());
+  }
+
+  @Test
+  void put_replacesAnOlderVersion() {
+    VersionModel<CustomerDTO> newerCustomer = customer(2L);
+    customerCache.put(customer(1L));
+    customerCache.put(newerCustomer);
+
+    assertEquals(newerCustomer, customerCache.get(CUSTOMER_ID).orElseThrow());
+  }
+
+  @Test
+  void evictAfterCommit_waitsForTheCommit() {
+    customerCache.put(customer(1L));
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      customerCache.evictAfterCommit(CUSTOMER_ID);
+      assertTrue(customerCache.get(CUSTOMER_ID).isPresent());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      assertTrue(customerCache.get(CUSTOMER_ID).isEmpty());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void getEncoded_onlyReturnsTheEncodedVersion() {
+    customerCache.putEncoded(CUSTOMER_ID, encodedCustomer(1L));
+
+    assertTrue(customerCache.getEncoded(CUSTOMER_ID, 1L).isPresent());
+    assertTrue(customerCache.getEncoded(CUSTOMER_ID, 2L).isEmpty());
+  }
+
+  @Test
+  void evictAfterCommit_evictsTheEncodedCustomer() {
+    customerCache.putEncoded(CUSTOMER_ID, encodedCustomer(1L));
+
+    customerCache.evictAfterCommit(CUSTOMER_ID);
+
+    assertTrue(customerCache.getEncoded(CUSTOMER_ID, 1L).isEmpty());
+  }
+
+  @Test
+  void statistics_arePublished() {
+    customerCache.put(customer(1L));
+    customerCache.get(CUSTOMER_ID);
+    customerCache.get(UUID.randomUUID());
+
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", CustomerCache.NAME).tag("result", "hit")
+        .functionCounter().count());
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", CustomerCache.NAME).tag("result", "miss")
+        .functionCounter().count());
+  }
+
+  private static EncodedCustomer encodedCustomer(Long version) {
+    return new EncodedCustomer(new CustomerVersion(version, null), new byte[] { '{', '}' });
+  }
+
+  private static VersionModel<CustomerDTO> customer(Long version) {
+    return new VersionModel<>(version, new CustomerDTO().customerId(CUSTOMER_ID));
+  }
+}
@@ -0,0 +1,64 @@
+package com.customers.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.customers.config.CustomersProperties;
+import com.customers.domain.CustomerFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CustomerCountCacheTest {
+
+  private final CustomerCountCache customerCountCache = new CustomerCountCache(new CustomersProperties(),
+      new SimpleMeterRegistry());
+
+  private final AtomicLong counted = new AtomicLong();
+
+  @Test
+  void get_countsEqualFiltersOnce() {
+    UUID firstId = UUID.randomUUID();
+    UUID secondId = UUID.randomUUID();
+
+    customerCountCache.get(CustomerFilter.builder().name(" Name ").search("city mail").city("")
+        .customersIds(List.of(firstId, secondId)).build(), counted::incrementAndGet);
+    long count = customerCountCache.get(CustomerFilter.builder().name("name").search("MAIL  city")
+        .customersIds(List.of(secondId, firstId, secondId)).build(), counted::incrementAndGet);
+
+    assertEquals(1, count);
+    assertEquals(1, counted.get());
+  }
+
+  @Test
+  void get_countsOtherFiltersAgain() {
+    customerCountCache.get(CustomerFilter.builder().city("CITY").build(), counted::incrementAndGet);
+    customerCountCache.get(CustomerFilter.builder().city("city").build(), counted::incrementAndGet);
+
+    assertEquals(2, counted.get());
+  }
+
+  @Test
+  void invalidateAfterCommit_waitsForTheCommit() {
+    CustomerFilter filter = CustomerFilter.builder().build();
+    customerCountCache.get(filter, counted::incrementAndGet);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      customerCountCache.invalidateAfterCommit();
+      customerCountCache.get(filter, counted::incrementAndGet);
+      assertEquals(1, counted.get());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      customerCountCache.get(filter, counted::incrementAndGet);
+      assertEquals(2, counted.get());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+}
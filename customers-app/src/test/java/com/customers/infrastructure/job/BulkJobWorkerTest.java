@@ -0,0 +1,292 @@
+package com.customers.infrastructure.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.BulkJob;
+import com.customers.db.model.BulkJobOperationEnum;
+import com.customers.db.model.BulkJobResult;
+import com.customers.db.model.BulkJobStatusEnum;
+import com.customers.db.repository.BulkJobRepository;
+import com.customers.db.repository.BulkJobResultRepository;
+import com.customers.exception.NotFoundException;
+import com.customers.exception.ValidationException;
+import com.customers.exception.general.ApplicationError;
+import com.customers.exception.general.ErrorCode;
+import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.CreateCustomerRequestDTO;
+import com.customers.service.CustomerService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkJobWorkerTest {
+
+  private static final UUID JOB_ID = UUID.randomUUID();
+  private static final UUID CUSTOMER_ID_1 = UUID.randomUUID();
+  private static final UUID CUSTOMER_ID_2 = UUID.randomUUID();
+  private static final UUID CUSTOMER_ID_3 = UUID.randomUUID();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Mock
+  private BulkJobRepository bulkJobRepository;
+
+  @Mock
+  private BulkJobResultRepository bulkJobResultRepository;
+
+  @Mock
+  private CustomerService customerService;
+
+  private BulkJobWorker bulkJobWorker;
+
+  @AfterEach
+  void shutdown() {
+    if (bulkJobWorker != null) {
+      bulkJobWorker.shutdown();
+    }
+  }
+
+  @Test
+  void run_processesTheItemsChunkByChunk() throws JsonProcessingException {
+    bulkJobWorker = worker(1, 1);
+    when(bulkJobRepository.findById(JOB_ID)).thenReturn(Optional.of(deletionJob(0)));
+
+    bulkJobWorker.run(JOB_ID);
+
+    InOrder inOrder = inOrder(customerService, bulkJobRepository, bulkJobResultRepository);
+    inOrder.verify(bulkJobRepository).updateStatus(eq(JOB_ID), eq(BulkJobStatusEnum.RUNNING), isNull(), any());
+    inOrder.verify(customerService).deleteCustomers(List.of(CUSTOMER_ID_1, CUSTOMER_ID_2));
+    inOrder.verify(bulkJobResultRepository).saveAll(List.of(result(0, CUSTOMER_ID_1), result(1, CUSTOMER_ID_2)));
+    inOrder.verify(bulkJobRepository).addProgress(eq(JOB_ID), eq(2), eq(0), any());
+    inOrder.verify(customerService).deleteCustomers(List.of(CUSTOMER_ID_3));
+    inOrder.verify(bulkJobResultRepository).saveAll(List.of(result(2, CUSTOMER_ID_3)));
+    inOrder.verify(bulkJobRepository).addProgress(eq(JOB_ID), eq(1), eq(0), any());
+    inOrder.verify(bulkJobRepository).updateStatus(eq(JOB_ID), eq(BulkJobStatusEnum.COMPLETED), isNull(), any());
+  }
+
+  @Test
+  void run_resumesAfterTheLastCommittedChunk() throws JsonProcessingException {
+    bulkJobWorker = worker(1, 1);
+    when(bulkJobRepository.findById(JOB_ID)).thenReturn(Optional.of(deletionJob(2)));
+
+    bulkJobWorker.run(JOB_ID);
+
+    verify(customerService).deleteCustomers(List.of(CUSTOMER_ID_3));
+    verify(customerService, never()).deleteCustomers(List.of(CUSTOMER_ID_1, CUSTOMER_ID_2));
+    verify(bulkJobResultRepository).saveAll(List.of(result(2, CUSTOMER_ID_3)));
+    verify(bulkJobRepository).updateStatus(eq(JOB_ID), eq(BulkJobStatusEnum.COMPLETED), isNull(), any());
+  }
+
+  @Test
+  void run_retriesARejectedChunkCustomerByCustomer() throws JsonProcessingException {
+    bulkJobWorker = worker(1, 1);
+    when(bulkJobRepository.findById(JOB_ID)).thenReturn(Optional.of(deletionJob(0).toBuilder()
+        .status(BulkJobStatusEnum.QUEUED).build()));
+    doAnswer(invocation -> {
+      if (invocation.<List<UUID>>getArgument(0).contains(CUSTOMER_ID_2)) {
+        throw notFound(CUSTOMER_ID_2);
+      }
+      return null;
+    }).when(customerService).deleteCustomers(anyList());
+
+    bulkJobWorker.run(JOB_ID);
+
+    verify(customerService).deleteCustomers(List.of(CUSTOMER_ID_1));
+    verify(bulkJobResultRepository).saveAll(List.of(result(0, CUSTOMER_ID_1)));
+    verify(bulkJobResultRepository).saveAll(argThat((List<BulkJobResult> results) -> results.size() == 1
+        && results.get(0).getItem() == 1
+        && CUSTOMER_ID_2.equals(results.get(0).getCustomerId())
+        && ErrorCode.CUSTOMER_NOT_FOUND.getErrorCode().equals(results.get(0).getCode())));
+    verify(bulkJobRepository).addProgress(eq(JOB_ID), eq(1), eq(1), any());
+    verify(bulkJobResultRepository).saveAll(List.of(result(2, CUSTOMER_ID_3)));
+    verify(bulkJobRepository).updateStatus(eq(JOB_ID), eq(BulkJobStatusEnum.COMPLETED), isNull(), any());
+  }
+
+  @Test
+  void run_retriesAChunkWhichFailedMidway_underTheSameCustomerIds() throws JsonProcessingException {
+    bulkJobWorker = worker(1, 1);
+    when(bulkJobRepository.findById(JOB_ID)).thenReturn(Optional.of(creationJob(BulkJobStatusEnum.QUEUED)),
+        Optional.of(creationJob(BulkJobStatusEnum.RUNNING)));
+    List<List<UUID>> createdCustomerIds = new ArrayList<>();
+    doAnswer(invocation -> {
+      List<UUID> customerIds = invocation.getArgument(1);
+      createdCustomerIds.add(customerIds);
+      // a later shard rejects the chunk after the first shard has committed its customers
+      if (customerIds.size() > 1) {
+        throw new ValidationException(new ApplicationError()
+            .setParameters(List.of(1))
+            .setCodeAndMessage(ErrorCode.INVALID_CUSTOMER));
+      }
+      return customerIds;
+    }).when(customerService).createCustomers(any(), anyList());
+
+    bulkJobWorker.run(JOB_ID);
+    bulkJobWorker.run(JOB_ID);
+
+    List<UUID> chunkCustomerIds = createdCustomerIds.get(0);
+    assertEquals(List.of(chunkCustomerIds, List.of(chunkCustomerIds.get(0)), List.of(chunkCustomerIds.get(1))),
+        createdCustomerIds.subList(0, 3));
+    // the resumed job creates the customers under the ids of the interrupted run
+    assertEquals(chunkCustomerIds, createdCustomerIds.get(4));
+    verify(bulkJobResultRepository, times(2)).saveAll(List.of(result(0, chunkCustomerIds.get(0))));
+    verify(bulkJobResultRepository, times(2)).saveAll(List.of(result(1, chunkCustomerIds.get(1))));
+  }
+
+  @Test
+  void run_countsTheCustomersGoneInAnInterruptedDeletionChunkAsDeleted() throws JsonProcessingException {
+    bulkJobWorker = worker(1, 1);
+    when(bulkJobRepository.findById(JOB_ID)).thenReturn(Optional.of(deletionJob(0)));
+    // the interrupted run has deleted the first customer on its shard, without committing the chunk
+    doAnswer(invocation -> {
+      if (invocation.<List<UUID>>getArgument(0).contains(CUSTOMER_ID_1)) {
+        throw notFound(CUSTOMER_ID_1);
+      }
+      return null;
+    }).when(customerService).deleteCustomers(anyList());
+
+    bulkJobWorker.run(JOB_ID);
+
+    verify(bulkJobResultRepository).saveAll(List.of(result(0, CUSTOMER_ID_1)));
+    verify(bulkJobResultRepository).saveAll(List.of(result(1, CUSTOMER_ID_2)));
+    verify(bulkJobRepository, never()).addProgress(eq(JOB_ID), eq(1), eq(1), any());
+    verify(bulkJobResultRepository).saveAll(List.of(result(2, CUSTOMER_ID_3)));
+    verify(bulkJobRepository).updateStatus(eq(JOB_ID), eq(BulkJobStatusEnum.COMPLETED), isNull(), any());
+  }
+
+  @Test
+  void run_stopsBeforeTheNextChunkWhenCancelled() throws JsonProcessingException {
+    bulkJobWorker = worker(1, 1);
+    when(bulkJobRepository.findById(JOB_ID)).thenReturn(Optional.of(deletionJob(0)));
+    when(bulkJobRepository.isCancelRequested(JOB_ID)).thenReturn(false, true);
+
+    bulkJobWorker.run(JOB_ID);
+
+    verify(customerService).deleteCustomers(List.of(CUSTOMER_ID_1, CUSTOMER_ID_2));
+    verify(customerService, never()).deleteCustomers(List.of(CUSTOMER_ID_3));
+    verify(bulkJobRepository).updateStatus(eq(JOB_ID), eq(BulkJobStatusEnum.CANCELLED), isNull(), any());
+  }
+
+  @Test
+  void run_skipsAJobWhichHasEnded() throws JsonProcessingException {
+    bulkJobWorker = worker(1, 1);
+    when(bulkJobRepository.findById(JOB_ID)).thenReturn(Optional.of(deletionJob(0).toBuilder()
+        .status(BulkJobStatusEnum.COMPLETED).build()));
+
+    bulkJobWorker.run(JOB_ID);
+
+    verify(customerService, never()).deleteCustomers(anyList());
+    verify(bulkJobRepository, never()).updateStatus(any(), any(), any(), any());
+  }
+
+  @Test
+  void resumeUnfinishedJobs_submitsTheQueuedAndRunningJobs_beyondTheCapacityOfTheQueue() {
+    bulkJobWorker = worker(1, 1);
+    List<UUID> jobIds = List.of(JOB_ID, UUID.randomUUID(), UUID.randomUUID());
+    when(bulkJobRepository.findJobIdsByStatusIn(BulkJobStatusEnum.UNFINISHED)).thenReturn(jobIds);
+
+    bulkJobWorker.resumeUnfinishedJobs();
+
+    jobIds.forEach(jobId -> verify(bulkJobRepository, timeout(1000)).findById(jobId));
+  }
+
+  @Test
+  void submit_whenTheQueueIsFull_leavesTheJobQueuedUntilARunningJobHasEnded() throws InterruptedException {
+    bulkJobWorker = worker(1, 1);
+    UUID queuedJobId = UUID.randomUUID();
+    UUID waitingJobId = UUID.randomUUID();
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(bulkJobRepository.findById(JOB_ID)).thenAnswer(invocation -> {
+      running.countDown();
+      release.await();
+      return Optional.empty();
+    });
+
+    bulkJobWorker.submit(JOB_ID);
+    running.await();
+    assertTrue(bulkJobWorker.isAcceptingJobs());
+    bulkJobWorker.submit(queuedJobId);
+    assertFalse(bulkJobWorker.isAcceptingJobs());
+    // the job misses the queue, it is only stored as QUEUED
+    bulkJobWorker.submit(waitingJobId);
+    verify(bulkJobRepository, never()).findById(waitingJobId);
+
+    release.countDown();
+
+    verify(bulkJobRepository, timeout(1000)).findById(queuedJobId);
+    verify(bulkJobRepository, timeout(1000)).findById(waitingJobId);
+  }
+
+  private BulkJobWorker worker(int workers, int queueCapacity) {
+    CustomersProperties customersProperties = new CustomersProperties();
+    customersProperties.getBulk().setChunkSize(2);
+    customersProperties.getJobs().setWorkers(workers);
+    customersProperties.getJobs().setQueueCapacity(queueCapacity);
+    return new BulkJobWorker(bulkJobRepository, bulkJobResultRepository, customerService, customersProperties,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), objectMapper);
+  }
+
+  private BulkJob deletionJob(int processedItems) throws JsonProcessingException {
+    return BulkJob.builder()
+        .jobId(JOB_ID)
+        .operation(BulkJobOperationEnum.DELETE)
+        .status(BulkJobStatusEnum.RUNNING)
+        .request(objectMapper.writeValueAsString(List.of(CUSTOMER_ID_1, CUSTOMER_ID_2, CUSTOMER_ID_3)))
+        .totalItems(3)
+        .processedItems(processedItems)
+        .build();
+  }
+
+  private BulkJob creationJob(BulkJobStatusEnum status) throws JsonProcessingException {
+    return BulkJob.builder()
+        .jobId(JOB_ID)
+        .operation(BulkJobOperationEnum.CREATE)
+        .status(status)
+        .request(objectMapper.writeValueAsString(new BulkCreationRequestDTO().customers(List.of(
+            new CreateCustomerRequestDTO(), new CreateCustomerRequestDTO(), new CreateCustomerRequestDTO()))))
+        .totalItems(3)
+        .processedItems(0)
+        .build();
+  }
+
+  private BulkJobResult result(int item, UUID customerId) {
+    return BulkJobResult.builder().jobId(JOB_ID).item(item).customerId(customerId).build();
+  }
+
+  private NotFoundException notFound(UUID customerId) {
+    return new NotFoundException(new ApplicationError()
+        .setParameters(List.of(customerId))
+        .setCodeAndMessage(ErrorCode.CUSTOMER_NOT_FOUND));
+  }
+}
@@ -0,0 +1,106 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.customers.config.CustomersProperties;
+
+public class CustomerShardsTest {
+
+  private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+  private final CustomerShards customerShards = new CustomerShards(shardedProperties(), transactionManager);
+
+  private final List<UUID> customerIds = IntStream.range(0, 20).mapToObj(index -> UUID.randomUUID()).toList();
+
+  @AfterEach
+  void tearDown() {
+    customerShards.destroy();
+  }
+
+  @Test
+  void writeEach_writesEveryShardPinned_andReturnsTheResultsInTheOrderOfTheItems() {
+    List<Integer> writtenShards = new ArrayList<>();
+
+    List<UUID> results = customerShards.writeEach(customerIds, customerId -> customerId, shardCustomerIds -> {
+      writtenShards.add(ShardRouting.currentShard());
+      shardCustomerIds.forEach(customerId -> assertEquals(customerShards.shardOf(customerId), ShardRouting.currentShard()));
+      return shardCustomerIds;
+    });
+
+    assertEquals(customerIds, results);
+    assertEquals(writtenShards.stream().distinct().sorted().toList(), writtenShards);
+    assertEquals(0, ShardRouting.currentShard());
+  }
+
+  @Test
+  void writeEach_whenTheLastShardFails_commitsNoShard() {
+    List<Integer> shards = customerIds.stream().map(customerShards::shardOf).distinct().sorted().toList();
+
+    assertThrows(IllegalStateException.class, () -> customerShards.writeEach(customerIds, customerId -> customerId,
+        shardCustomerIds -> {
+          if (ShardRouting.currentShard() == shards.get(shards.size() - 1)) {
+            throw new IllegalStateException();
+          }
+          return shardCustomerIds;
+        }));
+
+    verify(transactionManager, never()).commit(any());
+    verify(transactionManager, times(shards.size())).rollback(any());
+  }
+
+  @Test
+  void readEach_readsTheItemsOnTheirShards() {
+    List<UUID> results = customerShards.readEach(customerIds, customerId -> customerId, shardCustomerIds -> {
+      shardCustomerIds.forEach(customerId -> assertEquals(customerShards.shardOf(customerId), ShardRouting.currentShard()));
+      return shardCustomerIds;
+    });
+
+    assertEquals(customerIds.stream().sorted().toList(), results.stream().sorted().toList());
+  }
+
+  @Test
+  void readAll_returnsTheResultsInTheOrderOfTheShards() {
+    assertEquals(List.of(0, 1, 2), customerShards.readAll(shard -> ShardRouting.currentShard()));
+  }
+
+  @Test
+  void readAll_withinAReadOfEveryShard_doesNotWaitOnItself() {
+    List<List<Integer>> results = assertTimeoutPreemptively(Duration.ofSeconds(10),
+        () -> customerShards.readAll(shard -> customerShards.readAll(innerShard -> innerShard)));
+
+    assertEquals(List.of(List.of(0, 1, 2), List.of(0, 1, 2), List.of(0, 1, 2)), results);
+  }
+
+  @Test
+  void withoutShards_runsRightAwayOnTheFirstShard() {
+    CustomerShards unsharded = new CustomerShards(new CustomersProperties(), mock(PlatformTransactionManager.class));
+
+    assertEquals(List.of(0), unsharded.readAll(shard -> shard));
+    assertEquals(customerIds, unsharded.writeEach(customerIds, customerId -> customerId, shardCustomerIds -> shardCustomerIds));
+    assertEquals(0, unsharded.shardOf(customerIds.get(0)));
+  }
+
+  private static CustomersProperties shardedProperties() {
+    CustomersProperties customersProperties = new CustomersProperties();
+    customersProperties.getDatasource().getShards().add(new CustomersProperties.Database());
+    customersProperties.getDatasource().getShards().add(new CustomersProperties.Database());
+    return customersProperties;
+  }
+}
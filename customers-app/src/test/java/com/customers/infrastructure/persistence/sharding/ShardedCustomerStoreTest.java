@@ -0,0 +1,91 @@
+package com.customers.infrastructure.persistence.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.repository.CommunicationRepository;
+import com.customers.db.repository.CustomerRepository;
+import com.customers.db.repository.PhoneRepository;
+
+public class ShardedCustomerStoreTest {
+
+  private static final Sort BY_NAME = Sort.by(Sort.Direction.DESC, "name");
+
+  private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+
+  private final ContactDirectory contactDirectory = mock(ContactDirectory.class);
+
+  private final CustomerShards customerShards = new CustomerShards(shardedProperties(),
+      mock(PlatformTransactionManager.class));
+
+  private final CustomerStore customerStore = new ShardedCustomerStore(customerRepository,
+      mock(CommunicationRepository.class), mock(PhoneRepository.class), customerShards, contactDirectory);
+
+  @AfterEach
+  void tearDown() {
+    customerShards.destroy();
+  }
+
+  @Test
+  void findRows_mergesTheRowsOfTheShardsInTheirOrder() {
+    when(customerRepository.findRows(any(), any(Sort.class), anyInt())).thenAnswer(invocation -> List.of(
+        List.of(row("d"), row("a")), List.of(row("e"), row("b")), List.of(row("c"))).get(ShardRouting.currentShard()));
+
+    List<CustomerRow> rows = customerStore.findRows(null, BY_NAME, 4);
+
+    assertEquals(List.of("e", "d", "c", "b"), rows.stream().map(CustomerRow::getName).toList());
+  }
+
+  @Test
+  void findRowSlice_cutsTheMergedRowsToThePage() {
+    when(customerRepository.findRows(any(), any(Sort.class), anyInt())).thenAnswer(invocation -> List.of(
+        List.of(row("d"), row("a")), List.of(row("e"), row("b")), List.of(row("c"))).get(ShardRouting.currentShard()));
+
+    Slice<CustomerRow> slice = customerStore.findRowSlice(null, PageRequest.of(1, 2, BY_NAME));
+
+    assertEquals(List.of("c", "b"), slice.getContent().stream().map(CustomerRow::getName).toList());
+    assertTrue(slice.hasNext());
+  }
+
+  @Test
+  void writeEach_releasesTheClaimsOfItsCustomers_alsoWhenTheWriteFails() {
+    List<UUID> customerIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+    assertThrows(IllegalStateException.class, () -> customerStore.writeEach(customerIds, customerId -> customerId,
+        shardCustomerIds -> customerStore.write(shardCustomerIds.get(0), () -> {
+          throw new IllegalStateException();
+        })));
+
+    verify(contactDirectory).releaseUnused(Set.copyOf(customerIds));
+  }
+
+  private static CustomerRow row(String name) {
+    return new CustomerRow(UUID.randomUUID(), name, null, null, null, null, null, null, 1L);
+  }
+
+  private static CustomersProperties shardedProperties() {
+    CustomersProperties customersProperties = new CustomersProperties();
+    customersProperties.getDatasource().getShards().add(new CustomersProperties.Database());
+    customersProperties.getDatasource().getShards().add(new CustomersProperties.Database());
+    return customersProperties;
+  }
+}
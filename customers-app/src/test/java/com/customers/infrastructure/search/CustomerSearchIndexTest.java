@@ -0,0 +1,124 @@
+package com.customers.infrastructure.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.Address;
+import com.customers.db.model.CommunicationEntity;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerSearchValue;
+import com.customers.db.model.SearchFieldEnum;
+import com.customers.db.repository.CustomerRepository;
+import com.customers.db.repository.CustomerSearchValueRepository;
+import com.customers.domain.SearchText;
+import com.customers.infrastructure.persistence.sharding.CustomerShards;
+import com.customers.infrastructure.persistence.sharding.ShardRouting;
+
+public class CustomerSearchIndexTest {
+
+  private static final UUID CUSTOMER_ID = UUID.fromString("cafebabe-0000-4ed0-8bad-00000000feed");
+
+  private final CustomerSearchValueRepository searchValueRepository = mock(CustomerSearchValueRepository.class);
+
+  private final CustomerSearchIndex customerSearchIndex = new CustomerSearchIndex(searchValueRepository,
+      mock(CustomerRepository.class), mock(CustomerShards.class), new CustomersProperties(),
+      mock(TransactionTemplate.class));
+
+  @Test
+  void add_indexesTheTextFieldsButNotTheId() {
+    customerSearchIndex.add(List.of(Customer.builder()
+        .customerId(CUSTOMER_ID)
+        .name("Name")
+        .firstName("First")
+        .addresses(Set.of(Address.builder().city("City").build()))
+        .communications(Set.of(CommunicationEntity.builder().email("customer@mail.com").build()))
+        .build()));
+
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<CustomerSearchValue>> searchValues = ArgumentCaptor.forClass(List.class);
+    verify(searchValueRepository).saveAllAndFlush(searchValues.capture());
+    assertEquals(Set.of(SearchFieldEnum.NAME, SearchFieldEnum.FIRST_NAME, SearchFieldEnum.CITY, SearchFieldEnum.EMAIL),
+        searchValues.getValue().stream().map(CustomerSearchValue::getField).collect(Collectors.toSet()));
+    // a hex fragment of the id finds no indexed value, neither by its trigrams nor as a prefix
+    for (String fragment : List.of("cafe", "bad", "4ed0", "ed", "1a")) {
+      assertTrue(searchValues.getValue().stream().noneMatch(value -> found(value, fragment)), fragment);
+    }
+  }
+
+  @Test
+  void updatePerson_writesOnlyTheChangedValues() {
+    when(searchValueRepository.deleteOtherValues(CUSTOMER_ID, SearchFieldEnum.NAME, SearchText.normalize("New Name")))
+        .thenReturn(1);
+
+    customerSearchIndex.updatePerson(CUSTOMER_ID, "New Name", "First");
+
+    verify(searchValueRepository).deleteOtherValues(CUSTOMER_ID, SearchFieldEnum.FIRST_NAME, SearchText.normalize("First"));
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<CustomerSearchValue>> searchValues = ArgumentCaptor.forClass(List.class);
+    verify(searchValueRepository).saveAllAndFlush(searchValues.capture());
+    assertEquals(List.of(SearchFieldEnum.NAME), searchValues.getValue().stream().map(CustomerSearchValue::getField).toList());
+  }
+
+  @Test
+  void updatePerson_withUnchangedValues_writesNothing() {
+    customerSearchIndex.updatePerson(CUSTOMER_ID, "Name", null);
+
+    verify(searchValueRepository).deleteOtherValues(CUSTOMER_ID, SearchFieldEnum.NAME, SearchText.normalize("Name"));
+    verify(searchValueRepository, never()).saveAllAndFlush(any());
+  }
+
+  @Test
+  void addUnindexedCustomers_indexesEveryShard() {
+    CustomersProperties customersProperties = new CustomersProperties();
+    customersProperties.getDatasource().getShards().add(new CustomersProperties.Database());
+    customersProperties.getDatasource().getShards().add(new CustomersProperties.Database());
+    CustomerShards customerShards = new CustomerShards(customersProperties, mock(PlatformTransactionManager.class));
+    CustomerRepository customerRepository = mock(CustomerRepository.class);
+    List<Integer> readShards = new ArrayList<>();
+    when(customerRepository.findUnindexedCustomerIds(any())).thenAnswer(invocation -> {
+      readShards.add(ShardRouting.currentShard());
+      return List.of();
+    });
+
+    new CustomerSearchIndex(searchValueRepository, customerRepository, customerShards, customersProperties,
+        mock(TransactionTemplate.class)).addUnindexedCustomers();
+
+    assertEquals(List.of(0, 1, 2), readShards);
+    customerShards.destroy();
+  }
+
+  @Test
+  void customerId_isOnlyTakenFromACompleteId() {
+    assertEquals(CUSTOMER_ID, SearchText.customerId(CUSTOMER_ID.toString()).orElseThrow());
+    assertFalse(SearchText.customerId("cafebabe").isPresent());
+    assertFalse(SearchText.customerId(CUSTOMER_ID.toString().substring(0, 13)).isPresent());
+    assertFalse(SearchText.customerId("cafebabe-0-4ed0-8bad-00000000000000feed").isPresent());
+  }
+
+  /**
+   * Whether the search query finds the value by the term.
+   */
+  private static boolean found(CustomerSearchValue value, String term) {
+    final Set<String> trigrams = SearchText.trigrams(term);
+    return trigrams.isEmpty() ? value.getValue().startsWith(term)
+        : value.getTrigrams().containsAll(trigrams) && value.getValue().contains(term);
+  }
+}
@@ -1,14 +1,20 @@
 package com.customers.integration;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.List;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 
 import com.customers.CustomersApplication;
@@ -17,12 +23,21 @@ import com.customers.integration.helper.CustomersHelper;
 import com.customers.model.AddressDataDTO;
 import com.customers.model.AddressTypeDTO;
 import com.customers.model.CommunicationDataDTO;
+import com.customers.model.ListCustomersResponseDTO;
+import com.customers.model.PagingDTO;
 import com.customers.model.PersonDataDTO;
 import com.customers.model.PhoneDataDTO;
 import com.customers.model.PhoneTypeDTO;
+import com.customers.model.SlicePagingDTO;
+
+import jakarta.persistence.EntityManagerFactory;
 
-@SpringBootTest(classes = CustomersApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(classes = CustomersApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        // the mappings have to match the schema of the migrations
+        "spring.jpa.hibernate.ddl-auto=validate" })
 @AutoConfigureWebTestClient(timeout = "PT30S")
+@AutoConfigureObservability(tracing = false)
 public class AbstractIT {
 
     public static final PersonDataDTO PERSON_1 = new PersonDataDTO().name("NAME_1").firstName("FIRST_NAME_1").dateOfBirth(
@@ -56,6 +71,8 @@ public class AbstractIT {
     protected TestRestTemplate restTemplate;
     @Autowired
     protected CustomerRepository customerRepository;
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
 
 
 
@@ -67,4 +84,18 @@ public class AbstractIT {
         customersHelper = new CustomersHelper(restTemplate);
     }
 
+    protected Statistics clearedStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    protected static PagingDTO counted(ResponseEntity<ListCustomersResponseDTO> response) {
+        return assertInstanceOf(PagingDTO.class, response.getBody().getPaging());
+    }
+
+    protected static SlicePagingDTO slice(ResponseEntity<ListCustomersResponseDTO> response) {
+        return assertInstanceOf(SlicePagingDTO.class, response.getBody().getPaging());
+    }
+
 }
@@ -2,40 +2,63 @@ package com.customers.integration;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 
+import com.customers.exception.general.ErrorCode;
+import com.customers.infrastructure.cache.CustomerCountCache;
 import com.customers.model.AddressDataDTO;
 import com.customers.model.AddressTypeDTO;
 import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.BulkJobItemResultDTO;
+import com.customers.model.BulkJobOperationDTO;
+import com.customers.model.BulkJobStatusDTO;
 import com.customers.model.BulkUpdateRequestDTO;
 import com.customers.model.CommunicationDataDTO;
 import com.customers.model.CreateCustomerRequestDTO;
 import com.customers.model.CustomerDTO;
+import com.customers.model.CustomerImportResultDTO;
 import com.customers.model.PersonDataDTO;
 import com.customers.model.PhoneDataDTO;
 import com.customers.model.PhoneTypeDTO;
 import com.customers.model.UpdateCustomerRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class CustomersApiControllerIT extends AbstractIT {
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CustomerCountCache customerCountCache;
+
 	@BeforeEach
 	void init() {
 		customerRepository.deleteAll();
+		// the customers are deleted behind the service, so the counts of the previous test have to be dropped here
+		customerCountCache.invalidateAfterCommit();
 	}
 
 	@Test
@@ -156,6 +179,149 @@ public class CustomersApiControllerIT extends AbstractIT {
 		assertNotNull(updatedCustomer.getCreatedBy());
 	}
 
+	@Test
+	void updateCustomer_personOnly_checksTheVersionInTheUpdate() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11, COMMUNICATION_12)
+		).addresses(List.of(ADDRESS_1));
+		var customerDTO = customersHelper.create(request).getBody();
+		var updateRequest = new UpdateCustomerRequestDTO().person(new PersonDataDTO().name("updated"));
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.update(updateRequest, customerDTO.getCustomerId(), "\"0\"");
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(statistics.getEntityLoadCount(), is(0L));
+		var updatedCustomer = response.getBody();
+		assertThat(updatedCustomer.getPerson().getName(), is("updated"));
+		assertThat(updatedCustomer.getPerson().getFirstName(), is(PERSON_1.getFirstName()));
+		assertThat(updatedCustomer.getPerson().getDateOfBirth(), is(PERSON_1.getDateOfBirth()));
+		assertThat(sortedPhones(updatedCustomer.getCommunications()), containsInAnyOrder(sortedPhones(COMMUNICATION_11, COMMUNICATION_12)));
+		assertThat(updatedCustomer.getAddresses(), is(List.of(ADDRESS_1)));
+		assertNotNull(updatedCustomer.getLastModified());
+		assertNotNull(updatedCustomer.getLastModifiedBy());
+		assertThat(customersHelper.getCustomer(customerDTO.getCustomerId()).getHeaders().getETag(), is("\"1\""));
+		assertThat(customersHelper.getCustomers(null, null, null, null, null, "updated", PageRequest.of(0, 20))
+				.getBody().getResults().size(), is(1));
+
+		customersHelper.update(updateRequest, customerDTO.getCustomerId(), "\"0\"", HttpStatus.PRECONDITION_FAILED);
+		customersHelper.update(updateRequest, customerDTO.getCustomerId(), "1", HttpStatus.PRECONDITION_FAILED);
+		customersHelper.update(updateRequest, UUID.randomUUID(), "\"0\"", HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void updateCustomer_withStaleETag_isPreconditionFailed() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of()).addresses(List.of());
+		var customerDTO = customersHelper.create(request).getBody();
+		var updateRequest = new UpdateCustomerRequestDTO().person(new PersonDataDTO().name("updated"))
+				.addresses(List.of(ADDRESS_1));
+
+		customersHelper.update(updateRequest, customerDTO.getCustomerId(), "\"1\"", HttpStatus.PRECONDITION_FAILED);
+	}
+
+	@Test
+	void patchCustomer_changesOnlyThePatchedMembers() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11, COMMUNICATION_12)
+		).addresses(List.of(ADDRESS_1));
+		var customerId = customersHelper.create(request).getBody().getCustomerId();
+
+		var response = customersHelper.patch("{\"person\": {\"firstName\": \"patched\", \"dateOfBirth\": null}}", customerId, "\"0\"");
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		var patchedCustomer = response.getBody();
+		assertThat(patchedCustomer.getPerson(), is(new PersonDataDTO().name(PERSON_1.getName()).firstName("patched")));
+		assertThat(patchedCustomer.getAddresses(), is(List.of(ADDRESS_1)));
+		assertThat(sortedPhones(patchedCustomer.getCommunications()), containsInAnyOrder(sortedPhones(COMMUNICATION_11, COMMUNICATION_12)));
+		assertThat(customersHelper.getCustomer(customerId).getHeaders().getETag(), is("\"1\""));
+
+		response = customersHelper.patch("{\"addresses\": [{\"addressType\": \"DELIVERY\", \"street\": \"STREET_31\","
+				+ " \"number\": \"31\", \"postal\": \"12619\", \"city\": \"Berlin\"}]}", customerId, "\"1\"");
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		patchedCustomer = response.getBody();
+		assertThat(patchedCustomer.getPerson().getFirstName(), is("patched"));
+		assertThat(patchedCustomer.getAddresses(), is(List.of(new AddressDataDTO().addressType(AddressTypeDTO.DELIVERY)
+				.street("STREET_31").number("31").postal("12619").city("Berlin"))));
+		assertThat(sortedPhones(patchedCustomer.getCommunications()), containsInAnyOrder(sortedPhones(COMMUNICATION_11, COMMUNICATION_12)));
+		assertThat(customersHelper.getCustomer(customerId).getHeaders().getETag(), is("\"2\""));
+
+		customersHelper.patch("{\"addresses\": null}", customerId, "\"1\"", HttpStatus.PRECONDITION_FAILED);
+		customersHelper.patch("{\"addresses\": null}", UUID.randomUUID(), "\"1\"", HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void patchCustomer_withInvalidPatch_isBadRequest() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of()).addresses(List.of());
+		var customerId = customersHelper.create(request).getBody().getCustomerId();
+
+		customersHelper.patch("{\"customerId\": \"" + UUID.randomUUID() + "\"}", customerId, "\"0\"", HttpStatus.BAD_REQUEST);
+		customersHelper.patch("{\"person\": null}", customerId, "\"0\"", HttpStatus.BAD_REQUEST);
+		customersHelper.patch("{\"addresses\": \"none\"}", customerId, "\"0\"", HttpStatus.BAD_REQUEST);
+		assertThat(customersHelper.getCustomer(customerId).getBody().getPerson(), is(PERSON_1));
+	}
+
+	@Test
+	void replaceAddresses_keepsTheCommunications() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of(COMMUNICATION_11))
+				.addresses(List.of(ADDRESS_1));
+		var customerId = customersHelper.create(request).getBody().getCustomerId();
+
+		var response = customersHelper.replaceAddresses(List.of(ADDRESS_31, ADDRESS_32), customerId, "\"0\"");
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(response.getHeaders().getETag(), is("\"1\""));
+		assertThat(List.of(response.getBody()), containsInAnyOrder(ADDRESS_31, ADDRESS_32));
+
+		var customer = customersHelper.getCustomer(customerId).getBody();
+		assertThat(customer.getAddresses(), containsInAnyOrder(ADDRESS_31, ADDRESS_32));
+		assertThat(sortedPhones(customer.getCommunications()), is(List.of(sortedPhones(COMMUNICATION_11))));
+		assertThat(customersHelper.getCustomers(null, null, null, null, ADDRESS_31.getCity(), null, PageRequest.of(0, 20))
+				.getBody().getResults().size(), is(1));
+		customersHelper.replaceAddresses(List.of(), customerId, "\"0\"", HttpStatus.PRECONDITION_FAILED);
+	}
+
+	@Test
+	void replaceCommunications_keepsTheAddresses() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of(COMMUNICATION_11))
+				.addresses(List.of(ADDRESS_1));
+		var customerId = customersHelper.create(request).getBody().getCustomerId();
+
+		var response = customersHelper.replaceCommunications(List.of(COMMUNICATION_12, COMMUNICATION_2), customerId, "\"0\"");
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(response.getHeaders().getETag(), is("\"1\""));
+
+		var customer = customersHelper.getCustomer(customerId).getBody();
+		assertThat(sortedPhones(customer.getCommunications()), containsInAnyOrder(sortedPhones(COMMUNICATION_12, COMMUNICATION_2)));
+		assertThat(customer.getAddresses(), is(List.of(ADDRESS_1)));
+		assertThat(customersHelper.getCustomers(null, null, null, COMMUNICATION_11.getEmail(), null, null, PageRequest.of(0, 20))
+				.getBody().getResults().size(), is(0));
+	}
+
+	@Test
+	void replacePhones_touchesOnlyThePhonesOfTheCommunication() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11, COMMUNICATION_12)
+		).addresses(List.of(ADDRESS_1));
+		var customerId = customersHelper.create(request).getBody().getCustomerId();
+		customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_2).communications(List.of(COMMUNICATION_2))
+				.addresses(List.of()));
+		var phones = List.of(new PhoneDataDTO().phoneType(PhoneTypeDTO.PRIVATE).phoneNumber("3333333"));
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.replacePhones(phones, customerId, COMMUNICATION_11.getEmail(), "\"0\"");
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(response.getHeaders().getETag(), is("\"1\""));
+		assertThat(List.of(response.getBody()), is(phones));
+		assertThat(statistics.getEntityLoadCount(), is(1L));
+
+		var customer = customersHelper.getCustomer(customerId).getBody();
+		assertThat(customer.getCommunications(), containsInAnyOrder(
+				new CommunicationDataDTO().email(COMMUNICATION_11.getEmail()).phones(phones), COMMUNICATION_12));
+		assertThat(customer.getAddresses(), is(List.of(ADDRESS_1)));
+
+		customersHelper.replacePhones(COMMUNICATION_2.getPhones(), customerId, COMMUNICATION_11.getEmail(), "\"1\"",
+				HttpStatus.BAD_REQUEST);
+		customersHelper.replacePhones(phones, customerId, "unknown@mail.com", "\"1\"", HttpStatus.NOT_FOUND);
+		customersHelper.replacePhones(phones, customerId, COMMUNICATION_11.getEmail(), "\"0\"", HttpStatus.PRECONDITION_FAILED);
+	}
+
 	@Test
 	void getCustomer_notFound() {
 		customersHelper.getCustomer(UUID.randomUUID(), HttpStatus.NOT_FOUND);
@@ -183,6 +349,131 @@ public class CustomersApiControllerIT extends AbstractIT {
 
 	}
 
+	@Test
+	void getCustomer_loadsGraphInSingleQuery() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11, COMMUNICATION_12)
+		).addresses(List.of(ADDRESS_1));
+		var customerDTO = customersHelper.create(request).getBody();
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.getCustomer(customerDTO.getCustomerId());
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(statistics.getPrepareStatementCount(), is(1L));
+	}
+
+	@Test
+	void getCustomer_withFields_readsOnlyTheRequestedCollections() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11, COMMUNICATION_12)
+		).addresses(List.of(ADDRESS_1));
+		var customerDTO = customersHelper.create(request).getBody();
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.getCustomer(customerDTO.getCustomerId(), "customerId,person.name", null);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		// the partial customer is not the representation of the strong ETag of the whole customer
+		assertThat(response.getHeaders().getETag(), is("W/\"0\""));
+		assertThat(response.getBody(), is(new CustomerDTO().customerId(customerDTO.getCustomerId())
+				.person(new PersonDataDTO().name(PERSON_1.getName()))));
+		assertThat(statistics.getPrepareStatementCount(), is(1L));
+
+		statistics = clearedStatistics();
+		response = customersHelper.getCustomer(customerDTO.getCustomerId(), null, "addresses");
+		assertThat(response.getBody().getPerson(), is(PERSON_1));
+		assertThat(response.getBody().getAddresses(), is(List.of(ADDRESS_1)));
+		assertNull(response.getBody().getCommunications());
+		assertNotNull(response.getBody().getCreated());
+		assertThat(statistics.getPrepareStatementCount(), is(2L));
+
+		customersHelper.getCustomer(customerDTO.getCustomerId());
+		statistics = clearedStatistics();
+		response = customersHelper.getCustomer(customerDTO.getCustomerId(), "communications", null);
+		assertThat(sortedPhones(response.getBody().getCommunications()), containsInAnyOrder(sortedPhones(COMMUNICATION_11, COMMUNICATION_12)));
+		assertNull(response.getBody().getPerson());
+		assertThat(statistics.getPrepareStatementCount(), is(0L));
+		assertThat(customersHelper.getCustomer(customerDTO.getCustomerId()).getHeaders().getETag(), is("\"0\""));
+	}
+
+	@Test
+	void getCustomer_withMatchingETag_isNotModifiedWithoutLoadingTheGraph() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11, COMMUNICATION_12)
+		).addresses(List.of(ADDRESS_1));
+		var customerDTO = customersHelper.create(request).getBody();
+		var headers = new HttpHeaders();
+		headers.setIfNoneMatch("\"0\"");
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.getCustomer(customerDTO.getCustomerId(), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+		assertThat(response.getHeaders().getETag(), is("\"0\""));
+		assertNull(response.getBody());
+		assertThat(statistics.getPrepareStatementCount(), is(1L));
+
+		headers.setIfNoneMatch("\"1\"");
+		response = customersHelper.getCustomer(customerDTO.getCustomerId(), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertNotNull(response.getBody());
+	}
+
+	@Test
+	void getCustomer_notModifiedSinceLastModified() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of()).addresses(List.of());
+		var customerDTO = customersHelper.create(request).getBody();
+		var lastModified = customersHelper.getCustomer(customerDTO.getCustomerId()).getHeaders().getLastModified();
+		var headers = new HttpHeaders();
+		headers.setIfModifiedSince(lastModified);
+
+		var response = customersHelper.getCustomer(customerDTO.getCustomerId(), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+
+		headers.setIfModifiedSince(lastModified - 1000);
+		response = customersHelper.getCustomer(customerDTO.getCustomerId(), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+	}
+
+	@Test
+	void getCustomer_isServedFromCacheUntilUpdated() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of())
+				.addresses(List.of(ADDRESS_1));
+		var customerDTO = customersHelper.create(request).getBody();
+		customersHelper.getCustomer(customerDTO.getCustomerId());
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.getCustomer(customerDTO.getCustomerId());
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(statistics.getPrepareStatementCount(), is(0L));
+
+		customersHelper.update(new UpdateCustomerRequestDTO().person(new PersonDataDTO().name("cached")),
+				customerDTO.getCustomerId());
+		response = customersHelper.getCustomer(customerDTO.getCustomerId());
+		assertThat(response.getBody().getPerson().getName(), is("cached"));
+
+		customersHelper.deleteCustomer(customerDTO.getCustomerId());
+		customersHelper.getCustomer(customerDTO.getCustomerId(), HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void getCustomer_writesTheEncodedJsonWithItsETag() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of(COMMUNICATION_11))
+				.addresses(List.of(ADDRESS_1));
+		var customerDTO = customersHelper.create(request).getBody();
+		var encoded = restTemplate.getForEntity("/customers/{customerId}", String.class, customerDTO.getCustomerId());
+
+		var statistics = clearedStatistics();
+		var response = restTemplate.getForEntity("/customers/{customerId}", String.class, customerDTO.getCustomerId());
+		assertThat(statistics.getPrepareStatementCount(), is(0L));
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertEquals(encoded.getBody(), response.getBody());
+		assertNotNull(response.getHeaders().getETag());
+		assertEquals(encoded.getHeaders().getETag(), response.getHeaders().getETag());
+		assertNotNull(response.getHeaders().getLastModified());
+		assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+		assertThat(response.getBody(), containsString("\"customer1_1@mail.com\""));
+		assertFalse(response.getBody().contains("null"));
+	}
+
 	@Test
 	void deleteCustomer() {
 		var request = new CreateCustomerRequestDTO().person(PERSON_3).communications(List.of())
@@ -290,6 +581,44 @@ public class CustomersApiControllerIT extends AbstractIT {
 		assertEquals(0, response.getBody().getResults().size());
 	}
 
+	@Test
+	void listCustomers_searchFindsSubstringsOfAllIndexedFields() {
+		final List<String> customerIds = prepareTestData();
+
+		assertThat(searchCustomers("city_3"), is(1));
+		assertThat(searchCustomers("CITY_1"), is(2));
+		assertThat(searchCustomers("1_2@mail"), is(1));
+		assertThat(searchCustomers(customerIds.get(1)), is(1));
+		assertThat(searchCustomers(customerIds.get(1).toUpperCase() + " name_2"), is(1));
+		assertThat(searchCustomers("name_1 city_1"), is(1));
+		assertThat(searchCustomers("name_1 name_2"), is(0));
+		assertThat(searchCustomers("ci"), is(3));
+		assertThat(searchCustomers("_3"), is(0));
+		assertThat(searchCustomers("%"), is(0));
+	}
+
+	@Test
+	void listCustomers_searchDoesNotFindFragmentsOfIds() {
+		final List<String> customerIds = prepareTestData();
+
+		assertThat(searchCustomers(customerIds.get(1).substring(0, 13)), is(0));
+		assertThat(searchCustomers(customerIds.get(1).substring(9, 13)), is(0));
+		assertThat(searchCustomers(customerIds.get(1).substring(0, 2)), is(0));
+	}
+
+	@Test
+	void listCustomers_searchIndexFollowsUpdatesAndDeletes() {
+		final UUID customerId = UUID.fromString(prepareTestData().get(3));
+
+		customersHelper.update(new UpdateCustomerRequestDTO().person(new PersonDataDTO().name("updated").firstName("first")),
+				customerId);
+		assertThat(searchCustomers("updated"), is(1));
+		assertThat(searchCustomers("name_4"), is(0));
+
+		customersHelper.deleteCustomer(customerId);
+		assertThat(searchCustomers("updated"), is(0));
+	}
+
 	@Test
 	void getAllCustomers() {
 		prepareTestData();
@@ -299,6 +628,155 @@ public class CustomersApiControllerIT extends AbstractIT {
 		assertEquals(4, response.getBody().getResults().size());
 	}
 
+	@Test
+	void getAllCustomers_runsFixedNumberOfQueries() {
+		prepareTestData();
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.getAllCustomers(PageRequest.of(0, 3));
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertEquals(3, response.getBody().getResults().size());
+		// page, count, addresses and communications with their phones
+		assertThat(statistics.getPrepareStatementCount(), is(4L));
+	}
+
+	@Test
+	void getAllCustomers_withoutTotal_readsASliceWithoutCounting() {
+		prepareTestData();
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.getAllCustomers(PageRequest.of(0, 3), false);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertEquals(3, response.getBody().getResults().size());
+		assertTrue(slice(response).getHasNext());
+		// page, addresses and communications with their phones
+		assertThat(statistics.getPrepareStatementCount(), is(3L));
+
+		response = customersHelper.getAllCustomers(PageRequest.of(1, 3), false);
+		assertEquals(1, response.getBody().getResults().size());
+		assertFalse(slice(response).getHasNext());
+	}
+
+	@Test
+	void getAllCustomers_takesTheTotalFromTheCountsCache() {
+		prepareTestData();
+		var response = customersHelper.getAllCustomers(PageRequest.of(0, 3));
+		assertThat(counted(response).getTotalElements(), is(4L));
+
+		var statistics = clearedStatistics();
+		response = customersHelper.getAllCustomers(PageRequest.of(0, 3));
+		assertThat(counted(response).getTotalElements(), is(4L));
+		assertThat(counted(response).getPageCount(), is(2));
+		assertTrue(counted(response).getHasNext());
+		// page, addresses and communications with their phones
+		assertThat(statistics.getPrepareStatementCount(), is(3L));
+
+		customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of())
+				.addresses(List.of(ADDRESS_1)));
+		response = customersHelper.getAllCustomers(PageRequest.of(0, 3));
+		assertThat(counted(response).getTotalElements(), is(5L));
+	}
+
+	@Test
+	void getAllCustomers_withMatchingETag_isNotModifiedWithoutReadingTheCollections() {
+		prepareTestData();
+		var response = customersHelper.getAllCustomers(PageRequest.of(0, 3));
+		var eTag = response.getHeaders().getETag();
+		assertTrue(eTag.startsWith("W/\""));
+		assertEquals(eTag, customersHelper.getAllCustomers(PageRequest.of(0, 3)).getHeaders().getETag());
+		assertThat(customersHelper.getAllCustomers(PageRequest.of(1, 3)).getHeaders().getETag(), is(not(eTag)));
+		var headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+
+		var statistics = clearedStatistics();
+		response = customersHelper.getAllCustomers(PageRequest.of(0, 3), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+		assertThat(response.getHeaders().getETag(), is(eTag));
+		assertNull(response.getBody());
+		// the page only, the count is cached
+		assertThat(statistics.getPrepareStatementCount(), is(1L));
+
+		var customerId = customersHelper.getAllCustomers(PageRequest.of(0, 3)).getBody().getResults().get(0).getCustomerId();
+		customersHelper.update(new UpdateCustomerRequestDTO().person(new PersonDataDTO().name("listed")), customerId);
+		response = customersHelper.getAllCustomers(PageRequest.of(0, 3), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(response.getHeaders().getETag(), is(not(eTag)));
+		assertThat(response.getBody().getResults().get(0).getPerson().getName(), is("listed"));
+	}
+
+	@Test
+	void getAllCustomers_withFields_skipsTheCollectionQueries() {
+		prepareTestData();
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.getAllCustomers(PageRequest.of(0, 3), "customerId,person.name,person.firstName", null);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertEquals(3, response.getBody().getResults().size());
+		response.getBody().getResults().forEach(customer -> {
+			assertNotNull(customer.getCustomerId());
+			assertNotNull(customer.getPerson().getName());
+			assertNull(customer.getPerson().getDateOfBirth());
+			assertNull(customer.getAddresses());
+			assertNull(customer.getCommunications());
+			assertNull(customer.getCreated());
+		});
+		// page and count
+		assertThat(statistics.getPrepareStatementCount(), is(2L));
+
+		statistics = clearedStatistics();
+		response = customersHelper.getAllCustomers(PageRequest.of(0, 3), null, "communications");
+		response.getBody().getResults().forEach(customer -> {
+			assertNotNull(customer.getPerson());
+			assertNull(customer.getAddresses());
+			assertNotNull(customer.getCommunications());
+		});
+		// page and communications with their phones, the count is cached
+		assertThat(statistics.getPrepareStatementCount(), is(2L));
+
+		customersHelper.getAllCustomers("customerId,phones", null, HttpStatus.BAD_REQUEST);
+		customersHelper.getAllCustomers("customerId", "person", HttpStatus.BAD_REQUEST);
+		customersHelper.getAllCustomers("person", HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void getAllCustomers_byCursor() {
+		final List<String> customerIds = prepareTestData();
+
+		var response = customersHelper.getAllCustomers(PageRequest.of(0, 3));
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertEquals(3, response.getBody().getResults().size());
+		final String nextCursor = counted(response).getNextCursor();
+		assertNotNull(nextCursor);
+
+		response = customersHelper.getAllCustomersByCursor(nextCursor, 3);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertEquals(1, response.getBody().getResults().size());
+		assertEquals(customerIds.get(3), response.getBody().getResults().get(0).getCustomerId().toString());
+		assertNull(slice(response).getNextCursor());
+	}
+
+	@Test
+	void listCustomers_filteredByNameAndCursor() {
+		final List<String> customerIds = prepareTestData();
+		final List<String> visitedIds = new ArrayList<>();
+
+		var response = customersHelper.getCustomersByCursor("NAME", null, 1);
+		String cursor = counted(response).getNextCursor();
+		response.getBody().getResults().forEach(customer -> visitedIds.add(customer.getCustomerId().toString()));
+		while (cursor != null) {
+			response = customersHelper.getCustomersByCursor("NAME", cursor, 1);
+			assertThat(response.getStatusCode(), is(HttpStatus.OK));
+			cursor = slice(response).getNextCursor();
+			response.getBody().getResults().forEach(customer -> visitedIds.add(customer.getCustomerId().toString()));
+		}
+		assertEquals(customerIds, visitedIds);
+	}
+
+	@Test
+	void getAllCustomers_withInvalidCursor_shouldFail() {
+		customersHelper.getAllCustomersByCursor("not-a-cursor", HttpStatus.BAD_REQUEST);
+	}
+
 	@Test
 	void filterSingleRecord() {
 		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(
@@ -312,6 +790,22 @@ public class CustomersApiControllerIT extends AbstractIT {
 		assertEquals(customer.getCustomerId(), response.getBody().getCustomerId());
 	}
 
+	@Test
+	void filterSingleRecord_withMatchingETag_isNotModified() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of()).addresses(List.of());
+		var customer = customersHelper.create(request).getBody();
+		var headers = new HttpHeaders();
+		headers.setIfNoneMatch("W/\"0\"");
+
+		var response = customersHelper.getSingleFilteredCustomer(PERSON_1.getName(), PERSON_1.getFirstName(),
+				customer.getCustomerId().toString(), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+
+		response = customersHelper.getSingleFilteredCustomer("other", PERSON_1.getFirstName(),
+				customer.getCustomerId().toString(), headers);
+		assertThat(response.getStatusCode(), is(HttpStatus.NOT_FOUND));
+	}
+
 	@Test
 	void createBulkOfCustomers() {
 		var request1 = new CreateCustomerRequestDTO().person(PERSON_1).communications(
@@ -329,10 +823,27 @@ public class CustomersApiControllerIT extends AbstractIT {
 				request1, request2, request3, request4
 		));
 
+		var statistics = clearedStatistics();
 		var response = customersHelper.createBulk(bulkCreationRequestDTO);
 		assertThat(response.getStatusCode(), is(HttpStatus.CREATED));
 		var listOfCreatedCustomers = response.getBody();
 		assertThat(listOfCreatedCustomers.size(), is(4));
+		// email and phone validation, then one insert batch per table, search index included
+		assertThat(statistics.getPrepareStatementCount(), is(8L));
+		assertEquals(4, customerRepository.count());
+	}
+
+	@Test
+	void createBulkOfCustomers_withDuplicatedPhoneInRequest_shouldFail() {
+		var request1 = new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11)
+		).addresses(List.of(ADDRESS_1));
+		var request2 = new CreateCustomerRequestDTO().person(PERSON_2).communications(
+				List.of(new CommunicationDataDTO().email("customer_2@mail.com").phones(COMMUNICATION_11.getPhones()))
+		).addresses(List.of(ADDRESS_1));
+
+		customersHelper.createBulk(new BulkCreationRequestDTO().customers(List.of(request1, request2)), HttpStatus.BAD_REQUEST);
+		assertEquals(0, customerRepository.count());
 	}
 
 	@Test
@@ -354,21 +865,99 @@ public class CustomersApiControllerIT extends AbstractIT {
 
 		BulkUpdateRequestDTO bulkUpdateRequestDTO = new BulkUpdateRequestDTO().customers(customers);
 
+		var statistics = clearedStatistics();
 		var response = customersHelper.updateBulk(bulkUpdateRequestDTO);
 		assertThat(response.getStatusCode(), is(HttpStatus.OK));
 		var listOfCreatedCustomers = response.getBody();
 		assertThat(listOfCreatedCustomers.size(), is(4));
+		// customers load, email and phone validation, the replaced phones, communications and addresses deleted, then one
+		// batch per updated or inserted table, and the search index entries deleted and inserted again
+		assertThat(statistics.getPrepareStatementCount(), is(14L));
+	}
+
+	@Test
+	void updateBulkOfCustomers_withMissingCustomer_shouldFail() {
+		List<CustomerDTO> customers = new ArrayList<>(extractPreparedData());
+		customers.add(new CustomerDTO().customerId(UUID.randomUUID()).person(PERSON_1));
+
+		customersHelper.updateBulk(new BulkUpdateRequestDTO().customers(customers), HttpStatus.BAD_REQUEST);
 	}
 
 	@Test
 	void deleteBulkOfCustomers() {
 		List<UUID> customerIds = extractPreparedData().stream().map(CustomerDTO::getCustomerId).toList();
 
+		var statistics = clearedStatistics();
 		var response = customersHelper.deleteCustomersBulk(customerIds);
 		assertThat(response.getStatusCode(), is(HttpStatus.NO_CONTENT));
+		// existence check, then one delete per table, search index included
+		assertThat(statistics.getPrepareStatementCount(), is(7L));
 		assertFalse(customerRepository.existsByCustomerIdIn(customerIds));
 	}
 
+	@Test
+	void deleteBulkOfCustomers_withMissingCustomer_shouldFail() {
+		List<UUID> customerIds = new ArrayList<>(extractPreparedData().stream().map(CustomerDTO::getCustomerId).toList());
+		customerIds.add(UUID.randomUUID());
+
+		customersHelper.deleteCustomersBulk(customerIds, HttpStatus.BAD_REQUEST);
+		assertEquals(4, customerRepository.count());
+	}
+
+	@Test
+	void createCustomersJob_reportsEveryCustomer() throws InterruptedException {
+		extractPreparedData();
+		var request = new BulkCreationRequestDTO().customers(List.of(
+				new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of()).addresses(List.of(ADDRESS_1)),
+				new CreateCustomerRequestDTO().person(PERSON_2).communications(List.of(COMMUNICATION_2)).addresses(List.of()),
+				new CreateCustomerRequestDTO().person(PERSON_3).communications(List.of()).addresses(List.of())));
+
+		var response = customersHelper.createBulkJob(request);
+		assertThat(response.getStatusCode(), is(HttpStatus.ACCEPTED));
+		var jobId = response.getBody().getJobId();
+		assertThat(response.getHeaders().getLocation().getPath(), is("/customers/bulk/jobs/" + jobId));
+
+		// the second customer takes an existing email, the chunk is retried customer by customer
+		var bulkJob = customersHelper.awaitBulkJob(jobId);
+		assertThat(bulkJob.getStatus(), is(BulkJobStatusDTO.COMPLETED));
+		assertThat(bulkJob.getOperation(), is(BulkJobOperationDTO.CREATE));
+		assertThat(bulkJob.getTotalItems(), is(3));
+		assertThat(bulkJob.getProcessedItems(), is(3));
+		assertThat(bulkJob.getFailedItems(), is(1));
+		var results = customersHelper.getBulkJobResults(jobId, PageRequest.of(0, 20)).getBody().getResults();
+		assertThat(results.stream().map(BulkJobItemResultDTO::getItem).toList(), is(List.of(0, 1, 2)));
+		assertNull(results.get(1).getCustomerId());
+		assertThat(results.get(1).getCode(), is(ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS.getErrorCode()));
+		assertThat(customersHelper.getCustomer(results.get(2).getCustomerId()).getBody().getPerson(), is(PERSON_3));
+		assertThat(customerRepository.count(), is(6L));
+	}
+
+	@Test
+	void deleteCustomersJob_deletesTheCustomers() throws InterruptedException {
+		List<UUID> customerIds = new ArrayList<>(extractPreparedData().stream().map(CustomerDTO::getCustomerId).toList());
+		var missingCustomerId = UUID.randomUUID();
+		customerIds.add(missingCustomerId);
+
+		var bulkJob = customersHelper.awaitBulkJob(customersHelper.deleteBulkJob(customerIds).getBody().getJobId());
+		assertThat(bulkJob.getStatus(), is(BulkJobStatusDTO.COMPLETED));
+		assertThat(bulkJob.getFailedItems(), is(1));
+		// the results are paged as the customers in the bulk body
+		var resultsPage = customersHelper.getBulkJobResults(bulkJob.getJobId(), PageRequest.of(1, 3)).getBody();
+		assertThat(resultsPage.getResults().stream().map(BulkJobItemResultDTO::getItem).toList(), is(List.of(3, 4)));
+		assertThat(resultsPage.getPaging().getTotalElements(), is(5L));
+		assertThat(resultsPage.getPaging().getPageCount(), is(2));
+		assertFalse(resultsPage.getPaging().getHasNext());
+		assertThat(resultsPage.getResults().get(1).getCustomerId(), is(missingCustomerId));
+		assertThat(resultsPage.getResults().get(1).getCode(), is(ErrorCode.CUSTOMER_NOT_FOUND.getErrorCode()));
+		assertEquals(0, customerRepository.count());
+
+		// a job which has ended is not cancelled anymore
+		var cancelledJob = customersHelper.cancelBulkJob(bulkJob.getJobId()).getBody();
+		assertThat(cancelledJob.getStatus(), is(BulkJobStatusDTO.COMPLETED));
+		assertFalse(cancelledJob.getCancelRequested());
+		customersHelper.cancelBulkJob(UUID.randomUUID(), HttpStatus.NOT_FOUND);
+	}
+
 	private List<CustomerDTO> extractPreparedData() {
 		var request1 = new CreateCustomerRequestDTO().person(PERSON_1).communications(
 				List.of(COMMUNICATION_11, COMMUNICATION_12)
@@ -411,4 +1000,110 @@ public class CustomersApiControllerIT extends AbstractIT {
 		return List.of(customer1.getCustomerId().toString(), customer2.getCustomerId().toString(),
 				customer3.getCustomerId().toString(), customer4.getCustomerId().toString());
 	}
+
+	private int searchCustomers(String search) {
+		var response = customersHelper.getCustomers(null, null, null, null, null, search, PageRequest.of(0, 10));
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		return response.getBody().getResults().size();
+	}
+
+	@Test
+	void metrics_areExportedInPrometheusFormat() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).communications(List.of(COMMUNICATION_11))
+				.addresses(List.of(ADDRESS_1));
+		customersHelper.create(request);
+		customersHelper.create(request.person(PERSON_2));
+
+		var response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(response.getBody(), containsString("customers_service_seconds_bucket{application=\"customers-api\","
+				+ "class=\"com.customers.service.impl.CustomerServiceImpl\",exception=\"none\",method=\"createCustomer\""));
+		assertThat(response.getBody(), containsString("customers_api_rejections_total{application=\"customers-api\","
+				+ "code=\"CUSTOMERS_ERR_1402_CUSTOMER_EMAIL_ALREADY_EXISTS\",status=\"400\",}"));
+		assertThat(response.getBody(), containsString("hibernate_statements_total"));
+		assertThat(response.getBody(), containsString("hikaricp_connections_active"));
+	}
+
+	@Test
+	void exportCustomers_streamsTheCustomersAndReadsTheirCollectionsPerChunk() throws Exception {
+		customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_1).communications(
+				List.of(COMMUNICATION_11, COMMUNICATION_12)).addresses(List.of(ADDRESS_1)));
+		customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_2).communications(List.of(COMMUNICATION_2))
+				.addresses(List.of(ADDRESS_31, ADDRESS_32)));
+		customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_3).communications(List.of()).addresses(List.of()));
+
+		var statistics = clearedStatistics();
+		var response = customersHelper.exportCustomers(null);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(response.getHeaders().getContentType(), is(MediaType.APPLICATION_NDJSON));
+		// customers, addresses and communications with their phones of the single chunk
+		assertThat(statistics.getPrepareStatementCount(), is(3L));
+
+		var lines = response.getBody().split("\n");
+		assertThat(lines.length, is(3));
+		var customers = new ArrayList<CustomerDTO>();
+		for (var line : lines) {
+			customers.add(objectMapper.readValue(line, CustomerDTO.class));
+		}
+		var customer2 = customers.stream().filter(customer -> customer.getPerson().equals(PERSON_2)).findFirst().orElseThrow();
+		assertThat(customer2.getAddresses(), containsInAnyOrder(ADDRESS_31, ADDRESS_32));
+		assertThat(customer2.getCommunications().get(0).getPhones().size(), is(2));
+		var customer1 = customers.stream().filter(customer -> customer.getPerson().equals(PERSON_1)).findFirst().orElseThrow();
+		assertThat(customer1.getCommunications().size(), is(2));
+
+		response = customersHelper.exportCustomers(PERSON_3.getName());
+		assertThat(response.getBody().split("\n").length, is(1));
+	}
+
+	@Test
+	void importCustomers_reportsEveryLine() throws Exception {
+		customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_3).communications(List.of(COMMUNICATION_2)).addresses(List.of()));
+
+		var lines = String.join("\n",
+				objectMapper.writeValueAsString(new CreateCustomerRequestDTO().person(PERSON_1)
+						.communications(List.of(COMMUNICATION_11)).addresses(List.of(ADDRESS_1))),
+				"{ not json",
+				objectMapper.writeValueAsString(new CreateCustomerRequestDTO().person(PERSON_2).communications(List.of(COMMUNICATION_11)).addresses(List.of())),
+				"",
+				objectMapper.writeValueAsString(new CreateCustomerRequestDTO().person(PERSON_2).communications(List.of(COMMUNICATION_2)).addresses(List.of())),
+				objectMapper.writeValueAsString(new CreateCustomerRequestDTO().person(PERSON_4)
+						.communications(List.of(new CommunicationDataDTO().email("not an email"))).addresses(List.of())),
+				objectMapper.writeValueAsString(new CreateCustomerRequestDTO().person(PERSON_4).communications(List.of(COMMUNICATION_12)).addresses(List.of())));
+		var response = customersHelper.importCustomers(lines);
+		assertThat(response.getStatusCode(), is(HttpStatus.OK));
+		assertThat(response.getHeaders().getContentType(), is(MediaType.APPLICATION_NDJSON));
+
+		var results = new ArrayList<CustomerImportResultDTO>();
+		for (var line : response.getBody().split("\n")) {
+			results.add(objectMapper.readValue(line, CustomerImportResultDTO.class));
+		}
+		assertThat(results.stream().map(CustomerImportResultDTO::getLine).toList(), is(List.of(1, 2, 3, 5, 6, 7)));
+		assertThat(results.get(1).getCode(), is(ErrorCode.INVALID_CUSTOMER.getErrorCode()));
+		assertThat(results.get(2).getCode(), is(ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS.getErrorCode()));
+		assertThat(results.get(3).getCode(), is(ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS.getErrorCode()));
+		assertThat(results.get(4).getCode(), is(ErrorCode.INVALID_CUSTOMER.getErrorCode()));
+		assertNull(results.get(1).getCustomerId());
+
+		var customer1 = customersHelper.getCustomer(results.get(0).getCustomerId()).getBody();
+		assertThat(customer1.getPerson(), is(PERSON_1));
+		assertThat(customer1.getAddresses(), containsInAnyOrder(ADDRESS_1));
+		assertThat(customer1.getCommunications().stream().map(CommunicationDataDTO::getEmail).toList(), is(List.of(COMMUNICATION_11.getEmail())));
+		assertThat(customer1.getCommunications().get(0).getPhones(), containsInAnyOrder(COMMUNICATION_11.getPhones().toArray()));
+		assertThat(customersHelper.getCustomer(results.get(5).getCustomerId()).getBody().getPerson(), is(PERSON_4));
+		assertThat(customerRepository.count(), is(3L));
+	}
+
+	/**
+	 * The phones of a communication have no order, they are sorted by number to compare communications.
+	 */
+	private static CommunicationDataDTO[] sortedPhones(CommunicationDataDTO... communications) {
+		return sortedPhones(List.of(communications)).toArray(CommunicationDataDTO[]::new);
+	}
+
+	private static List<CommunicationDataDTO> sortedPhones(List<CommunicationDataDTO> communications) {
+		return communications.stream()
+				.map(communication -> new CommunicationDataDTO().email(communication.getEmail()).phones(communication.getPhones().stream()
+						.sorted(Comparator.comparing(PhoneDataDTO::getPhoneNumber)).toList()))
+				.toList();
+	}
 }
@@ -0,0 +1,79 @@
+package com.customers.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.customers.model.CreateCustomerRequestDTO;
+
+/**
+ * Runs against a primary and a replica H2 instance. The replica gets the schema but is never written, so every read
+ * which finds a customer was served by the primary.
+ */
+@ActiveProfiles("replica")
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:primary",
+		"customers.datasource.read-your-writes=1s" })
+public class ReadReplicaIT extends AbstractIT {
+
+	@BeforeEach
+	void init() {
+		customerRepository.deleteAll();
+	}
+
+	@Test
+	void getCustomer_afterCreation_readsFromThePrimary() {
+		var request = new CreateCustomerRequestDTO().person(PERSON_1).addresses(List.of(ADDRESS_1))
+				.communications(List.of(COMMUNICATION_11));
+		UUID customerId = customersHelper.create(request).getBody().getCustomerId();
+
+		var customer = customersHelper.getCustomer(customerId);
+
+		assertThat(customer.getStatusCode(), is(HttpStatus.OK));
+		assertEquals(PERSON_1.getName(), customer.getBody().getPerson().getName());
+		assertEquals(1, customer.getBody().getAddresses().size());
+	}
+
+	@Test
+	void getCustomers_readsFromTheReplica_exceptForRecentWrites() throws InterruptedException {
+		UUID customerId = customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_2)
+				.addresses(List.of(ADDRESS_31)).communications(List.of(COMMUNICATION_2))).getBody().getCustomerId();
+
+		var written = customersHelper.getCustomers(null, null, List.of(customerId.toString()), null, null, null,
+				PageRequest.of(0, 10));
+		assertEquals(1, written.getBody().getResults().size());
+
+		Thread.sleep(1500);
+
+		var replicated = customersHelper.getCustomers(null, null, List.of(customerId.toString()), null, null, null,
+				PageRequest.of(0, 10));
+		assertEquals(0, replicated.getBody().getResults().size());
+	}
+
+	@Test
+	void getAllCustomers_andFilteredCustomers_readFromThePrimary_whileAnyCustomerWasWrittenLately()
+			throws InterruptedException {
+		customersHelper.create(new CreateCustomerRequestDTO().person(PERSON_1).addresses(List.of(ADDRESS_1))
+				.communications(List.of(COMMUNICATION_11)));
+
+		var allCustomers = customersHelper.getAllCustomers(PageRequest.of(0, 10));
+		assertEquals(1, allCustomers.getBody().getResults().size());
+		var filteredCustomers = customersHelper.getCustomers(PERSON_1.getName(), null, null, null, null, null,
+				PageRequest.of(0, 10));
+		assertEquals(1, filteredCustomers.getBody().getResults().size());
+
+		Thread.sleep(1500);
+
+		var replicatedCustomers = customersHelper.getAllCustomers(PageRequest.of(0, 10));
+		assertEquals(0, replicatedCustomers.getBody().getResults().size());
+	}
+}
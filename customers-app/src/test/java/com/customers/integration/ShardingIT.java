@@ -0,0 +1,136 @@
+package com.customers.integration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.customers.db.repository.ContactClaimRepository;
+import com.customers.infrastructure.cache.CustomerCountCache;
+import com.customers.infrastructure.persistence.sharding.CustomerShards;
+import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.CommunicationDataDTO;
+import com.customers.model.CreateCustomerRequestDTO;
+import com.customers.model.CustomerDTO;
+import com.customers.model.PersonDataDTO;
+
+/**
+ * Runs against three H2 instances, the {@code spring.datasource} one and the two shards of the sharded profile.
+ */
+@ActiveProfiles("sharded")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:shard0")
+public class ShardingIT extends AbstractIT {
+
+	private static final int CUSTOMERS = 30;
+
+	@Autowired
+	private CustomerShards customerShards;
+	@Autowired
+	private ContactClaimRepository contactClaimRepository;
+	@Autowired
+	private CustomerCountCache customerCountCache;
+
+	@BeforeEach
+	void init() {
+		customerShards.all().forEach(shard -> customerShards.write(shard, () -> {
+			customerRepository.deleteAll();
+			return null;
+		}));
+		contactClaimRepository.deleteAll();
+		customerCountCache.invalidateAfterCommit();
+	}
+
+	@Test
+	void createCustomers_spreadsThemOverTheShards_andListsThemMerged() {
+		List<CreateCustomerRequestDTO> requests = new ArrayList<>(IntStream.range(0, CUSTOMERS)
+				.mapToObj(index -> new CreateCustomerRequestDTO()
+						.person(new PersonDataDTO().name(String.format("NAME_%02d", index)).firstName("FIRST_NAME"))
+						.addresses(List.of(ADDRESS_1)).communications(List.of(communication(index))))
+				.toList());
+		Collections.shuffle(requests);
+		assertThat(customersHelper.createBulk(new BulkCreationRequestDTO().customers(requests)).getStatusCode(),
+				is(HttpStatus.CREATED));
+
+		customerShards.all().forEach(shard -> assertThat(customerShards.read(shard, customerRepository::count), greaterThan(0L)));
+
+		var page = customersHelper.getAllCustomers(PageRequest.of(1, 10), "name");
+		assertEquals(IntStream.range(10, 20).mapToObj(index -> String.format("NAME_%02d", index)).toList(),
+				page.getBody().getResults().stream().map(customer -> customer.getPerson().getName()).toList());
+		assertEquals(CUSTOMERS, counted(page).getTotalElements());
+		page.getBody().getResults().forEach(customer -> {
+			assertEquals(1, customer.getAddresses().size());
+			assertThat(customersHelper.getCustomer(customer.getCustomerId()).getStatusCode(), is(HttpStatus.OK));
+		});
+		// only the columns of the customer can be merged in order
+		customersHelper.getAllCustomers("addresses", HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void getAllCustomersByCursor_walksThroughAllShards() {
+		customersHelper.createBulk(new BulkCreationRequestDTO().customers(IntStream.range(0, CUSTOMERS)
+				.mapToObj(index -> customer(PERSON_1, communication(index)))
+				.toList()));
+
+		Set<UUID> customerIds = new HashSet<>();
+		var page = customersHelper.getAllCustomersByCursor(null, 7);
+		page.getBody().getResults().forEach(customer -> customerIds.add(customer.getCustomerId()));
+		String cursor = counted(page).getNextCursor();
+		while (cursor != null) {
+			page = customersHelper.getAllCustomersByCursor(cursor, 7);
+			page.getBody().getResults().forEach(customer -> customerIds.add(customer.getCustomerId()));
+			cursor = slice(page).getNextCursor();
+		}
+
+		assertEquals(CUSTOMERS, customerIds.size());
+	}
+
+	@Test
+	void createCustomer_withTheEmailOfACustomerOnAnyShard_shouldFail() {
+		assertThat(customersHelper.create(customer(PERSON_1, COMMUNICATION_11)).getStatusCode(), is(HttpStatus.CREATED));
+
+		// the new customers land on random shards, the first shard is as likely as the others
+		for (int attempt = 0; attempt < 6; attempt++) {
+			var response = customersHelper.create(customer(PERSON_2,
+					new CommunicationDataDTO().email(COMMUNICATION_11.getEmail()).phones(List.of())));
+			assertThat(response.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+		}
+		assertEquals(1, customerShards.readAll(shard -> customerRepository.count()).stream().mapToLong(Long::longValue).sum());
+	}
+
+	@Test
+	void replacedAndDeletedContacts_canBeTakenByOtherCustomers() {
+		CustomerDTO first = customersHelper.create(customer(PERSON_1, COMMUNICATION_11)).getBody();
+		CustomerDTO second = customersHelper.create(customer(PERSON_2, COMMUNICATION_2)).getBody();
+
+		customersHelper.replaceCommunications(List.of(COMMUNICATION_12), first.getCustomerId(), "\"0\"");
+		assertThat(customersHelper.create(customer(PERSON_3, COMMUNICATION_11)).getStatusCode(), is(HttpStatus.CREATED));
+		assertThat(customersHelper.create(customer(PERSON_4, COMMUNICATION_12)).getStatusCode(), is(HttpStatus.BAD_REQUEST));
+
+		customersHelper.deleteCustomer(second.getCustomerId());
+		assertThat(customersHelper.create(customer(PERSON_4, COMMUNICATION_2)).getStatusCode(), is(HttpStatus.CREATED));
+	}
+
+	private CommunicationDataDTO communication(int index) {
+		return new CommunicationDataDTO().email("customer" + index + "@mail.com").phones(List.of());
+	}
+
+	private CreateCustomerRequestDTO customer(PersonDataDTO person, CommunicationDataDTO communication) {
+		return new CreateCustomerRequestDTO().person(person).addresses(List.of(ADDRESS_1)).communications(List.of(communication));
+	}
+}
@@ -16,6 +16,11 @@ public abstract class AbstractRestCallHelper {
 	static final String CUSTOMER_IDS = "customerIds";
 	static final String CUSTOMER_ID = "customerId";
 	static final String SEARCH = "search";
+	static final String CURSOR = "cursor";
+	static final String FIELDS = "fields";
+	static final String EXPAND = "expand";
+	static final String INCLUDE_TOTAL = "includeTotal";
+	static final String SORT = "sort";
 
 	protected final TestRestTemplate testRestTemplate;
 
@@ -14,23 +14,38 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
 
+import com.customers.model.AddressDataDTO;
 import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.BulkJobDTO;
+import com.customers.model.BulkJobResultsDTO;
+import com.customers.model.BulkJobStatusDTO;
 import com.customers.model.BulkUpdateRequestDTO;
+import com.customers.model.CommunicationDataDTO;
 import com.customers.model.CreateCustomerRequestDTO;
 import com.customers.model.CustomerDTO;
 import com.customers.model.ListCustomersResponseDTO;
+import com.customers.model.PhoneDataDTO;
 import com.customers.model.UpdateCustomerRequestDTO;
 
 public class CustomersHelper extends AbstractRestCallHelper {
 
   private static final String CUSTOMERS_URL = "/customers";
   private static final String CUSTOMER_URL = "/customers/{customerId}";
+  private static final String CUSTOMER_ADDRESSES_URL = "/customers/{customerId}/addresses";
+  private static final String CUSTOMER_COMMUNICATIONS_URL = "/customers/{customerId}/communications";
+  private static final String COMMUNICATION_PHONES_URL = "/customers/{customerId}/communications/{email}/phones";
   private static final String CUSTOMERS_BULK_URL = "/customers/bulk";
   private static final String ALL_CUSTOMERS_URL = "/customers/all-customers";
   private static final String SINGLE_CUSTOMER_URL = "/customers/single-customer";
+  private static final String EXPORT_CUSTOMERS_URL = "/customers/export";
+  private static final String IMPORT_CUSTOMERS_URL = "/customers/import";
+  private static final String BULK_JOBS_URL = "/customers/bulk/jobs";
+  private static final String BULK_JOB_URL = "/customers/bulk/jobs/{jobId}";
+  private static final String BULK_JOB_RESULTS_URL = "/customers/bulk/jobs/{jobId}/results?pageNumber={pageNumber}&pageSize={pageSize}";
 
   public CustomersHelper(TestRestTemplate testRestTemplate) {
     super(testRestTemplate);
@@ -44,6 +59,22 @@ public class CustomersHelper extends AbstractRestCallHelper {
     return testRestTemplate.getForEntity(CUSTOMER_URL, CustomerDTO.class, customerId);
   }
 
+  public ResponseEntity<CustomerDTO> getCustomer(UUID customerId, HttpHeaders headers) {
+    return testRestTemplate.exchange(CUSTOMER_URL, HttpMethod.GET, new HttpEntity<>(headers), CustomerDTO.class, customerId);
+  }
+
+  public ResponseEntity<CustomerDTO> getCustomer(UUID customerId, String fields, String expand) {
+    Map<String, String> requestParameters = new HashMap<>();
+    StringBuilder urlBuilder = new StringBuilder();
+    urlBuilder.append(CUSTOMER_URL + "?");
+    requestParameters.put(CUSTOMER_ID, customerId.toString());
+    addQueryParamIfNotNull(requestParameters, urlBuilder, FIELDS, fields);
+    addQueryParamIfNotNull(requestParameters, urlBuilder, EXPAND, expand);
+    final String builderContent = urlBuilder.toString();
+    final String url = builderContent.substring(0, (builderContent.length() - 1));
+    return testRestTemplate.getForEntity(url, CustomerDTO.class, requestParameters);
+  }
+
   public void getCustomer(UUID customerId, HttpStatus expectedStatus) {
     var response = testRestTemplate.getForEntity(CUSTOMER_URL, Object.class, customerId);
     assertThat(response.getStatusCode(), is(expectedStatus));
@@ -58,12 +89,63 @@ public class CustomersHelper extends AbstractRestCallHelper {
   }
 
   public void update(UpdateCustomerRequestDTO request, UUID customerId, HttpStatus expectedStatus) {
+    String version = getCustomer(customerId).getHeaders().getETag();
+    update(request, customerId, version != null ? version : "\"0\"", expectedStatus);
+  }
+
+  public ResponseEntity<CustomerDTO> update(UpdateCustomerRequestDTO request, UUID customerId, String ifMatch) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("If-Match", ifMatch);
+    return testRestTemplate.exchange(CUSTOMER_URL, HttpMethod.PUT, new HttpEntity<>(request, headers), CustomerDTO.class,
+        customerId);
+  }
+
+  public void update(UpdateCustomerRequestDTO request, UUID customerId, String ifMatch, HttpStatus expectedStatus) {
     HttpHeaders headers = new HttpHeaders();
-    headers.add("If-Match", "0");
+    headers.add("If-Match", ifMatch);
     var response = testRestTemplate.exchange(CUSTOMER_URL, HttpMethod.PUT, new HttpEntity<>(request, headers), Object.class, customerId);
     assertThat(response.getStatusCode(), is(expectedStatus));
   }
 
+  public ResponseEntity<CustomerDTO> patch(String patch, UUID customerId, String ifMatch) {
+    return testRestTemplate.exchange(CUSTOMER_URL, HttpMethod.PATCH, new HttpEntity<>(patch, mergePatchHeaders(ifMatch)),
+        CustomerDTO.class, customerId);
+  }
+
+  public void patch(String patch, UUID customerId, String ifMatch, HttpStatus expectedStatus) {
+    var response = testRestTemplate.exchange(CUSTOMER_URL, HttpMethod.PATCH, new HttpEntity<>(patch, mergePatchHeaders(ifMatch)),
+        Object.class, customerId);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
+  public ResponseEntity<AddressDataDTO[]> replaceAddresses(List<AddressDataDTO> addresses, UUID customerId, String ifMatch) {
+    return testRestTemplate.exchange(CUSTOMER_ADDRESSES_URL, HttpMethod.PUT, new HttpEntity<>(addresses, ifMatchHeaders(ifMatch)),
+        AddressDataDTO[].class, customerId);
+  }
+
+  public void replaceAddresses(List<AddressDataDTO> addresses, UUID customerId, String ifMatch, HttpStatus expectedStatus) {
+    var response = testRestTemplate.exchange(CUSTOMER_ADDRESSES_URL, HttpMethod.PUT,
+        new HttpEntity<>(addresses, ifMatchHeaders(ifMatch)), Object.class, customerId);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
+  public ResponseEntity<CommunicationDataDTO[]> replaceCommunications(List<CommunicationDataDTO> communications, UUID customerId,
+      String ifMatch) {
+    return testRestTemplate.exchange(CUSTOMER_COMMUNICATIONS_URL, HttpMethod.PUT,
+        new HttpEntity<>(communications, ifMatchHeaders(ifMatch)), CommunicationDataDTO[].class, customerId);
+  }
+
+  public ResponseEntity<PhoneDataDTO[]> replacePhones(List<PhoneDataDTO> phones, UUID customerId, String email, String ifMatch) {
+    return testRestTemplate.exchange(COMMUNICATION_PHONES_URL, HttpMethod.PUT, new HttpEntity<>(phones, ifMatchHeaders(ifMatch)),
+        PhoneDataDTO[].class, customerId, email);
+  }
+
+  public void replacePhones(List<PhoneDataDTO> phones, UUID customerId, String email, String ifMatch, HttpStatus expectedStatus) {
+    var response = testRestTemplate.exchange(COMMUNICATION_PHONES_URL, HttpMethod.PUT,
+        new HttpEntity<>(phones, ifMatchHeaders(ifMatch)), Object.class, customerId, email);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
   public ResponseEntity<ListCustomersResponseDTO> getCustomers(String name, String firstName, List<String> customerIds, String email,
       String city, String search, Pageable pageRequest) {
     Map<String, String> requestParameters = new HashMap<>();
@@ -101,7 +183,82 @@ public class CustomersHelper extends AbstractRestCallHelper {
     return testRestTemplate.getForEntity(url, ListCustomersResponseDTO.class, requestParameters);
   }
 
+  public ResponseEntity<ListCustomersResponseDTO> getAllCustomers(Pageable pageRequest, boolean includeTotal) {
+    return testRestTemplate.getForEntity(ALL_CUSTOMERS_URL + "?" + PAGE_NUMBER + "={" + PAGE_NUMBER + "}&" + PAGE_SIZE + "={"
+            + PAGE_SIZE + "}&" + INCLUDE_TOTAL + "={" + INCLUDE_TOTAL + "}", ListCustomersResponseDTO.class,
+        pageRequest.getPageNumber(), pageRequest.getPageSize(), includeTotal);
+  }
+
+  public ResponseEntity<ListCustomersResponseDTO> getAllCustomers(Pageable pageRequest, String sort) {
+    return testRestTemplate.getForEntity(ALL_CUSTOMERS_URL + "?" + PAGE_NUMBER + "={" + PAGE_NUMBER + "}&" + PAGE_SIZE + "={"
+            + PAGE_SIZE + "}&" + SORT + "={" + SORT + "}", ListCustomersResponseDTO.class,
+        pageRequest.getPageNumber(), pageRequest.getPageSize(), sort);
+  }
+
+  public ResponseEntity<ListCustomersResponseDTO> getAllCustomers(Pageable pageRequest, HttpHeaders headers) {
+    return testRestTemplate.exchange(ALL_CUSTOMERS_URL + "?" + PAGE_NUMBER + "={" + PAGE_NUMBER + "}&" + PAGE_SIZE + "={"
+            + PAGE_SIZE + "}", HttpMethod.GET, new HttpEntity<>(headers), ListCustomersResponseDTO.class,
+        pageRequest.getPageNumber(), pageRequest.getPageSize());
+  }
+
+  public ResponseEntity<ListCustomersResponseDTO> getAllCustomers(Pageable pageRequest, String fields, String expand) {
+    Map<String, String> requestParameters = new HashMap<>();
+    StringBuilder urlBuilder = new StringBuilder();
+    urlBuilder.append(ALL_CUSTOMERS_URL + "?");
+    addQueryParamIfNotNull(requestParameters, urlBuilder, PAGE_NUMBER, String.valueOf(pageRequest.getPageNumber()));
+    addQueryParamIfNotNull(requestParameters, urlBuilder, PAGE_SIZE, String.valueOf(pageRequest.getPageSize()));
+    addQueryParamIfNotNull(requestParameters, urlBuilder, FIELDS, fields);
+    addQueryParamIfNotNull(requestParameters, urlBuilder, EXPAND, expand);
+    final String builderContent = urlBuilder.toString();
+    final String url = builderContent.substring(0, (builderContent.length() - 1));
+    return testRestTemplate.getForEntity(url, ListCustomersResponseDTO.class, requestParameters);
+  }
+
+  public void getAllCustomers(String sort, HttpStatus expectedStatus) {
+    var response = testRestTemplate.getForEntity(ALL_CUSTOMERS_URL + "?" + SORT + "={" + SORT + "}", Object.class, sort);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
+  public void getAllCustomers(String fields, String expand, HttpStatus expectedStatus) {
+    var response = testRestTemplate.getForEntity(ALL_CUSTOMERS_URL + "?fields={fields}&expand={expand}", Object.class,
+        fields, expand);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
+  public ResponseEntity<ListCustomersResponseDTO> getCustomersByCursor(String name, String cursor, int pageSize) {
+    Map<String, String> requestParameters = new HashMap<>();
+    StringBuilder urlBuilder = new StringBuilder();
+    urlBuilder.append(CUSTOMERS_URL + "?");
+    addQueryParamIfNotNull(requestParameters, urlBuilder, NAME, name);
+    addQueryParamIfNotNull(requestParameters, urlBuilder, CURSOR, cursor);
+    addQueryParamIfNotNull(requestParameters, urlBuilder, PAGE_SIZE, String.valueOf(pageSize));
+    final String builderContent = urlBuilder.toString();
+    final String url = builderContent.substring(0, (builderContent.length() - 1));
+    return testRestTemplate.getForEntity(url, ListCustomersResponseDTO.class, requestParameters);
+  }
+
+  public ResponseEntity<ListCustomersResponseDTO> getAllCustomersByCursor(String cursor, int pageSize) {
+    Map<String, String> requestParameters = new HashMap<>();
+    StringBuilder urlBuilder = new StringBuilder();
+    urlBuilder.append(ALL_CUSTOMERS_URL + "?");
+    addQueryParamIfNotNull(requestParameters, urlBuilder, CURSOR, cursor);
+    addQueryParamIfNotNull(requestParameters, urlBuilder, PAGE_SIZE, String.valueOf(pageSize));
+    final String builderContent = urlBuilder.toString();
+    final String url = builderContent.substring(0, (builderContent.length() - 1));
+    return testRestTemplate.getForEntity(url, ListCustomersResponseDTO.class, requestParameters);
+  }
+
+  public void getAllCustomersByCursor(String cursor, HttpStatus expectedStatus) {
+    var response = testRestTemplate.getForEntity(ALL_CUSTOMERS_URL + "?cursor={cursor}", Object.class, cursor);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
   public ResponseEntity<CustomerDTO> getSingleFilteredCustomer(String name, String firstName, String customerId) {
+    return getSingleFilteredCustomer(name, firstName, customerId, new HttpHeaders());
+  }
+
+  public ResponseEntity<CustomerDTO> getSingleFilteredCustomer(String name, String firstName, String customerId,
+      HttpHeaders headers) {
     Map<String, String> requestParameters = new HashMap<>();
     StringBuilder urlBuilder = new StringBuilder();
     urlBuilder.append(SINGLE_CUSTOMER_URL + "?");
@@ -110,7 +267,20 @@ public class CustomersHelper extends AbstractRestCallHelper {
     addQueryParamIfNotNull(requestParameters, urlBuilder, CUSTOMER_ID, customerId);
     final String builderContent = urlBuilder.toString();
     final String url = builderContent.substring(0, (builderContent.length() - 1));
-    return testRestTemplate.getForEntity(url, CustomerDTO.class, requestParameters);
+    return testRestTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), CustomerDTO.class, requestParameters);
+  }
+
+  public ResponseEntity<String> exportCustomers(String name) {
+    if (name == null) {
+      return testRestTemplate.getForEntity(EXPORT_CUSTOMERS_URL, String.class);
+    }
+    return testRestTemplate.getForEntity(EXPORT_CUSTOMERS_URL + "?" + NAME + "={name}", String.class, name);
+  }
+
+  public ResponseEntity<String> importCustomers(String lines) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_NDJSON);
+    return testRestTemplate.postForEntity(IMPORT_CUSTOMERS_URL, new HttpEntity<>(lines, headers), String.class);
   }
 
   public void  deleteCustomer(UUID customerId) {
@@ -121,6 +291,11 @@ public class CustomersHelper extends AbstractRestCallHelper {
     return testRestTemplate.postForEntity(CUSTOMERS_BULK_URL, request, List.class);
   }
 
+  public void createBulk(BulkCreationRequestDTO request, HttpStatus expectedStatus) {
+    var response = testRestTemplate.postForEntity(CUSTOMERS_BULK_URL, request, Object.class);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
   public ResponseEntity<List> updateBulk(BulkUpdateRequestDTO request) {
     return testRestTemplate.exchange(CUSTOMERS_BULK_URL, HttpMethod.PUT, new HttpEntity<>(request), List.class);
   }
@@ -134,6 +309,51 @@ public class CustomersHelper extends AbstractRestCallHelper {
     return testRestTemplate.exchange(CUSTOMERS_BULK_URL, HttpMethod.DELETE, new HttpEntity<>(customerIds), void.class, new HashMap<>());
   }
 
+  public void deleteCustomersBulk(List<UUID> customerIds, HttpStatus expectedStatus) {
+    var response = testRestTemplate.exchange(CUSTOMERS_BULK_URL, HttpMethod.DELETE, new HttpEntity<>(customerIds), Object.class);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
+  public ResponseEntity<BulkJobDTO> createBulkJob(BulkCreationRequestDTO request) {
+    return testRestTemplate.postForEntity(BULK_JOBS_URL, request, BulkJobDTO.class);
+  }
+
+  public ResponseEntity<BulkJobDTO> deleteBulkJob(List<UUID> customerIds) {
+    return testRestTemplate.exchange(BULK_JOBS_URL, HttpMethod.DELETE, new HttpEntity<>(customerIds), BulkJobDTO.class);
+  }
+
+  public ResponseEntity<BulkJobDTO> getBulkJob(UUID jobId) {
+    return testRestTemplate.getForEntity(BULK_JOB_URL, BulkJobDTO.class, jobId);
+  }
+
+  public ResponseEntity<BulkJobResultsDTO> getBulkJobResults(UUID jobId, Pageable pageable) {
+    return testRestTemplate.getForEntity(BULK_JOB_RESULTS_URL, BulkJobResultsDTO.class, jobId, pageable.getPageNumber(),
+        pageable.getPageSize());
+  }
+
+  public ResponseEntity<BulkJobDTO> cancelBulkJob(UUID jobId) {
+    return testRestTemplate.exchange(BULK_JOB_URL, HttpMethod.DELETE, null, BulkJobDTO.class, jobId);
+  }
+
+  public void cancelBulkJob(UUID jobId, HttpStatus expectedStatus) {
+    var response = testRestTemplate.exchange(BULK_JOB_URL, HttpMethod.DELETE, null, Object.class, jobId);
+    assertThat(response.getStatusCode(), is(expectedStatus));
+  }
+
+  /**
+   * Polls the job until it has ended, for at most ten seconds.
+   */
+  public BulkJobDTO awaitBulkJob(UUID jobId) throws InterruptedException {
+    for (int attempt = 0; attempt < 200; attempt++) {
+      BulkJobDTO bulkJob = getBulkJob(jobId).getBody();
+      if (bulkJob.getStatus() != BulkJobStatusDTO.QUEUED && bulkJob.getStatus() != BulkJobStatusDTO.RUNNING) {
+        return bulkJob;
+      }
+      Thread.sleep(50);
+    }
+    throw new AssertionError("The bulk job " + jobId + " has not ended");
+  }
+
   private void addQueryParamIfNotNull(Map<String, String> requestParameters, StringBuilder urlBuilder, String paramName, List<String> paramValues) {
     if (!CollectionUtils.isEmpty(paramValues)) {
       urlBuilder.append(paramName).append("={").append(paramName).append("}&");
@@ -147,4 +367,16 @@ public class CustomersHelper extends AbstractRestCallHelper {
       requestParameters.put(paramName, paramValue);
     }
   }
+
+  private HttpHeaders ifMatchHeaders(String ifMatch) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("If-Match", ifMatch);
+    return headers;
+  }
+
+  private HttpHeaders mergePatchHeaders(String ifMatch) {
+    HttpHeaders headers = ifMatchHeaders(ifMatch);
+    headers.setContentType(MediaType.valueOf("application/merge-patch+json"));
+    return headers;
+  }
 }
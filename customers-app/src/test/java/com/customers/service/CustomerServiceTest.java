@@ -1,45 +1,100 @@
 package com.customers.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.AdditionalAnswers.answer;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.Month;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.customers.config.CustomersProperties;
+import com.customers.db.model.ContactOwner;
 import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.model.CustomerVersion;
+import com.customers.db.model.EncodedCustomer;
 import com.customers.db.model.VersionModel;
+import com.customers.db.repository.AddressRepository;
+import com.customers.db.repository.CommunicationRepository;
 import com.customers.db.repository.CustomerRepository;
+import com.customers.db.repository.PhoneRepository;
+import com.customers.domain.CustomerCursor;
+import com.customers.domain.CustomerFields;
+import com.customers.etag.exception.ETagPreconditionFailedException;
+import com.customers.etag.utils.ETagUtils;
 import com.customers.exception.NotFoundException;
+import com.customers.exception.ValidationException;
+import com.customers.exception.general.ErrorCode;
+import com.customers.infrastructure.cache.CustomerCache;
+import com.customers.infrastructure.cache.CustomerCountCache;
+import com.customers.infrastructure.persistence.routing.RecentWrites;
+import com.customers.infrastructure.persistence.sharding.CustomerStore;
+import com.customers.infrastructure.persistence.sharding.DirectCustomerStore;
+import com.customers.infrastructure.search.CustomerSearchIndex;
 import com.customers.mapper.CustomerMapper;
+import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.BulkUpdateRequestDTO;
+import com.customers.model.CommunicationDataDTO;
 import com.customers.model.CreateCustomerRequestDTO;
 import com.customers.model.CustomerDTO;
+import com.customers.model.CustomerImportResultDTO;
 import com.customers.model.ListCustomersResponseDTO;
 import com.customers.model.PagingDTO;
 import com.customers.model.PersonDataDTO;
+import com.customers.model.PhoneDataDTO;
+import com.customers.model.PhoneTypeDTO;
 import com.customers.model.UpdateCustomerRequestDTO;
 import com.customers.service.impl.CustomerServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
 
 @ExtendWith(MockitoExtension.class)
 public class CustomerServiceTest {
@@ -56,20 +111,63 @@ public class CustomerServiceTest {
   @Mock
   private CustomerRepository customerRepository;
 
+  @Mock
+  private AddressRepository addressRepository;
+
+  @Mock
+  private CommunicationRepository communicationRepository;
+
+  @Mock
+  private PhoneRepository phoneRepository;
+
   @Mock
   private CustomerMapper customerMapper;
 
-  @InjectMocks
+  @Mock
+  private CustomerCache customerCache;
+
+  @Mock
+  private CustomerSearchIndex customerSearchIndex;
+
+  @Spy
+  private CustomerCountCache customerCountCache = new CustomerCountCache(new CustomersProperties(), new SimpleMeterRegistry());
+
+  @Spy
+  private RecentWrites recentWrites = new RecentWrites(new CustomersProperties());
+
+  @Spy
+  private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Spy
+  private CustomersProperties customersProperties = new CustomersProperties();
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Mock
+  private Validator validator;
+
+  @Spy
+  private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
   private CustomerServiceImpl customerService;
 
+  @BeforeEach
+  void setUp() {
+    CustomerStore customerStore = new DirectCustomerStore(customerRepository, communicationRepository, phoneRepository);
+    customerService = new CustomerServiceImpl(customerRepository, addressRepository, communicationRepository,
+        phoneRepository, customerMapper, customersProperties, customerCache, customerCountCache, customerSearchIndex,
+        recentWrites, customerStore, meterRegistry, objectMapper, validator, transactionTemplate);
+  }
+
   @Test
   void createCustomer() {
     CreateCustomerRequestDTO customerRequest = new CreateCustomerRequestDTO().person(
         new PersonDataDTO().name(CUSTOMER_NAME).firstName(CUSTOMER_FIRST_NAME).dateOfBirth(CUSTOMER_FIRST_DATE_OF_BIRTH));
-    when(customerMapper.fromCreateBodyToEntity(any())).thenReturn(CUSTOMER_ENTITY);
+    when(customerMapper.fromCreateBodyToEntity(any())).thenAnswer(invocation -> CUSTOMER_ENTITY.toBuilder().build());
     customerService.createCustomer(customerRequest);
 
-    verify(customerRepository).save(any(Customer.class));
+    verify(customerRepository).saveAndFlush(any(Customer.class));
   }
 
   @Test
@@ -78,7 +176,7 @@ public class CustomerServiceTest {
         new PersonDataDTO().name(CUSTOMER_NAME).firstName(CUSTOMER_FIRST_NAME).dateOfBirth(CUSTOMER_FIRST_DATE_OF_BIRTH))
         .addresses(List.of())
         .communications(List.of());
-    when(customerMapper.fromCreateBodyToEntity(any())).thenReturn(CUSTOMER_ENTITY);
+    when(customerMapper.fromCreateBodyToEntity(any())).thenAnswer(invocation -> CUSTOMER_ENTITY.toBuilder().build());
     when(customerMapper.fromEntity(any(Customer.class))).thenReturn(CUSTOMER_DTO);
 
     mockSaveCustomer();
@@ -92,14 +190,107 @@ public class CustomerServiceTest {
     assertEquals(customerDTO.getPerson().getDateOfBirth(), CUSTOMER_FIRST_DATE_OF_BIRTH);
   }
 
+  @Test
+  void createCustomers_isWrittenInChunks() {
+    customersProperties.getBulk().setChunkSize(2);
+    BulkCreationRequestDTO bulkCreationRequestDTO = new BulkCreationRequestDTO().customers(List.of(
+        new CreateCustomerRequestDTO(), new CreateCustomerRequestDTO(), new CreateCustomerRequestDTO()));
+    when(customerMapper.fromCreateBodyToEntity(any())).thenAnswer(invocation -> CUSTOMER_ENTITY.toBuilder().build());
+    when(customerRepository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(customerMapper.fromEntity(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+        .map(customer -> CUSTOMER_DTO).toList());
+
+    List<CustomerDTO> createdCustomers = customerService.createCustomers(bulkCreationRequestDTO);
+
+    assertEquals(3, createdCustomers.size());
+    verify(customerRepository).saveAllAndFlush(argThat(customers -> ((List<?>) customers).size() == 2));
+    verify(customerRepository).saveAllAndFlush(argThat(customers -> ((List<?>) customers).size() == 1));
+    verify(customerRepository, times(2)).detachAll();
+    assertEquals(3, meterRegistry.get("customers.bulk.size").tag("operation", "createCustomers").summary().totalAmount());
+  }
+
+  @Test
+  void createCustomers_withIds_skipsTheExistingCustomers() {
+    final UUID existingCustomerId = UUID.randomUUID();
+    final UUID newCustomerId = UUID.randomUUID();
+    BulkCreationRequestDTO bulkCreationRequestDTO = new BulkCreationRequestDTO().customers(List.of(
+        new CreateCustomerRequestDTO(), new CreateCustomerRequestDTO()));
+    when(customerRepository.findExistingCustomerIds(List.of(existingCustomerId, newCustomerId)))
+        .thenReturn(List.of(existingCustomerId));
+    when(customerMapper.fromCreateBodyToEntity(any())).thenAnswer(invocation -> CUSTOMER_ENTITY.toBuilder().build());
+    when(customerRepository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    List<UUID> customerIds = customerService.createCustomers(bulkCreationRequestDTO,
+        List.of(existingCustomerId, newCustomerId));
+
+    assertEquals(List.of(existingCustomerId, newCustomerId), customerIds);
+    verify(customerRepository).saveAllAndFlush(argThat(customers -> ((List<?>) customers).stream()
+        .map(customer -> ((Customer) customer).getCustomerId()).toList().equals(List.of(newCustomerId))));
+  }
+
+  @Test
+  void createCustomers_withDuplicatedEmailInRequest_throwsValidationException() {
+    final CommunicationDataDTO communication = new CommunicationDataDTO().email("customer@mail.com").phones(List.of());
+    BulkCreationRequestDTO bulkCreationRequestDTO = new BulkCreationRequestDTO().customers(List.of(
+        new CreateCustomerRequestDTO().communications(List.of(communication)),
+        new CreateCustomerRequestDTO().communications(List.of(communication))));
+
+    ValidationException exception = assertThrows(ValidationException.class, () -> customerService.createCustomers(bulkCreationRequestDTO));
+    assertEquals(ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS.getErrorCode(), exception.getApplicationError().getCode());
+    verifyNoInteractions(communicationRepository, customerRepository);
+  }
+
+  @Test
+  void createCustomers_withExistingPhone_throwsValidationException() {
+    BulkCreationRequestDTO bulkCreationRequestDTO = new BulkCreationRequestDTO().customers(List.of(
+        new CreateCustomerRequestDTO().communications(List.of(new CommunicationDataDTO().email("customer1@mail.com")
+            .phones(List.of(new PhoneDataDTO().phoneType(PhoneTypeDTO.MOBILE).phoneNumber("111"))))),
+        new CreateCustomerRequestDTO().communications(List.of(new CommunicationDataDTO().email("customer2@mail.com")
+            .phones(List.of(new PhoneDataDTO().phoneType(PhoneTypeDTO.MOBILE).phoneNumber("222")))))));
+    when(phoneRepository.findOwnersByPhoneNumberIn(argThat(phoneNumbers -> phoneNumbers.containsAll(List.of("111", "222")))))
+        .thenReturn(List.of(contactOwner("222", UUID.randomUUID())));
+
+    ValidationException exception = assertThrows(ValidationException.class, () -> customerService.createCustomers(bulkCreationRequestDTO));
+    assertEquals(ErrorCode.CUSTOMER_PHONE_ALREADY_EXISTS.getErrorCode(), exception.getApplicationError().getCode());
+    verify(communicationRepository).findOwnersByEmailIn(any());
+    verifyNoInteractions(customerRepository);
+  }
+
+  @Test
+  void createCustomer_withEmailTakenConcurrently_throwsValidationException() {
+    CreateCustomerRequestDTO customerRequest = new CreateCustomerRequestDTO()
+        .communications(List.of(new CommunicationDataDTO().email("customer@mail.com").phones(List.of())));
+    when(customerMapper.fromCreateBodyToEntity(any())).thenAnswer(invocation -> CUSTOMER_ENTITY.toBuilder().build());
+    when(customerRepository.saveAndFlush(any(Customer.class))).thenThrow(new DataIntegrityViolationException("unique violation",
+        new ConstraintViolationException("unique violation", new SQLException(), "PUBLIC.UK_COMMUNICATIONS_EMAIL_INDEX_1")));
+
+    ValidationException exception = assertThrows(ValidationException.class, () -> customerService.createCustomer(customerRequest));
+    assertEquals(ErrorCode.CUSTOMER_EMAIL_ALREADY_EXISTS.getErrorCode(), exception.getApplicationError().getCode());
+    assertEquals(List.of("customer@mail.com"), exception.getApplicationError().getParameters());
+    verifyNoInteractions(customerSearchIndex);
+  }
+
+  @Test
+  void updateCustomer_withOwnEmail() {
+    UpdateCustomerRequestDTO updateCustomerRequestDTO = new UpdateCustomerRequestDTO()
+        .communications(List.of(new CommunicationDataDTO().email("customer@mail.com").phones(List.of())));
+    when(customerRepository.findDetailedByCustomerId(any())).thenReturn(Optional.ofNullable(CUSTOMER_ENTITY));
+    when(communicationRepository.findOwnersByEmailIn(any())).thenReturn(List.of(contactOwner("customer@mail.com", CUSTOMER_ID)));
+    when(customerMapper.updateEntityFromModel(eq(updateCustomerRequestDTO), any()))
+        .thenReturn(CUSTOMER_ENTITY);
+
+    customerService.updateCustomer(updateCustomerRequestDTO, CUSTOMER_ID, "\"1\"");
+    verify(customerRepository).saveAndFlush(any(Customer.class));
+  }
+
   @Test
   void getCustomer() {
-    when(customerRepository.findById(any())).thenReturn(Optional.ofNullable(CUSTOMER_ENTITY));
+    when(customerRepository.findDetailedByCustomerId(any())).thenReturn(Optional.ofNullable(CUSTOMER_ENTITY));
     when(customerMapper.entityToVersionModel(any())).thenReturn(new VersionModel<>(1L, CUSTOMER_DTO));
 
-    assertDoesNotThrow(() -> customerService.getCustomer(CUSTOMER_ID));
+    assertDoesNotThrow(() -> customerService.getCustomer(CUSTOMER_ID, CustomerFields.ALL));
 
-    VersionModel<CustomerDTO> customerDTOVersionModel = customerService.getCustomer(CUSTOMER_ID);
+    VersionModel<CustomerDTO> customerDTOVersionModel = customerService.getCustomer(CUSTOMER_ID, CustomerFields.ALL);
     assertNotNull(customerDTOVersionModel);
     assertEquals(customerDTOVersionModel.getVersion(), 1L);
     final var body = customerDTOVersionModel.getBody();
@@ -110,19 +301,75 @@ public class CustomerServiceTest {
     assertEquals(body.getPerson().getDateOfBirth(), CUSTOMER_FIRST_DATE_OF_BIRTH);
   }
 
+  @Test
+  void getCustomer_whenCached_doesNotHitTheDatabase() {
+    VersionModel<CustomerDTO> cachedCustomer = new VersionModel<>(1L, CUSTOMER_DTO);
+    when(customerCache.get(CUSTOMER_ID)).thenReturn(Optional.of(cachedCustomer));
+
+    assertEquals(cachedCustomer, customerService.getCustomer(CUSTOMER_ID, CustomerFields.ALL));
+    verifyNoInteractions(customerRepository, customerMapper);
+  }
+
+  @Test
+  void getCustomer_whenNotCached_cachesTheLoadedCustomer() {
+    VersionModel<CustomerDTO> loadedCustomer = new VersionModel<>(1L, CUSTOMER_DTO);
+    when(customerRepository.findDetailedByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(CUSTOMER_ENTITY));
+    when(customerMapper.entityToVersionModel(CUSTOMER_ENTITY)).thenReturn(loadedCustomer);
+
+    customerService.getCustomer(CUSTOMER_ID, CustomerFields.ALL);
+    verify(customerCache).put(loadedCustomer);
+  }
+
+  @Test
+  void getEncodedCustomer_whenNotEncoded_cachesTheJson() throws Exception {
+    VersionModel<CustomerDTO> cachedCustomer = new VersionModel<>(1L, CUSTOMER_DTO);
+    when(customerCache.get(CUSTOMER_ID)).thenReturn(Optional.of(cachedCustomer));
+    when(customerCache.putEncoded(eq(CUSTOMER_ID), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+    EncodedCustomer encodedCustomer = customerService.getEncodedCustomer(CUSTOMER_ID);
+
+    assertEquals(1L, encodedCustomer.getVersion().getVersion());
+    assertArrayEquals(objectMapper.writeValueAsBytes(CUSTOMER_DTO), encodedCustomer.getJson());
+    verify(customerCache).putEncoded(CUSTOMER_ID, encodedCustomer);
+  }
+
+  @Test
+  void getEncodedCustomer_whenEncoded_doesNotSerializeAgain() throws Exception {
+    EncodedCustomer encodedCustomer = new EncodedCustomer(new CustomerVersion(1L, null), new byte[] { '{', '}' });
+    when(customerCache.get(CUSTOMER_ID)).thenReturn(Optional.of(new VersionModel<>(1L, CUSTOMER_DTO)));
+    when(customerCache.getEncoded(CUSTOMER_ID, 1L)).thenReturn(Optional.of(encodedCustomer));
+
+    assertEquals(encodedCustomer, customerService.getEncodedCustomer(CUSTOMER_ID));
+    verify(objectMapper, never()).writeValueAsBytes(any());
+    verify(customerCache, never()).putEncoded(any(), any());
+  }
+
+  @Test
+  void getCustomerVersion_doesNotLoadTheCustomer() {
+    when(customerRepository.findVersionByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(new CustomerVersion(1L, null)));
+
+    assertEquals(1L, customerService.getCustomerVersion(CUSTOMER_ID).getVersion());
+    verify(customerRepository, never()).findDetailedByCustomerId(any());
+    verifyNoInteractions(customerMapper);
+  }
+
   @Test
   void getCustomer_throwsNotFoundException() {
-    when(customerRepository.findById(any())).thenReturn(Optional.empty());
+    when(customerRepository.findDetailedByCustomerId(any())).thenReturn(Optional.empty());
 
-    assertThrows(NotFoundException.class, () -> customerService.getCustomer(CUSTOMER_ID));
+    assertThrows(NotFoundException.class, () -> customerService.getCustomer(CUSTOMER_ID, CustomerFields.ALL));
   }
 
   @Test
   void filterCustomers() {
-    Page<Customer> page = new PageImpl<>(List.of(CUSTOMER_ENTITY));
-    when(customerRepository.findAll(any(Specification.class), any(Pageable.class)))
-        .thenReturn(page);
-    when(customerMapper.pageToCustomersResponseDTO(eq(page)))
+    final CustomerRow customerRow = new CustomerRow(CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_FIRST_NAME, CUSTOMER_FIRST_DATE_OF_BIRTH,
+        null, null, null, null, 1L);
+    when(customerRepository.findRows(any(Specification.class), any(Pageable.class), any()))
+        .thenReturn(new PageImpl<>(List.of(customerRow)));
+    when(customerRepository.findAddressRows(List.of(CUSTOMER_ID))).thenReturn(List.of());
+    when(customerRepository.findContactRows(List.of(CUSTOMER_ID))).thenReturn(List.of());
+    when(customerMapper.fromRows(List.of(customerRow), List.of(), List.of())).thenReturn(List.of(CUSTOMER_DTO));
+    when(customerMapper.pageToCustomersResponseDTO(any()))
         .thenReturn(new ListCustomersResponseDTO()
             .results(List.of(new CustomerDTO().customerId(CUSTOMER_ID).person(
                 new PersonDataDTO().name(CUSTOMER_NAME).firstName(CUSTOMER_FIRST_NAME).dateOfBirth(CUSTOMER_FIRST_DATE_OF_BIRTH))
@@ -131,37 +378,270 @@ public class CustomerServiceTest {
             .paging(new PagingDTO().pageNumber(1).pageSize(20)));
 
     ListCustomersResponseDTO customersResponseDTO = customerService.getCustomers(CUSTOMER_NAME, null, List.of(CUSTOMER_ID), null, null, null,
-        PageRequest.of(0, 20));
+        PageRequest.of(0, 20), true, CustomerFields.ALL, null).getBody();
     assertNotNull(customersResponseDTO);
     assertNotNull(customersResponseDTO.getResults());
     assertNotNull(customersResponseDTO.getPaging());
   }
 
+  @Test
+  void filterCustomers_withFields_doesNotQueryTheCollections() {
+    final CustomerRow customerRow = new CustomerRow(CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_FIRST_NAME, CUSTOMER_FIRST_DATE_OF_BIRTH,
+        null, null, null, null, 1L);
+    when(customerRepository.findRows(any(Specification.class), any(Pageable.class), any()))
+        .thenReturn(new PageImpl<>(List.of(customerRow)));
+    when(customerMapper.fromRows(List.of(customerRow), List.of(), List.of())).thenReturn(List.of(CUSTOMER_DTO));
+    when(customerMapper.pageToCustomersResponseDTO(any()))
+        .thenReturn(new ListCustomersResponseDTO().results(List.of(CUSTOMER_DTO)).paging(new PagingDTO().pageSize(20)));
+
+    ListCustomersResponseDTO customersResponseDTO = customerService.getCustomers(CUSTOMER_NAME, null, null, null, null, null,
+        PageRequest.of(0, 20), true, CustomerFields.of(List.of("person.name"), null), null).getBody();
+    assertEquals(List.of(new CustomerDTO().person(new PersonDataDTO().name(CUSTOMER_NAME))), customersResponseDTO.getResults());
+    verify(customerRepository, never()).findAddressRows(any());
+    verify(customerRepository, never()).findContactRows(any());
+  }
+
+  @Test
+  void filterCustomers_withMatchingETag_doesNotMapThePage() {
+    final CustomerRow customerRow = new CustomerRow(CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_FIRST_NAME, CUSTOMER_FIRST_DATE_OF_BIRTH,
+        null, null, null, null, 1L);
+    when(customerRepository.findRows(any(Specification.class), any(Pageable.class), any()))
+        .thenReturn(new PageImpl<>(List.of(customerRow), PageRequest.of(0, 20), 1));
+    final String eTag = ETagUtils.formatDigestToWeakETag(customerService.getCustomers(CUSTOMER_NAME, null, null, null, null,
+        null, PageRequest.of(0, 20), true, CustomerFields.ALL, null).getVersion());
+    clearInvocations(customerRepository, customerMapper);
+
+    VersionModel<ListCustomersResponseDTO> customers = customerService.getCustomers(CUSTOMER_NAME, null, null, null, null,
+        null, PageRequest.of(0, 20), true, CustomerFields.ALL, eTag);
+    assertNull(customers.getBody());
+    verify(customerRepository, never()).findAddressRows(any());
+    verify(customerRepository, never()).findContactRows(any());
+    verifyNoInteractions(customerMapper);
+
+    final CustomerRow updatedCustomerRow = new CustomerRow(CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_FIRST_NAME,
+        CUSTOMER_FIRST_DATE_OF_BIRTH, null, null, null, null, 2L);
+    when(customerRepository.findRows(any(Specification.class), any(Pageable.class), any()))
+        .thenReturn(new PageImpl<>(List.of(updatedCustomerRow), PageRequest.of(0, 20), 1));
+    when(customerMapper.pageToCustomersResponseDTO(any())).thenReturn(new ListCustomersResponseDTO().results(List.of()));
+    assertNotNull(customerService.getCustomers(CUSTOMER_NAME, null, null, null, null, null, PageRequest.of(0, 20),
+        true, CustomerFields.ALL, eTag).getBody());
+  }
+
+  @Test
+  void filterCustomers_withoutTotal_readsASliceWithoutCounting() {
+    final CustomerRow customerRow = new CustomerRow(CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_FIRST_NAME, CUSTOMER_FIRST_DATE_OF_BIRTH,
+        null, null, null, null, 1L);
+    when(customerRepository.findRowSlice(any(Specification.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(customerRow), PageRequest.of(0, 20), true));
+    when(customerMapper.fromRows(eq(List.of(customerRow)), any(), any())).thenReturn(List.of(CUSTOMER_DTO));
+
+    customerService.getCustomers(CUSTOMER_NAME, null, null, null, null, null, PageRequest.of(0, 20), false,
+        CustomerFields.ALL, null);
+    verify(customerMapper).pageToCustomersResponseDTO(argThat(page -> !(page instanceof Page) && page.hasNext()));
+    verify(customerRepository, never()).findRows(any(Specification.class), any(Pageable.class), any());
+    verify(customerRepository, never()).countRows(any());
+  }
+
+  @Test
+  void filterCustomersByCursor() {
+    final String cursor = new CustomerCursor(OffsetDateTime.now(), CUSTOMER_ID).encode();
+    final CustomerRow customerRow = new CustomerRow(CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_FIRST_NAME, CUSTOMER_FIRST_DATE_OF_BIRTH,
+        null, null, null, null, 1L);
+    when(customerRepository.findRows(any(Specification.class), eq(CustomerCursor.KEYSET_SORT), eq(21)))
+        .thenReturn(List.of(customerRow));
+    when(customerMapper.fromRows(eq(List.of(customerRow)), any(), any())).thenReturn(List.of(CUSTOMER_DTO));
+    when(customerMapper.cursorPageToCustomersResponseDTO(eq(List.of(CUSTOMER_DTO)), eq(20)))
+        .thenReturn(new ListCustomersResponseDTO().results(List.of(CUSTOMER_DTO)).paging(new PagingDTO().pageSize(20)));
+
+    ListCustomersResponseDTO customersResponseDTO = customerService.getCustomersByCursor(CUSTOMER_NAME, null, null, null, null, null,
+        cursor, 20, CustomerFields.ALL, null).getBody();
+    assertNotNull(customersResponseDTO);
+    assertEquals(1, customersResponseDTO.getResults().size());
+  }
+
+  @Test
+  void filterCustomersByCursor_throwsValidationException() {
+    assertThrows(ValidationException.class, () -> customerService.getAllCustomersByCursor("invalid", 20, CustomerFields.ALL, null));
+  }
+
+  @Test
+  void exportCustomers_readsTheCollectionsPerChunk() {
+    customersProperties.getExport().setFetchSize(2);
+    final List<CustomerRow> customerRows = IntStream.range(0, 3)
+        .mapToObj(index -> new CustomerRow(UUID.randomUUID(), CUSTOMER_NAME, CUSTOMER_FIRST_NAME,
+            CUSTOMER_FIRST_DATE_OF_BIRTH, null, null, null, null, 0L))
+        .toList();
+    when(customerRepository.streamRows(any(), eq(2))).thenReturn(customerRows.stream());
+    when(customerMapper.fromRows(any(), any(), any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0))
+        .stream().map(row -> CUSTOMER_DTO).toList());
+    List<CustomerDTO> exportedCustomers = new ArrayList<>();
+
+    customerService.exportCustomers(null, null, null, null, null, null, exportedCustomers::add);
+    assertEquals(3, exportedCustomers.size());
+    verify(customerRepository).findAddressRows(customerRows.subList(0, 2).stream().map(CustomerRow::getCustomerId).toList());
+    verify(customerRepository).findAddressRows(List.of(customerRows.get(2).getCustomerId()));
+    verify(customerRepository, times(2)).findContactRows(any());
+  }
+
+  @Test
+  void importCustomers_commitsEveryChunkOnItsOwn() {
+    customersProperties.getBulk().setChunkSize(2);
+    when(customerMapper.fromCreateBodyToEntity(any()))
+        .thenAnswer(invocation -> Customer.builder().customerId(UUID.randomUUID()).build());
+    doAnswer(answer((List<Customer> customers) -> customers)).when(customerRepository).saveAllAndFlush(anyList());
+    List<CustomerImportResultDTO> results = new ArrayList<>();
+
+    customerService.importCustomers(Stream.of("{}", "not json", "", "{}", "{}"), results::add);
+
+    assertEquals(List.of(1, 2, 4, 5), results.stream().map(CustomerImportResultDTO::getLine).toList());
+    assertEquals(ErrorCode.INVALID_CUSTOMER.getErrorCode(), results.get(1).getCode());
+    assertNotNull(results.get(0).getCustomerId());
+    assertNotNull(results.get(3).getCustomerId());
+    verify(customerRepository, times(2)).saveAllAndFlush(anyList());
+    verify(customerRepository, times(2)).detachAll();
+  }
+
   @Test
   void updateCustomer() {
     UpdateCustomerRequestDTO updateCustomerRequestDTO = new UpdateCustomerRequestDTO().person(
         new PersonDataDTO().name(CUSTOMER_NAME).firstName(CUSTOMER_FIRST_NAME).dateOfBirth(CUSTOMER_FIRST_DATE_OF_BIRTH))
         .addresses(List.of())
         .communications(List.of());
-    when(customerRepository.findById(any())).thenReturn(Optional.ofNullable(CUSTOMER_ENTITY));
+    when(customerRepository.findDetailedByCustomerId(any())).thenReturn(Optional.ofNullable(CUSTOMER_ENTITY));
     when(customerMapper.updateEntityFromModel(eq(updateCustomerRequestDTO), any()))
         .thenReturn(CUSTOMER_ENTITY);
 
     customerService.updateCustomer(updateCustomerRequestDTO, CUSTOMER_ID, "\"1\"");
-    verify(customerRepository).save(any(Customer.class));
+    verify(customerRepository).saveAndFlush(any(Customer.class));
+    verify(customerCache).evictAfterCommit(CUSTOMER_ID);
+  }
+
+  @Test
+  void updateCustomer_personOnly_updatesWithoutLoadingTheCustomerFirst() {
+    UpdateCustomerRequestDTO updateCustomerRequestDTO = new UpdateCustomerRequestDTO().person(new PersonDataDTO().name(CUSTOMER_NAME));
+    final CustomerRow customerRow = new CustomerRow(CUSTOMER_ID, CUSTOMER_NAME, CUSTOMER_FIRST_NAME, CUSTOMER_FIRST_DATE_OF_BIRTH,
+        null, null, null, null, 2L);
+    when(customerRepository.updatePerson(CUSTOMER_ID, 1L, CUSTOMER_NAME, null, null)).thenReturn(1);
+    when(customerRepository.findRows(any(Specification.class), any(Sort.class), eq(1))).thenReturn(List.of(customerRow));
+    when(customerRepository.findAddressRows(List.of(CUSTOMER_ID))).thenReturn(List.of());
+    when(customerRepository.findContactRows(List.of(CUSTOMER_ID))).thenReturn(List.of());
+    when(customerMapper.fromRows(List.of(customerRow), List.of(), List.of())).thenReturn(List.of(CUSTOMER_DTO));
+
+    assertEquals(CUSTOMER_DTO, customerService.updateCustomer(updateCustomerRequestDTO, CUSTOMER_ID, "\"1\""));
+
+    InOrder inOrder = inOrder(customerRepository);
+    inOrder.verify(customerRepository).updatePerson(CUSTOMER_ID, 1L, CUSTOMER_NAME, null, null);
+    inOrder.verify(customerRepository).findRows(any(Specification.class), any(Sort.class), eq(1));
+    verify(customerRepository, never()).findDetailedByCustomerId(any());
+    verify(customerRepository, never()).saveAndFlush(any(Customer.class));
+    verify(customerSearchIndex).updatePerson(CUSTOMER_ID, CUSTOMER_NAME, null);
+    verify(customerCache).evictAfterCommit(CUSTOMER_ID);
+  }
+
+  @Test
+  void updateCustomer_personOnly_withStaleVersion_throwsETagPreconditionFailedException() {
+    UpdateCustomerRequestDTO updateCustomerRequestDTO = new UpdateCustomerRequestDTO().person(new PersonDataDTO().name(CUSTOMER_NAME));
+    when(customerRepository.updatePerson(CUSTOMER_ID, 1L, CUSTOMER_NAME, null, null)).thenReturn(0);
+    when(customerRepository.findVersionByCustomerId(CUSTOMER_ID)).thenReturn(Optional.of(new CustomerVersion(2L, OffsetDateTime.now())));
+
+    assertThrows(ETagPreconditionFailedException.class,
+        () -> customerService.updateCustomer(updateCustomerRequestDTO, CUSTOMER_ID, "\"1\""));
+    verifyNoInteractions(customerSearchIndex, customerCache);
+  }
+
+  @Test
+  void updateCustomer_personOnly_ofMissingCustomer_throwsNotFoundException() {
+    UpdateCustomerRequestDTO updateCustomerRequestDTO = new UpdateCustomerRequestDTO().person(new PersonDataDTO().name(CUSTOMER_NAME));
+    when(customerRepository.findVersionByCustomerId(CUSTOMER_ID)).thenReturn(Optional.empty());
+
+    assertThrows(NotFoundException.class, () -> customerService.updateCustomer(updateCustomerRequestDTO, CUSTOMER_ID, null));
+    verify(customerRepository, never()).updatePerson(any(), any(Long.class), any(), any(), any());
+  }
+
+  @Test
+  void patchCustomer_withUnknownMember_throwsValidationException() {
+    Map<String, Object> patch = Map.of("customerId", UUID.randomUUID().toString());
+
+    ValidationException exception = assertThrows(ValidationException.class,
+        () -> customerService.patchCustomer(patch, CUSTOMER_ID, "\"1\""));
+    assertEquals(ErrorCode.INVALID_PATCH.getErrorCode(), exception.getApplicationError().getCode());
+    verifyNoInteractions(customerRepository);
+  }
+
+  @Test
+  void replacePhones_ofUnknownEmail_throwsNotFoundException() {
+    when(customerRepository.updatePerson(CUSTOMER_ID, 1L, null, null, null)).thenReturn(1);
+    when(communicationRepository.findByCustomerCustomerIdAndEmail(CUSTOMER_ID, "unknown@customers.com"))
+        .thenReturn(Optional.empty());
+
+    assertThrows(NotFoundException.class,
+        () -> customerService.replacePhones(List.of(), CUSTOMER_ID, "unknown@customers.com", "\"1\""));
+    verifyNoInteractions(phoneRepository);
   }
 
   @Test
   void deleteCustomer() {
-    when(customerRepository.findById(any())).thenReturn(Optional.ofNullable(CUSTOMER_ENTITY));
+    when(customerRepository.findDetailedByCustomerId(any())).thenReturn(Optional.ofNullable(CUSTOMER_ENTITY));
 
     customerService.deleteCustomer(CUSTOMER_ID);
     verify(customerRepository).delete(any(Customer.class));
+    verify(customerCache).evictAfterCommit(CUSTOMER_ID);
+  }
+
+  @Test
+  void updateCustomers_loadsAllCustomersAtOnce() {
+    BulkUpdateRequestDTO bulkUpdateRequestDTO = new BulkUpdateRequestDTO().customers(List.of(CUSTOMER_DTO));
+    when(customerRepository.findAllDetailedByCustomerIdIn(List.of(CUSTOMER_ID))).thenReturn(List.of(CUSTOMER_ENTITY));
+    when(customerMapper.updateEntityFromModel(CUSTOMER_DTO, CUSTOMER_ENTITY)).thenReturn(CUSTOMER_ENTITY);
+
+    customerService.updateCustomers(bulkUpdateRequestDTO);
+
+    verify(customerRepository).saveAllAndFlush(List.of(CUSTOMER_ENTITY));
+    verify(customerRepository, never()).findDetailedByCustomerId(any());
+  }
+
+  @Test
+  void deleteCustomers() {
+    final List<UUID> customerIds = List.of(CUSTOMER_ID);
+    when(customerRepository.findExistingCustomerIds(customerIds)).thenReturn(customerIds);
+
+    customerService.deleteCustomers(customerIds);
+
+    InOrder inOrder = inOrder(phoneRepository, communicationRepository, addressRepository, customerRepository);
+    inOrder.verify(phoneRepository).deleteAllOfCustomers(customerIds);
+    inOrder.verify(communicationRepository).deleteAllOfCustomers(customerIds);
+    inOrder.verify(addressRepository).deleteAllOfCustomers(customerIds);
+    inOrder.verify(customerRepository).deleteAllByIdInBatch(customerIds);
+  }
+
+  @Test
+  void deleteCustomers_withMissingCustomers_throwsValidationException() {
+    final UUID missingCustomerId = UUID.randomUUID();
+    when(customerRepository.findExistingCustomerIds(any())).thenReturn(List.of(CUSTOMER_ID));
+
+    ValidationException exception = assertThrows(ValidationException.class,
+        () -> customerService.deleteCustomers(List.of(CUSTOMER_ID, missingCustomerId)));
+    assertEquals(List.of(missingCustomerId.toString()), exception.getApplicationError().getDetails());
+    verifyNoInteractions(phoneRepository, communicationRepository, addressRepository);
+  }
+
+  private ContactOwner contactOwner(String value, UUID customerId) {
+    return new ContactOwner() {
+      @Override
+      public String getValue() {
+        return value;
+      }
+
+      @Override
+      public UUID getCustomerId() {
+        return customerId;
+      }
+    };
   }
 
   private void mockSaveCustomer() {
     doAnswer(answer((Customer customer) -> customer))
-        .when(customerRepository).save(any(Customer.class));
+        .when(customerRepository).saveAndFlush(any(Customer.class));
   }
 
 }
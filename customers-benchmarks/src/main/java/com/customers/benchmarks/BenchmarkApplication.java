@@ -0,0 +1,34 @@
+package com.customers.benchmarks;
+
+import java.util.stream.Stream;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.customers.CustomersApplication;
+
+/**
+ * Starts the customers application without the web layer on its embedded H2 database.
+ */
+final class BenchmarkApplication {
+
+  /**
+   * Passed as command line arguments, so they override the application.properties of the application.
+   */
+  private static final String[] QUIET_ARGUMENTS = {
+      "--spring.jpa.show-sql=false",
+      "--logging.level.root=WARN",
+      "--logging.level.com.customers=WARN"
+  };
+
+  private BenchmarkApplication() {
+  }
+
+  static ConfigurableApplicationContext start(String... arguments) {
+    return new SpringApplicationBuilder(CustomersApplication.class)
+        .web(WebApplicationType.NONE)
+        .logStartupInfo(false)
+        .run(Stream.concat(Stream.of(QUIET_ARGUMENTS), Stream.of(arguments)).toArray(String[]::new));
+  }
+}
@@ -0,0 +1,96 @@
+package com.customers.benchmarks;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.mapper.CustomerMapper;
+import com.customers.model.AddressDataDTO;
+import com.customers.model.AddressTypeDTO;
+import com.customers.model.CommunicationDataDTO;
+import com.customers.model.CreateCustomerRequestDTO;
+import com.customers.model.PersonDataDTO;
+import com.customers.model.PhoneDataDTO;
+import com.customers.model.PhoneTypeDTO;
+
+/**
+ * Customers shaped like the production ones: a billing and a delivery address, two communications with two phones each.
+ */
+final class CustomerFixtures {
+
+  static final List<String> CITIES = List.of("Berlin", "Hamburg", "Munich", "Cologne", "Frankfurt", "Stuttgart",
+      "Leipzig", "Dresden", "Bremen", "Hanover");
+
+  private CustomerFixtures() {
+  }
+
+  /**
+   * The index makes the emails and phone numbers unique, so any number of these customers can be created together.
+   */
+  static CreateCustomerRequestDTO createCustomerRequest(long index) {
+    final String city = CITIES.get((int) (index % CITIES.size()));
+    return new CreateCustomerRequestDTO()
+        .person(new PersonDataDTO().name("Name" + index).firstName("FirstName" + index)
+            .dateOfBirth(LocalDate.of(1950, 1, 1).plusDays(index % 20_000)))
+        .addresses(List.of(
+            address(AddressTypeDTO.BILLING, city, index),
+            address(AddressTypeDTO.DELIVERY, city, index + 1)))
+        .communications(List.of(
+            communication("private", index),
+            communication("work", index)));
+  }
+
+  static Customer customer(CustomerMapper customerMapper, long index) {
+    final Customer customer = customerMapper.fromCreateBodyToEntity(createCustomerRequest(index));
+    customer.setCustomerId(UUID.randomUUID());
+    customer.setVersion(3L);
+    customer.setCreated(OffsetDateTime.now().minusDays(30));
+    customer.setCreatedBy("benchmarks");
+    customer.setLastModified(OffsetDateTime.now());
+    customer.setUpdatedBy("benchmarks");
+    return customer;
+  }
+
+  static CustomerRow customerRow(Customer customer) {
+    return new CustomerRow(customer.getCustomerId(), customer.getName(), customer.getFirstName(), customer.getDateOfBirth(),
+        customer.getCreatedBy(), customer.getCreated(), customer.getUpdatedBy(), customer.getLastModified(),
+        customer.getVersion());
+  }
+
+  static Stream<AddressRow> addressRows(Customer customer) {
+    return customer.getAddresses().stream().map(address -> new AddressRow(customer.getCustomerId(), address.getAddressType(),
+        address.getStreet(), address.getNumber(), address.getPostal(), address.getCity()));
+  }
+
+  /**
+   * The phones of a communication are adjacent, like the rows of the contacts query.
+   */
+  static Stream<ContactRow> contactRows(Customer customer) {
+    return customer.getCommunications().stream().flatMap(communication -> {
+      final UUID communicationId = UUID.randomUUID();
+      return communication.getPhones().stream().map(phone -> new ContactRow(customer.getCustomerId(), communicationId,
+          communication.getEmail(), phone.getPhoneType(), phone.getPhoneNumber()));
+    });
+  }
+
+  private static AddressDataDTO address(AddressTypeDTO addressType, String city, long index) {
+    return new AddressDataDTO().addressType(addressType).street("Street " + index).number(String.valueOf(index % 200))
+        .postal(String.format("%05d", index % 100_000)).city(city);
+  }
+
+  private static CommunicationDataDTO communication(String kind, long index) {
+    return new CommunicationDataDTO().email(kind + "." + index + "@customers.com").phones(List.of(
+        new PhoneDataDTO().phoneType(PhoneTypeDTO.MOBILE).phoneNumber(phoneNumber(kind, "1", index)),
+        new PhoneDataDTO().phoneType(PhoneTypeDTO.PRIVATE).phoneNumber(phoneNumber(kind, "2", index))));
+  }
+
+  private static String phoneNumber(String kind, String line, long index) {
+    return "+49" + ("private".equals(kind) ? "151" : "171") + line + String.format("%08d", index);
+  }
+}
@@ -0,0 +1,92 @@
+package com.customers.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.customers.db.model.AddressRow;
+import com.customers.db.model.ContactRow;
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerRow;
+import com.customers.db.model.VersionModel;
+import com.customers.domain.CustomerCursor;
+import com.customers.mapper.CustomerMapper;
+import com.customers.mapper.CustomerMapperImpl;
+import com.customers.model.CreateCustomerRequestDTO;
+import com.customers.model.CustomerDTO;
+import com.customers.model.ListCustomersResponseDTO;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerMapperBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+
+  private final CustomerMapper customerMapper = new CustomerMapperImpl();
+
+  private Customer customer;
+  private CreateCustomerRequestDTO createCustomerRequest;
+  private List<CustomerRow> customerRows;
+  private List<AddressRow> addressRows;
+  private List<ContactRow> contactRows;
+  private Page<CustomerDTO> page;
+
+  @Setup
+  public void setUp() {
+    customer = CustomerFixtures.customer(customerMapper, 1);
+    createCustomerRequest = CustomerFixtures.createCustomerRequest(1);
+    final List<Customer> customers = LongStream.range(0, PAGE_SIZE)
+        .mapToObj(index -> CustomerFixtures.customer(customerMapper, index))
+        .toList();
+    customerRows = customers.stream().map(CustomerFixtures::customerRow).toList();
+    addressRows = customers.stream().flatMap(CustomerFixtures::addressRows).toList();
+    contactRows = customers.stream().flatMap(CustomerFixtures::contactRows).toList();
+    page = new PageImpl<>(customerMapper.fromEntity(customers), PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT), 1000);
+  }
+
+  @Benchmark
+  public CustomerDTO fromEntity() {
+    return customerMapper.fromEntity(customer);
+  }
+
+  @Benchmark
+  public VersionModel<CustomerDTO> entityToVersionModel() {
+    return customerMapper.entityToVersionModel(customer);
+  }
+
+  @Benchmark
+  public Customer fromCreateBodyToEntity() {
+    return customerMapper.fromCreateBodyToEntity(createCustomerRequest);
+  }
+
+  /**
+   * Assembles a page of customers from the rows of the list queries.
+   */
+  @Benchmark
+  public List<CustomerDTO> fromRows() {
+    return customerMapper.fromRows(customerRows, addressRows, contactRows);
+  }
+
+  @Benchmark
+  public ListCustomersResponseDTO pageToCustomersResponseDTO() {
+    return customerMapper.pageToCustomersResponseDTO(page);
+  }
+}
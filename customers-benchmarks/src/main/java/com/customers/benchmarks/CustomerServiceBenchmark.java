@@ -0,0 +1,200 @@
+package com.customers.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import com.customers.db.model.CustomerVersion;
+import com.customers.db.model.VersionModel;
+import com.customers.domain.CustomerCursor;
+import com.customers.domain.CustomerFields;
+import com.customers.etag.utils.ETagUtils;
+import com.customers.model.BulkCreationRequestDTO;
+import com.customers.model.CustomerDTO;
+import com.customers.model.ListCustomersResponseDTO;
+import com.customers.model.PagingDTO;
+import com.customers.model.PersonDataDTO;
+import com.customers.model.UpdateCustomerRequestDTO;
+import com.customers.service.CustomerService;
+
+/**
+ * End to end service calls against the embedded H2 database, seeded with customers of realistic graphs.
+ * A cache size of 0 disables the customer cache, every read goes to the database then.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CustomerServiceBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+  private static final int SEED_CHUNK_SIZE = 500;
+  private static final CustomerFields NAMES_ONLY = CustomerFields.of(
+      List.of(CustomerFields.CUSTOMER_ID, "person.name", "person.firstName"), null);
+
+  @Param("10000")
+  private int customers;
+
+  @Param({ "0", "10000" })
+  private long cacheSize;
+
+  private ConfigurableApplicationContext context;
+  private CustomerService customerService;
+  private List<UUID> customerIds;
+  private String secondPageCursor;
+  private String firstPageETag;
+  private final AtomicLong nextCustomerIndex = new AtomicLong();
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("--customers.cache.maximum-size=" + cacheSize);
+    customerService = context.getBean(CustomerService.class);
+
+    customerIds = new ArrayList<>(customers);
+    for (long from = 0; from < customers; from += SEED_CHUNK_SIZE) {
+      final BulkCreationRequestDTO bulkCreationRequest = new BulkCreationRequestDTO().customers(
+          LongStream.range(from, Math.min(from + SEED_CHUNK_SIZE, customers))
+              .mapToObj(CustomerFixtures::createCustomerRequest)
+              .toList());
+      customerService.createCustomers(bulkCreationRequest).forEach(customer -> customerIds.add(customer.getCustomerId()));
+    }
+    nextCustomerIndex.set(customers);
+    final VersionModel<ListCustomersResponseDTO> firstPage = customerService.getAllCustomers(
+        PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT), true, CustomerFields.ALL, null);
+    secondPageCursor = ((PagingDTO) firstPage.getBody().getPaging()).getNextCursor();
+    firstPageETag = ETagUtils.formatDigestToWeakETag(firstPage.getVersion());
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public VersionModel<CustomerDTO> getCustomer() {
+    return customerService.getCustomer(randomCustomerId(), CustomerFields.ALL);
+  }
+
+  /**
+   * Reads the name of the customer only, a cache miss does not read the addresses and communications.
+   */
+  @Benchmark
+  public VersionModel<CustomerDTO> getCustomer_namesOnly() {
+    return customerService.getCustomer(randomCustomerId(), NAMES_ONLY);
+  }
+
+  @Benchmark
+  public CustomerVersion getCustomerVersion() {
+    return customerService.getCustomerVersion(randomCustomerId());
+  }
+
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getCustomers_byCity() {
+    return customerService.getCustomers(null, null, null, randomCity(), null, null,
+        PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT), true, CustomerFields.ALL, null);
+  }
+
+  /**
+   * The same page as {@link #getCustomers_byCity()} as a slice, the customers of the city are not counted.
+   */
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getCustomers_byCity_withoutTotal() {
+    return customerService.getCustomers(null, null, null, randomCity(), null, null,
+        PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT), false, CustomerFields.ALL, null);
+  }
+
+  /**
+   * The same page as {@link #getCustomers_byCity()}, without the queries of the addresses and communications.
+   */
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getCustomers_byCity_namesOnly() {
+    return customerService.getCustomers(null, null, null, randomCity(), null, null,
+        PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT), true, NAMES_ONLY, null);
+  }
+
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getCustomers_byName() {
+    return customerService.getCustomers("name1", null, null, null, null, null,
+        PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT), true, CustomerFields.ALL, null);
+  }
+
+  /**
+   * Searches a substring of the emails together with a city, both answered from the search index.
+   */
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getCustomers_bySearch() {
+    final int index = ThreadLocalRandom.current().nextInt(customers);
+    return customerService.getCustomers(null, null, null, null, null, index + "@customers " + randomCity(),
+        PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT), true, CustomerFields.ALL, null);
+  }
+
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getAllCustomers() {
+    final int pageNumber = ThreadLocalRandom.current().nextInt(customers / PAGE_SIZE);
+    return customerService.getAllCustomers(PageRequest.of(pageNumber, PAGE_SIZE, CustomerCursor.KEYSET_SORT),
+        true, CustomerFields.ALL, null);
+  }
+
+  /**
+   * Reads the first page again with its ETag, the page is not mapped as it did not change.
+   */
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getAllCustomers_notModified() {
+    return customerService.getAllCustomers(PageRequest.of(0, PAGE_SIZE, CustomerCursor.KEYSET_SORT),
+        true, CustomerFields.ALL, firstPageETag);
+  }
+
+  @Benchmark
+  public VersionModel<ListCustomersResponseDTO> getAllCustomersByCursor() {
+    return customerService.getAllCustomersByCursor(secondPageCursor, PAGE_SIZE, CustomerFields.ALL, null);
+  }
+
+  @Benchmark
+  public CustomerDTO updateCustomer() {
+    final UUID customerId = randomCustomerId();
+    final CustomerVersion customerVersion = customerService.getCustomerVersion(customerId);
+    final UpdateCustomerRequestDTO updateCustomerRequest = new UpdateCustomerRequestDTO()
+        .person(new PersonDataDTO().name("Name" + customerVersion.getVersion()));
+    return customerService.updateCustomer(updateCustomerRequest, customerId,
+        ETagUtils.formatVersionToETag(customerVersion.getVersion()));
+  }
+
+  /**
+   * Creates a new customer and deletes it again, so the data set keeps its size.
+   */
+  @Benchmark
+  public void createAndDeleteCustomer() {
+    final CustomerDTO customer = customerService.createCustomer(
+        CustomerFixtures.createCustomerRequest(nextCustomerIndex.getAndIncrement()));
+    customerService.deleteCustomer(customer.getCustomerId());
+  }
+
+  private UUID randomCustomerId() {
+    return customerIds.get(ThreadLocalRandom.current().nextInt(customerIds.size()));
+  }
+
+  private String randomCity() {
+    return CustomerFixtures.CITIES.get(ThreadLocalRandom.current().nextInt(CustomerFixtures.CITIES.size()));
+  }
+}
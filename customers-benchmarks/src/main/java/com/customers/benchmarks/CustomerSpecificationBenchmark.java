@@ -0,0 +1,85 @@
+package com.customers.benchmarks;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.customers.db.model.Customer;
+import com.customers.db.repository.CustomerSpecificationHelper;
+import com.customers.domain.CustomerFilter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Builds the filter of the customers search, up to the Hibernate query, without executing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerSpecificationBenchmark {
+
+  private final CustomerFilter filter = CustomerFilter.builder()
+      .name("name").firstName("first").city("Berlin").email("private.1@customers.com").search("name")
+      .customersIds(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()))
+      .build();
+
+  private ConfigurableApplicationContext context;
+  private EntityManager entityManager;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+  }
+
+  @TearDown
+  public void tearDown() {
+    entityManager.close();
+    context.close();
+  }
+
+  @Benchmark
+  public Specification<Customer> createFilter() {
+    return CustomerSpecificationHelper.createFilter(filter);
+  }
+
+  @Benchmark
+  public Predicate toPredicate() {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Customer> query = cb.createQuery(Customer.class);
+    final Root<Customer> root = query.from(Customer.class);
+    return CustomerSpecificationHelper.createFilter(filter).toPredicate(root, query, cb);
+  }
+
+  @Benchmark
+  public TypedQuery<Customer> createQuery() {
+    final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Customer> query = cb.createQuery(Customer.class);
+    final Root<Customer> root = query.from(Customer.class);
+    query.select(root).distinct(true).where(CustomerSpecificationHelper.createFilter(filter).toPredicate(root, query, cb));
+    return entityManager.createQuery(query);
+  }
+}
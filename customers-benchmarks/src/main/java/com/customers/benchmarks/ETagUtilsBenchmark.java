@@ -0,0 +1,70 @@
+package com.customers.benchmarks;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.customers.db.model.Customer;
+import com.customers.db.model.CustomerVersion;
+import com.customers.etag.exception.ETagPreconditionFailedException;
+import com.customers.etag.utils.ETagUtils;
+import com.customers.mapper.CustomerMapperImpl;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ETagUtilsBenchmark {
+
+  private Customer customer;
+  private CustomerVersion customerVersion;
+  private String ifModifiedSince;
+
+  @Setup
+  public void setUp() {
+    customer = CustomerFixtures.customer(new CustomerMapperImpl(), 1);
+    customerVersion = new CustomerVersion(customer.getVersion(), customer.getLastModified());
+    ifModifiedSince = DateTimeFormatter.RFC_1123_DATE_TIME.format(OffsetDateTime.now().plusDays(1));
+  }
+
+  @Benchmark
+  public void checkETag() {
+    ETagUtils.checkETag(customer, "\"3\"");
+  }
+
+  /**
+   * The rejected update builds its error details from the whole customer.
+   */
+  @Benchmark
+  public void checkETag_mismatch(Blackhole blackhole) {
+    try {
+      ETagUtils.checkETag(customer, "\"2\"");
+    } catch (ETagPreconditionFailedException e) {
+      blackhole.consume(e);
+    }
+  }
+
+  @Benchmark
+  public boolean isNotModified_ifNoneMatch() {
+    return ETagUtils.isNotModified(customerVersion, "\"1\", W/\"2\", \"3\"", null);
+  }
+
+  @Benchmark
+  public boolean isNotModified_ifModifiedSince() {
+    return ETagUtils.isNotModified(customerVersion, null, ifModifiedSince);
+  }
+}